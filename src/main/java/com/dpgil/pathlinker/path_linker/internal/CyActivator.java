@@ -1,11 +1,17 @@
 package com.dpgil.pathlinker.path_linker.internal;
 
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.events.AddedEdgesListener;
+import org.cytoscape.model.events.AddedNodesListener;
 import org.cytoscape.model.events.ColumnCreatedListener;
 import org.cytoscape.model.events.ColumnDeletedListener;
 import org.cytoscape.model.events.ColumnNameChangedListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
 import org.cytoscape.model.events.NetworkAddedListener;
 import org.cytoscape.model.events.NetworkDestroyedListener;
+import org.cytoscape.model.events.RemovedEdgesListener;
+import org.cytoscape.model.events.RemovedNodesListener;
 import org.cytoscape.model.events.RowsSetListener;
 
 import java.util.Properties;
@@ -15,6 +21,7 @@ import org.cytoscape.application.events.SetCurrentNetworkListener;
 import org.cytoscape.application.swing.CySwingApplication;
 import org.cytoscape.application.swing.CytoPanelComponent;
 import org.cytoscape.ci.CIExceptionFactory;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.service.util.AbstractCyActivator;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.osgi.framework.BundleContext;
@@ -22,9 +29,13 @@ import org.osgi.util.tracker.ServiceTracker;
 
 import com.dpgil.pathlinker.path_linker.internal.event.PathLinkerColumnUpdateListener;
 import com.dpgil.pathlinker.path_linker.internal.event.PathLinkerNetworkEventListener;
+import com.dpgil.pathlinker.path_linker.internal.event.PathLinkerNodeNameListener;
 import com.dpgil.pathlinker.path_linker.internal.event.PathLinkerNodeSelectionListener;
+import com.dpgil.pathlinker.path_linker.internal.event.PathLinkerSnapshotCacheListener;
 import com.dpgil.pathlinker.path_linker.internal.rest.PathLinkerImpl;
 import com.dpgil.pathlinker.path_linker.internal.rest.PathLinkerResource;
+import com.dpgil.pathlinker.path_linker.internal.util.NodeNameCache;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
 import com.dpgil.pathlinker.path_linker.internal.view.PathLinkerControlPanel;
 
 /**
@@ -42,12 +53,19 @@ public class CyActivator extends AbstractCyActivator
     private PathLinkerNodeSelectionListener nodeViewEventListener;
     private PathLinkerColumnUpdateListener columnUpdateListener;
     private PathLinkerNetworkEventListener networkEventListener;
+    private PathLinkerSnapshotCacheListener snapshotCacheListener;
+    private PathLinkerNodeNameListener nodeNameListener;
 
     private CyApplicationManager cyApplicationManager;
     private CyServiceRegistrar serviceRegistrar;
     private CyNetworkManager networkManager;
     private CyAppAdapter adapter;
     private CySwingApplication cySwingApp;
+    private CyNetworkTableManager networkTableManager;
+    private CyEventHelper eventHelper;
+
+    private SnapshotCache snapshotCache;
+    private NodeNameCache nodeNameCache;
 
     private ServiceTracker ciExceptionFactoryTracker;
     private CIExceptionFactory ciExceptionFactory;
@@ -67,6 +85,12 @@ public class CyActivator extends AbstractCyActivator
         networkManager = getService(context, CyNetworkManager.class);
         adapter = getService(context, CyAppAdapter.class);
         cySwingApp = getService(context, CySwingApplication.class);
+        networkTableManager = getService(context, CyNetworkTableManager.class);
+        eventHelper = getService(context, CyEventHelper.class);
+
+        // the snapshots and node name indexes of the networks are shared by the runs from the panel and CyRest
+        snapshotCache = new SnapshotCache(eventHelper);
+        nodeNameCache = new NodeNameCache(eventHelper);
 
         ciExceptionFactoryTracker = new ServiceTracker(context, context.createFilter("(objectClass=org.cytoscape.ci.CIExceptionFactory)"), null);
         ciExceptionFactoryTracker.open();
@@ -81,12 +105,16 @@ public class CyActivator extends AbstractCyActivator
                 cyApplicationManager,
                 networkManager,
                 adapter,
+                snapshotCache,
+                nodeNameCache,
                 _version,
                 _buildDate);
 
         nodeViewEventListener = new PathLinkerNodeSelectionListener(controlPanel, cyApplicationManager);
         columnUpdateListener = new PathLinkerColumnUpdateListener(controlPanel);
         networkEventListener = new PathLinkerNetworkEventListener(controlPanel);
+        snapshotCacheListener = new PathLinkerSnapshotCacheListener(snapshotCache, networkTableManager);
+        nodeNameListener = new PathLinkerNodeNameListener(nodeNameCache, networkTableManager);
 
         // register control panel
         registerService(context, controlPanel, CytoPanelComponent.class, new Properties());
@@ -96,7 +124,7 @@ public class CyActivator extends AbstractCyActivator
                 controlPanel,
                 cyApplicationManager, networkManager, adapter,
                 serviceRegistrar, cySwingApp,
-                ciExceptionFactory);
+                ciExceptionFactory, snapshotCache, nodeNameCache);
 
         // register all necessary services to the bundle
         registerService(context, adapter, CyAppAdapter.class, new Properties());
@@ -118,6 +146,22 @@ public class CyActivator extends AbstractCyActivator
         registerService(context, networkEventListener, NetworkAddedListener.class, new Properties());
         registerService(context, networkEventListener, NetworkDestroyedListener.class, new Properties());
 
+        // handle events changing the networks the cached snapshots were built from
+        registerService(context, snapshotCacheListener, AddedEdgesListener.class, new Properties());
+        registerService(context, snapshotCacheListener, RemovedEdgesListener.class, new Properties());
+        registerService(context, snapshotCacheListener, AddedNodesListener.class, new Properties());
+        registerService(context, snapshotCacheListener, RemovedNodesListener.class, new Properties());
+        registerService(context, snapshotCacheListener, RowsSetListener.class, new Properties());
+        registerService(context, snapshotCacheListener, ColumnDeletedListener.class, new Properties());
+        registerService(context, snapshotCacheListener, ColumnNameChangedListener.class, new Properties());
+        registerService(context, snapshotCacheListener, NetworkAboutToBeDestroyedListener.class, new Properties());
+
+        // handle events adding, removing or renaming the nodes of the indexed networks
+        registerService(context, nodeNameListener, AddedNodesListener.class, new Properties());
+        registerService(context, nodeNameListener, RemovedNodesListener.class, new Properties());
+        registerService(context, nodeNameListener, RowsSetListener.class, new Properties());
+        registerService(context, nodeNameListener, NetworkAboutToBeDestroyedListener.class, new Properties());
+
         // register CyRest service
         registerService(context, cyRestClient, PathLinkerResource.class, new Properties());
     }
@@ -41,6 +41,9 @@ public class PathLinkerNetworkEventListener implements SetCurrentNetworkListener
             controlPanel._networkCmb.setSelectedIndex(
                     controlPanel._suidToIndexMap.get(network.getSUID()));
         }
+
+        // show the nodes added to the sources and targets of the new current network
+        controlPanel.updateLoadedLists();
     }
 
     @Override
@@ -59,5 +62,8 @@ public class PathLinkerNetworkEventListener implements SetCurrentNetworkListener
 
         // update the networkCmb when deleting a network
         controlPanel.initializeNetworkCmb();
+
+        // forget the nodes added to the sources and targets of the deleted network
+        controlPanel.updateLoadedLists();
     }
 }
@@ -0,0 +1,85 @@
+package com.dpgil.pathlinker.path_linker.internal.event;
+
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.AddedNodesListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.RemovedNodesEvent;
+import org.cytoscape.model.events.RemovedNodesListener;
+import org.cytoscape.model.events.RowSetRecord;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.events.RowsSetListener;
+
+import com.dpgil.pathlinker.path_linker.internal.util.NodeNameCache;
+
+/**
+ * Listener class for the NodeNameCache
+ *      Keeps the node name index of each indexed network up to date as its nodes
+ *      are added, removed or renamed, one node at a time
+ */
+public class PathLinkerNodeNameListener implements AddedNodesListener, RemovedNodesListener,
+        RowsSetListener, NetworkAboutToBeDestroyedListener {
+
+    /** the node name cache */
+    private NodeNameCache nodeNameCache;
+    /** the network table manager, to find the network of a node table */
+    private CyNetworkTableManager networkTableManager;
+
+    /**
+     * Default constructor
+     * @param nodeNameCache       the node name cache
+     * @param networkTableManager the network table manager
+     */
+    public PathLinkerNodeNameListener(NodeNameCache nodeNameCache, CyNetworkTableManager networkTableManager) {
+        this.nodeNameCache = nodeNameCache;
+        this.networkTableManager = networkTableManager;
+    }
+
+    @Override
+    public void handleEvent(AddedNodesEvent e) {
+        CyNetwork network = e.getSource();
+        if (!nodeNameCache.isIndexed(network.getSUID()))
+            return;
+
+        for (CyNode node : e.getPayloadCollection())
+            nodeNameCache.setName(network.getSUID(), node, network.getRow(node).get(CyNetwork.NAME, String.class));
+    }
+
+    @Override
+    public void handleEvent(RemovedNodesEvent e) {
+        Long networkSUID = e.getSource().getSUID();
+        if (!nodeNameCache.isIndexed(networkSUID))
+            return;
+
+        for (Long nodeSUID : e.getPayloadCollection())
+            nodeNameCache.removeNode(networkSUID, nodeSUID);
+    }
+
+    @Override
+    public void handleEvent(RowsSetEvent e) {
+        // only the names of the nodes of an indexed network are of interest
+        if (!e.containsColumn(CyNetwork.NAME) || networkTableManager.getTableType(e.getSource()) != CyNode.class)
+            return;
+
+        CyNetwork network = networkTableManager.getNetworkForTable(e.getSource());
+        if (network == null || !nodeNameCache.isIndexed(network.getSUID()))
+            return;
+
+        for (RowSetRecord record : e.getColumnRecords(CyNetwork.NAME)) {
+            CyNode node = network.getNode(record.getRow().get(CyIdentifiable.SUID, Long.class));
+            if (node != null) {
+                Object name = record.getValue();
+                nodeNameCache.setName(network.getSUID(), node, name instanceof String ? (String) name : null);
+            }
+        }
+    }
+
+    @Override
+    public void handleEvent(NetworkAboutToBeDestroyedEvent e) {
+        nodeNameCache.remove(e.getNetwork().getSUID());
+    }
+}
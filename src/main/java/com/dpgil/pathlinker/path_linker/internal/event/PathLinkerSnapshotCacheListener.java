@@ -0,0 +1,161 @@
+package com.dpgil.pathlinker.path_linker.internal.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedEdgesListener;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.AddedNodesListener;
+import org.cytoscape.model.events.ColumnDeletedEvent;
+import org.cytoscape.model.events.ColumnDeletedListener;
+import org.cytoscape.model.events.ColumnNameChangedEvent;
+import org.cytoscape.model.events.ColumnNameChangedListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.RemovedEdgesEvent;
+import org.cytoscape.model.events.RemovedEdgesListener;
+import org.cytoscape.model.events.RemovedNodesEvent;
+import org.cytoscape.model.events.RemovedNodesListener;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.events.RowsSetListener;
+import org.cytoscape.model.subnetwork.CyRootNetwork;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
+
+/**
+ * Listener class for the SnapshotCache
+ *      Drops the cached snapshots of a network when its nodes or edges change,
+ *      or when the values of an edge weight column read for it change.
+ *      The changes made to a root network apply to all its subnetworks
+ */
+public class PathLinkerSnapshotCacheListener implements AddedEdgesListener, RemovedEdgesListener,
+        AddedNodesListener, RemovedNodesListener, RowsSetListener, ColumnDeletedListener,
+        ColumnNameChangedListener, NetworkAboutToBeDestroyedListener {
+
+    /** the snapshot cache */
+    private SnapshotCache snapshotCache;
+    /** the network table manager, to find the network of an edge table */
+    private CyNetworkTableManager networkTableManager;
+
+    /**
+     * Default constructor
+     * @param snapshotCache       the snapshot cache
+     * @param networkTableManager the network table manager
+     */
+    public PathLinkerSnapshotCacheListener(SnapshotCache snapshotCache, CyNetworkTableManager networkTableManager) {
+        this.snapshotCache = snapshotCache;
+        this.networkTableManager = networkTableManager;
+    }
+
+    @Override
+    public void handleEvent(AddedEdgesEvent e) {
+        invalidate(e.getSource());
+    }
+
+    @Override
+    public void handleEvent(RemovedEdgesEvent e) {
+        invalidate(e.getSource());
+    }
+
+    @Override
+    public void handleEvent(AddedNodesEvent e) {
+        invalidate(e.getSource());
+    }
+
+    @Override
+    public void handleEvent(RemovedNodesEvent e) {
+        invalidate(e.getSource());
+    }
+
+    @Override
+    public void handleEvent(RowsSetEvent e) {
+        CyNetwork network = getEdgeTableNetwork(e.getSource());
+        if (network == null)
+            return;
+
+        // the selection and the other columns don't change the snapshots
+        for (CyNetwork affected : getAffectedNetworks(network)) {
+            for (String column : snapshotCache.getColumns(affected.getSUID())) {
+                if (e.containsColumn(column)) {
+                    snapshotCache.invalidate(affected.getSUID());
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void handleEvent(ColumnDeletedEvent e) {
+        invalidateColumn(e.getSource(), e.getColumnName());
+    }
+
+    @Override
+    public void handleEvent(ColumnNameChangedEvent e) {
+        invalidateColumn(e.getSource(), e.getOldColumnName());
+        invalidateColumn(e.getSource(), e.getNewColumnName());
+    }
+
+    @Override
+    public void handleEvent(NetworkAboutToBeDestroyedEvent e) {
+        snapshotCache.remove(e.getNetwork().getSUID());
+    }
+
+    /**
+     * Drops the snapshots of a network and of its subnetworks
+     * @param network the network that changed
+     */
+    private void invalidate(CyNetwork network) {
+        for (CyNetwork affected : getAffectedNetworks(network))
+            snapshotCache.invalidate(affected.getSUID());
+    }
+
+    /**
+     * Drops the snapshots that read a column of an edge table
+     * @param table  the table
+     * @param column the column name
+     */
+    private void invalidateColumn(CyTable table, String column) {
+        CyNetwork network = getEdgeTableNetwork(table);
+        if (network == null)
+            return;
+
+        for (CyNetwork affected : getAffectedNetworks(network)) {
+            if (snapshotCache.isWatched(affected.getSUID(), column))
+                snapshotCache.invalidate(affected.getSUID());
+        }
+    }
+
+    /**
+     * Gets the network of an edge table
+     * @param table the table
+     * @return the network, null if the table is not an edge table of a network
+     */
+    private CyNetwork getEdgeTableNetwork(CyTable table) {
+        if (networkTableManager.getTableType(table) != CyEdge.class)
+            return null;
+
+        return networkTableManager.getNetworkForTable(table);
+    }
+
+    /**
+     * Gets the networks affected by a change to a network
+     * @param network the network that changed
+     * @return the network itself, followed by its subnetworks if it is a root network
+     */
+    private List<CyNetwork> getAffectedNetworks(CyNetwork network) {
+        List<CyNetwork> networks = new ArrayList<CyNetwork>();
+        networks.add(network);
+        if (network instanceof CyRootNetwork) {
+            for (CySubNetwork subnetwork : ((CyRootNetwork) network).getSubNetworkList())
+                networks.add(subnetwork);
+        }
+
+        return networks;
+    }
+}
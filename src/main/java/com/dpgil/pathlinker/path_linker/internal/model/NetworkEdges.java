@@ -0,0 +1,232 @@
+package com.dpgil.pathlinker.path_linker.internal.model;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.SUIDFactory;
+
+import com.dpgil.pathlinker.path_linker.internal.util.LongIndexMap;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotBuilder;
+
+/**
+ * The edges of a network read in a single pass over its edge list, and their weights
+ *      in a single pass over its edge table, outside of Cytoscape so that running
+ *      PathLinker adds nothing to the root network.
+ *      The nodes are numbered, followed by a super source and a super target,
+ *      and each edge is kept as the ids of its nodes and its weight.
+ * The edges are read once per run: PathLinkerModelParams.validate reads them to
+ *      check that every edge has a weight, and PathLinkerModel builds its snapshot
+ *      from the same read.
+ */
+public class NetworkEdges {
+
+    /** the powers of ten represented exactly as doubles, from 10^0 to 10^22 */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    /** the SUID of the network */
+    private Long networkSUID;
+    /** the edge weight column read, null for the unweighted option */
+    private String edgeWeightColumnName;
+    /** whether or not every edge was read as undirected */
+    private boolean treatNetworkAsUndirected;
+    /** the version of the network in the snapshot cache before the read, -1 if unknown */
+    private long version;
+    /** the nodes of the network, followed by the super source and the super target */
+    private CyNode[] nodes;
+    /** the source node id of each edge */
+    private int[] edgeSources;
+    /** the target node id of each edge */
+    private int[] edgeTargets;
+    /** the weight of each edge, before the edge penalty */
+    private double[] edgeWeights;
+    /** the edges that can be followed both ways, such as the undirected edges */
+    private BitSet bidirectedEdges;
+    /** number of edges without a numerical value in the edge weight column */
+    private int missingWeightCount;
+
+    /**
+     * Reads the edges of a network from its edge list and their weights from its edge table
+     * @param network                  the network
+     * @param edgeWeightColumnName     the edge weight column, null to give every edge a weight of 1
+     * @param treatNetworkAsUndirected whether or not to follow every edge both ways
+     * @param version                  the version of the network in the snapshot cache read
+     *                                 before reading the edges, -1 if unknown
+     */
+    public NetworkEdges(CyNetwork network, String edgeWeightColumnName, boolean treatNetworkAsUndirected,
+            long version) {
+        this.networkSUID = network.getSUID();
+        this.edgeWeightColumnName = edgeWeightColumnName;
+        this.treatNetworkAsUndirected = treatNetworkAsUndirected;
+        this.version = version;
+
+        // Originally I had created a text version of each edge and stored and checked
+        // for the text version in the hiddenEdges set, but retrieving both directed
+        // and undirected edges was dominating the run time. Then a subnetwork of the
+        // root network was created to copy the edges to, which was never removed.
+        // Thus here we number the nodes and keep the edges as node ids, followed by
+        // the super source and super target, which belong to no network
+        List<CyNode> nodeList = network.getNodeList();
+        nodes = nodeList.toArray(new CyNode[nodeList.size() + 2]);
+        nodes[nodes.length - 2] = new SuperNode();
+        nodes[nodes.length - 1] = new SuperNode();
+        LongIndexMap nodeIds = new LongIndexMap(nodeList.size());
+        for (int v = 0; v < nodeList.size(); v++)
+            nodeIds.putIfAbsent(nodes[v].getSUID(), v);
+
+        // the weights are read from the rows of the edge table in a single pass, instead
+        // of looking up the row of each edge of the network
+        double[] rowWeights = null;
+        LongIndexMap rowIds = null;
+        if (edgeWeightColumnName != null) {
+            List<CyRow> rows = network.getDefaultEdgeTable().getAllRows();
+            rowWeights = new double[rows.size()];
+            rowIds = new LongIndexMap(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                CyRow row = rows.get(i);
+                rowIds.putIfAbsent(row.get(CyIdentifiable.SUID, Long.class), i);
+                rowWeights[i] = getWeight(row);
+            }
+        }
+
+        List<CyEdge> edgeList = network.getEdgeList();
+        edgeSources = new int[edgeList.size()];
+        edgeTargets = new int[edgeList.size()];
+        edgeWeights = new double[edgeList.size()];
+        bidirectedEdges = new BitSet(edgeList.size());
+
+        for (int i = 0; i < edgeList.size(); i++) {
+            CyEdge e = edgeList.get(i);
+            edgeSources[i] = nodeIds.get(e.getSource().getSUID());
+            edgeTargets[i] = nodeIds.get(e.getTarget().getSUID());
+
+            // the edge weight column is not read for the unweighted option
+            edgeWeights[i] = rowIds == null ? 1 : rowWeights[rowIds.get(e.getSUID())];
+
+            // also follow the reverse direction if the original edge was undirected
+            // or if the treatNetworkAsUndirected option is checked
+            if (!e.isDirected() || treatNetworkAsUndirected)
+                bidirectedEdges.set(i);
+        }
+    }
+
+    /**
+     * Gets the edge weight value from a row of the edge table, reading the
+     *      Integer, Long, Float and Double columns without going through a string.
+     *      Counts the edges without a weight, such as in a missing column
+     * @param row the row of the edge in the edge table
+     * @return the weight of the edge, NaN if it has none
+     */
+    private double getWeight(CyRow row) {
+        Object value = row.getRaw(edgeWeightColumnName);
+        if (value instanceof Float)
+            return widen((Float) value);
+        if (value instanceof Number)
+            return ((Number) value).doubleValue();
+
+        missingWeightCount++;
+        return Double.NaN;
+    }
+
+    /**
+     * Widens a float to the double closest to the shortest decimal value that rounds
+     *      to it, the value shown in the table, such as 0.1 for 0.1f, as the weights
+     *      were read before. The decimal of p significant digits closest to the float
+     *      is tried for p from 1 to 9, which is always enough for a float. The
+     *      quotient or product of the scaled integer by an exact power of ten is
+     *      rounded once, as parsing the decimal would
+     * @param value the float
+     * @return the widened value
+     */
+    private static double widen(float value) {
+        double d = value;
+        if (d == 0 || Double.isNaN(d) || Double.isInfinite(d))
+            return d;
+
+        int exponent = (int) Math.floor(Math.log10(Math.abs(d)));
+        for (int digits = 1; digits <= 9; digits++) {
+            // the powers of ten past 10^22 are not exact, which only the tiniest and
+            // largest floats need
+            int scale = digits - 1 - exponent;
+            if (scale >= POWERS_OF_TEN.length || -scale >= POWERS_OF_TEN.length)
+                return Double.parseDouble(Float.toString(value));
+
+            double decimal = scale >= 0 ? Math.rint(d * POWERS_OF_TEN[scale]) / POWERS_OF_TEN[scale]
+                    : Math.rint(d / POWERS_OF_TEN[-scale]) * POWERS_OF_TEN[-scale];
+            if ((float) decimal == value)
+                return decimal;
+        }
+
+        return d;
+    }
+
+    /**
+     * Checks if the edges were read from a network with the given options
+     * @param network                  the network
+     * @param edgeWeightColumnName     the edge weight column, null for the unweighted option
+     * @param treatNetworkAsUndirected whether or not every edge is followed both ways
+     * @return true if the edges can be used for a run with the options
+     */
+    public boolean isReadFrom(CyNetwork network, String edgeWeightColumnName, boolean treatNetworkAsUndirected) {
+        return networkSUID.equals(network.getSUID())
+                && (this.edgeWeightColumnName == null ? edgeWeightColumnName == null
+                        : this.edgeWeightColumnName.equals(edgeWeightColumnName))
+                && this.treatNetworkAsUndirected == treatNetworkAsUndirected;
+    }
+
+    /**
+     * Getter method of the version
+     * @return the version of the network in the snapshot cache before the read, -1 if unknown
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter method of the missing weight count
+     * @return the number of edges without a numerical value in the edge weight column
+     */
+    public int getMissingWeightCount() {
+        return missingWeightCount;
+    }
+
+    /**
+     * Creates the builder of the snapshot of the network
+     * @return the snapshot builder, the super source and super target being its last two nodes
+     */
+    public SnapshotBuilder createBuilder() {
+        return new SnapshotBuilder(nodes, edgeSources, edgeTargets, edgeWeights, bidirectedEdges);
+    }
+
+    /**
+     * A node of the graph that belongs to no network, for the super source and super target
+     */
+    private static class SuperNode implements CyNode {
+        /** the SUID of the node, which no network element shares */
+        private final Long suid = SUIDFactory.getNextSUID();
+
+        @Override
+        public Long getSUID() {
+            return suid;
+        }
+
+        @Override
+        public CyNetwork getNetworkPointer() {
+            return null;
+        }
+
+        @Override
+        public void setNetworkPointer(CyNetwork network) {
+            throw new UnsupportedOperationException("The super nodes can't point to a network");
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.dpgil.pathlinker.path_linker.internal.model;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -10,19 +10,29 @@ import java.util.Set;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
-import org.cytoscape.model.subnetwork.CyRootNetwork;
-import org.cytoscape.model.subnetwork.CySubNetwork;
 
 import com.dpgil.pathlinker.path_linker.internal.util.Algorithms;
+import com.dpgil.pathlinker.path_linker.internal.util.DeltaStepping;
 import com.dpgil.pathlinker.path_linker.internal.util.EdgeWeightType;
+import com.dpgil.pathlinker.path_linker.internal.util.EnginePlan;
+import com.dpgil.pathlinker.path_linker.internal.util.GraphSnapshot;
+import com.dpgil.pathlinker.path_linker.internal.util.KspEngine;
+import com.dpgil.pathlinker.path_linker.internal.util.RadixSearch;
+import com.dpgil.pathlinker.path_linker.internal.util.RunStatistics;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotBuilder;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotStorage;
+import com.dpgil.pathlinker.path_linker.internal.util.SpilledPathWays;
+import com.dpgil.pathlinker.path_linker.internal.util.TargetDistances;
 import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
 
 /** Back end model for the PathLinker plugin */
 public class PathLinkerModel {
+	/** The number of sources and of targets up to which a run for a single path computes the distances to the targets on demand */
+	private static final int FEW_SOURCES_TARGETS = 16;
+
 	/** The original network selected by the user */
 	private CyNetwork originalNetwork;
-	/** The network to perform the algorithm on */
-	private CyNetwork network;
 	/** A mapping of the node object to its name*/
 	private Map<CyNode, String> cyNodeToId;
 	/** Whether or not to created a bi-directed copy of the network and run PathLinker on that */
@@ -47,26 +57,59 @@ public class PathLinkerModel {
 	private Double edgePenalty;
 	/** Perform algo unweighted, weighted (probs), or weighted (p-values) */
 	private EdgeWeightType edgeWeightType;
-	/** Weight of edges to be used by the algorithm */
-	private Map<CyEdge, Double> edgeWeights;
-	/** Edges that we hide from the algorithm */
-	private Set<CyEdge> hiddenEdges;
-	/** The super source to call ksp with and removed after the algorithm */
+	/** The super source to call ksp with, which belongs to no network */
 	private CyNode superSource;
-	/** The super target to call ksp with and removed after the algorithm */
+	/** The super target to call ksp with, which belongs to no network */
 	private CyNode superTarget;
-	/** The edges attached to super(source/target) to be removed after ksp */
-	private Set<CyEdge> superEdges;
 	/** Number of shared nodes between sources and targets */
 	private int commonSourcesTargets;
 	/** Whether or not to include more than k paths if the path length/score is equal to the kth path's */
 	private boolean includePathScoreTies;
+	/** The maximum number of paths sharing the kth path's length/score when including ties */
+	private int maxTiedPaths = Integer.MAX_VALUE;
+	/** The maximum number of edges of the paths, null for no limit */
+	private Integer maxPathLength;
+	/** The maximum score of the paths, or their minimum probability for the probabilities option, null for no limit */
+	private Double maxPathCost;
+	/** The paths may be up to 1 + approximationEpsilon times heavier than the exact ones, 0 for an exact run */
+	private double approximationEpsilon;
+	/** The engine requested to compute the paths, null to let the planner choose */
+	private KspEngine requestedEngine;
+	/** The number of threads requested to compute the distances to the targets, null to let the planner choose */
+	private Integer requestedParallelism;
+	/** Whether or not to spill the candidate and accepted paths to disk while running ksp */
+	private boolean spillToDisk;
+	/** Whether or not to contract the linear chains of the graph before running ksp */
+	private boolean contractChains;
+	/** Whether or not to renumber the nodes of the graph for locality before running ksp */
+	private boolean reorderNodes;
+	/** Whether or not to keep the edge weights of the graph in single precision */
+	private boolean singlePrecisionWeights;
+	/** Where to keep the adjacency and weights of the graph */
+	private SnapshotStorage snapshotStorage = SnapshotStorage.HEAP;
+	/** Whether or not to search the paths on quantized weights when they are non-negative */
+	private boolean quantizeWeights;
+	/** The number of decimal digits of the weights kept when quantizing */
+	private int quantizationDigits = 6;
+	/** The cache of the network snapshots, null to build the snapshot on every run */
+	private SnapshotCache snapshotCache;
+	/** The edges read from the original network when validating the parameters, null to read them */
+	private NetworkEdges networkEdges;
+	/** The snapshot of the network of the last run, before attaching the sources and targets */
+	private GraphSnapshot networkSnapshot;
+	/** The searched graph of the run before its chains were contracted, null if they were not */
+	private GraphSnapshot uncontractedGraph;
 	/** sources in the ksp subgraph */
 	private Set<CyNode> subgraphSources;
 	/** targets in the ksp subgraph */
 	private Set<CyNode> subgraphTargets;
-	/** The path result produced by the ksp algorithm */
-	private ArrayList<PathWay> result;
+	/** The path result produced by the ksp algorithm, a SpilledPathWays read back from disk
+	 *  when spilling, to be closed by whoever holds the result last */
+	private List<PathWay> result;
+	/** The statistics of the last run */
+	private RunStatistics statistics;
+	/** The engine and parallelism of the last run */
+	private EnginePlan plan;
 
 	/**
 	 * Constructor of the model
@@ -105,6 +148,140 @@ public class PathLinkerModel {
 	    this.commonSourcesTargets = 0;
 	}
 
+	/**
+	 * Setter method of the maximum number of tied paths
+	 * @param maxTiedPaths the maximum number of paths sharing the kth path's length/score,
+	 *                     null for no limit
+	 */
+	public void setMaxTiedPaths(Integer maxTiedPaths) {
+	    this.maxTiedPaths = maxTiedPaths == null ? Integer.MAX_VALUE : maxTiedPaths;
+	}
+
+	/**
+	 * Setter method of the maximum path length
+	 * @param maxPathLength the maximum number of edges of the paths, null for no limit
+	 */
+	public void setMaxPathLength(Integer maxPathLength) {
+	    this.maxPathLength = maxPathLength;
+	}
+
+	/**
+	 * Setter method of the maximum path cost
+	 * @param maxPathCost the maximum score of the paths, or their minimum probability
+	 *                    for the probabilities option, null for no limit
+	 */
+	public void setMaxPathCost(Double maxPathCost) {
+	    this.maxPathCost = maxPathCost;
+	}
+
+	/**
+	 * Setter method of the approximation epsilon
+	 * @param approximationEpsilon how much heavier than the exact path of the same rank each path
+	 *                             may be, as a fraction of its weight, in exchange for faster
+	 *                             spur searches. null or 0 for an exact run
+	 */
+	public void setApproximationEpsilon(Double approximationEpsilon) {
+	    this.approximationEpsilon = approximationEpsilon == null ? 0. : approximationEpsilon;
+	}
+
+	/**
+	 * Setter method of the requested engine
+	 * @param requestedEngine the engine to compute the paths with instead of the one chosen by the planner,
+	 *                        if it can run on the searched graph. null to let the planner choose
+	 */
+	public void setRequestedEngine(KspEngine requestedEngine) {
+	    this.requestedEngine = requestedEngine;
+	}
+
+	/**
+	 * Setter method of the requested parallelism
+	 * @param requestedParallelism the number of threads computing the distances to the targets for the
+	 *                             YEN engine, 1 to compute them on demand. null to let the planner choose
+	 */
+	public void setRequestedParallelism(Integer requestedParallelism) {
+	    this.requestedParallelism = requestedParallelism;
+	}
+
+	/**
+	 * Setter method of the spill to disk option
+	 * @param spillToDisk whether or not to spill the candidate and accepted paths
+	 *                    to temporary files while running ksp, for very large k
+	 */
+	public void setSpillToDisk(boolean spillToDisk) {
+	    this.spillToDisk = spillToDisk;
+	}
+
+	/**
+	 * Setter method of the contract chains option
+	 * @param contractChains whether or not to contract the chains of nodes with a single
+	 *                       incoming and outgoing edge into single edges before running ksp
+	 */
+	public void setContractChains(boolean contractChains) {
+	    this.contractChains = contractChains;
+	}
+
+	/**
+	 * Setter method of the reorder nodes option
+	 * @param reorderNodes whether or not to renumber the nodes of the graph in reverse
+	 *                     Cuthill-McKee order from the sources before running ksp
+	 */
+	public void setReorderNodes(boolean reorderNodes) {
+	    this.reorderNodes = reorderNodes;
+	}
+
+	/**
+	 * Setter method of the single precision weights option
+	 * @param singlePrecisionWeights whether or not to keep the edge weights of the graph as floats,
+	 *                               summing the path weights as doubles
+	 */
+	public void setSinglePrecisionWeights(boolean singlePrecisionWeights) {
+	    this.singlePrecisionWeights = singlePrecisionWeights;
+	}
+
+	/**
+	 * Setter method of the snapshot storage
+	 * @param snapshotStorage where to keep the adjacency and weights of the snapshot of the network,
+	 *                        null for the heap
+	 */
+	public void setSnapshotStorage(SnapshotStorage snapshotStorage) {
+	    this.snapshotStorage = snapshotStorage == null ? SnapshotStorage.HEAP : snapshotStorage;
+	}
+
+	/**
+	 * Setter method of the quantize weights option
+	 * @param quantizeWeights whether or not to search the paths on weights rounded to a fixed
+	 *                        number of decimal digits, when the weights are non-negative
+	 */
+	public void setQuantizeWeights(boolean quantizeWeights) {
+	    this.quantizeWeights = quantizeWeights;
+	}
+
+	/**
+	 * Setter method of the quantization digits
+	 * @param quantizationDigits the number of decimal digits of the weights kept when quantizing
+	 */
+	public void setQuantizationDigits(int quantizationDigits) {
+	    this.quantizationDigits = quantizationDigits;
+	}
+
+	/**
+	 * Setter method of the snapshot cache
+	 * @param snapshotCache the cache of the network snapshots shared by the runs, null to
+	 *                      read the network and build its snapshot on every run
+	 */
+	public void setSnapshotCache(SnapshotCache snapshotCache) {
+	    this.snapshotCache = snapshotCache;
+	}
+
+	/**
+	 * Setter method of the network edges
+	 * @param networkEdges the edges read from the original network by PathLinkerModelParams.validate,
+	 *                     null to read them. Ignored if read with other options
+	 */
+	public void setNetworkEdges(NetworkEdges networkEdges) {
+	    this.networkEdges = networkEdges;
+	}
+
 	/**
 	 * Getter method of the subgraph sources
 	 * @return subgraphSources
@@ -133,10 +310,26 @@ public class PathLinkerModel {
 	 * Getter method of the result
 	 * @return result
 	 */
-	public ArrayList<PathWay> getResult() {
+	public List<PathWay> getResult() {
 	    return this.result;
 	}
 
+	/**
+	 * Getter method of the run statistics
+	 * @return statistics of the last run, null if the model was not run
+	 */
+	public RunStatistics getStatistics() {
+	    return this.statistics;
+	}
+
+	/**
+	 * Getter method of the plan
+	 * @return the engine and parallelism of the last run, null if the model was not run
+	 */
+	public EnginePlan getPlan() {
+	    return this.plan;
+	}
+
 	/**
 	 * Runs all the necessary algorithms to calculate kth shortest path
 	 * If path exists, selects corresponding nodes and edges in the network
@@ -147,53 +340,153 @@ public class PathLinkerModel {
 		// this is for a temporary hack
 		setCommonSourcesTargets();
 
-		// creates a copy of the original network which is modified to run PathLinker
-		// 1. undirected edges are converted to bidirectional edges
+		// takes a snapshot of the graph for the algorithm, reading the edges and their
+		// weights from the original network without adding anything to the network,
+		// unless the snapshot of the network was cached by a previous run
+		// 1. undirected edges are followed both ways
 		// 2. the weight of multiple source-target edges are averaged because
 		// PathLinker does not support multi-graphs
-		initializeNetwork();
-
-		// "removes" the edges that are incoming to source nodes and outgoing
-		// from target nodes
-		initializeHiddenEdges();
-
-		// set the edge weights of the new network to be used in the algorithm.
+		// 3. applies the edge penalty and log transform of the weighted options.
 		// doesn't actually set the values as edge attributes 
 		// because that dominates runtime.
-		setEdgeWeights();
-
-		// adds a superSource and superTarget and attaches them to the sources
-		// and targets, respectively
-		addSuperNodes();
-
-		// runs the KSP algorithm
-		result = Algorithms.ksp(network, cyNodeToId, superSource, superTarget, 
-		        inputK + commonSourcesTargets, includePathScoreTies);
+		// then for the sources and targets of this run
+		// 4. "removes" the edges that are incoming to source nodes and outgoing
+		// from target nodes
+		// 5. attaches a superSource and superTarget to the sources and targets
+		// then keeps only the nodes that lie on some path from the super source
+		// to the super target
+		GraphSnapshot graph = buildSnapshot();
+
+		// the file of a spilled result is closed if anything fails before the subgraph is selected
+		result = null;
+		try {
+			// runs the KSP algorithm with the engine best suited to the graph and the query,
+			// without any spur search if the graph is acyclic
+			int[] topologicalOrder = planEngine(graph);
+			result = computePaths(graph, topologicalOrder);
+
+			// the contracted graph finds the tied paths in another order than the graph
+			// it was contracted from, so the paths are computed again on that graph
+			if (result == null) {
+				graph = singlePrecisionWeights ? uncontractedGraph.toSinglePrecision() : uncontractedGraph;
+				plan.setReason(plan.getReason() + "; the chains are not contracted as the last path kept is tied with the next one");
+				statistics.setContractedNodeCount(0);
+				result = computePaths(graph, null);
+			}
+			uncontractedGraph = null;
+
+			// discard first _commonSourcesTargets paths
+			// this is for a temporary hack: when there are n nodes that are both
+			// sources and targets,
+			// the algorithm will generate paths of length 0 from superSource ->
+			// node -> superTarget
+			// we don't want these, so we generate k + n paths and discard those n
+			// paths
+			result.subList(0, commonSourcesTargets).clear();
+
+			// nothing is left to read from the file of a spilled result without paths
+			if (result.isEmpty() && result instanceof SpilledPathWays) {
+				((SpilledPathWays) result).close();
+				result = new ArrayList<PathWay>();
+			}
 
-		// discard first _commonSourcesTargets paths
-		// this is for a temporary hack: when there are n nodes that are both
-		// sources and targets,
-		// the algorithm will generate paths of length 0 from superSource ->
-		// node -> superTarget
-		// we don't want these, so we generate k + n paths and discard those n
-		// paths
-		result.subList(0, commonSourcesTargets).clear();
+			// sort the result paths in alphabetical order if weight is same
+			Algorithms.sortResult(result);
 
-		// sort the result paths in alphabetical order if weight is same
-		Algorithms.sortResult(result);
+			// bounds the weight of each path by that of the exact path of its rank. the
+			// first path is exact unless it comes after the paths discarded above
+			if (approximationEpsilon > 0)
+				Algorithms.setApproximationBounds(result, getSearchEpsilon(), commonSourcesTargets == 0);
 
-		// "un log-transforms" the path scores in the weighted options
-		// as to undo the log transformations and leave the path scores
-		// in terms of the edge weights
-		undoLogTransformPathLength(result);
+			// "un log-transforms" the path scores in the weighted options
+			// as to undo the log transformations and leave the path scores
+			// in terms of the edge weights
+			undoLogTransformPathLength(result);
 
-		// selects all the paths that involved in the resulting for generating ksp subgraph
-		selectKSPSubgraph(result);
+			// selects all the paths that involved in the resulting for generating ksp subgraph
+			selectKSPSubgraph(result);
+		}
+		catch (RuntimeException e) {
+			if (result instanceof SpilledPathWays)
+				((SpilledPathWays) result).close();
+			result = null;
+			uncontractedGraph = null;
+			throw e;
+		}
 
 		// set the number of paths the subgraph contains
 		outputK = result.size();
 	}
 
+	/**
+	 * Computes the paths of the searched graph with the planned engine, switching
+	 * from the DAG engine to the YEN engine if the last path kept is tied with the
+	 * next one (see Algorithms.dagKsp). On a graph with contracted chains, one more
+	 * path than is kept is computed, or one more tied path than maxTiedPaths, as the
+	 * paths kept out of a group of tied paths depend on the order they are found in,
+	 * which differs from the graph the chains were contracted from
+	 * @param graph            the searched graph
+	 * @param topologicalOrder the nodes of the graph in topological order for the
+	 *                         DAG engine, null for the other engines
+	 * @return the paths, null if the chains of the graph are contracted and the last
+	 *         path kept is tied with the next one
+	 */
+	private List<PathWay> computePaths(GraphSnapshot graph, int[] topologicalOrder) {
+		int maxK = inputK + commonSourcesTargets;
+		if (statistics.getEngine() == KspEngine.DAG) {
+			List<PathWay> paths = Algorithms.dagKsp(graph, cyNodeToId, topologicalOrder, graph.indexOf(superSource),
+					graph.indexOf(superTarget), maxK, includePathScoreTies, maxTiedPaths,
+					getMaxHops(), getMaxWeight());
+			if (paths != null)
+				return paths;
+
+			// which tied paths Yen's algorithm keeps depends on the order it finds them in
+			plan(KspEngine.YEN, plan.getReason() + ", but the last path kept is tied with the next one");
+			statistics.setEngine(KspEngine.YEN);
+		}
+
+		boolean contracted = graph.hasChains();
+		int searchedK = contracted && !includePathScoreTies ? maxK + 1 : maxK;
+		int searchedTiedPaths = contracted && maxTiedPaths != Integer.MAX_VALUE ? maxTiedPaths + 1 : maxTiedPaths;
+
+		// the distances to the targets are kept between the runs with the same targets
+		List<PathWay> paths;
+		int[] targetIds = getTargetIds();
+		TargetDistances targetDistances = takeTargetDistances(targetIds);
+		try {
+			paths = Algorithms.ksp(graph, cyNodeToId, graph.indexOf(superSource), graph.indexOf(superTarget),
+					searchedK, includePathScoreTies, searchedTiedPaths,
+					getMaxHops(), getMaxWeight(), getSearchEpsilon(), spillToDisk,
+					statistics.getEngine(), quantizationDigits,
+					targetDistances == null ? getSearchDistances(graph) : getDistanceView(graph, targetDistances),
+					statistics);
+		}
+		finally {
+			if (targetDistances != null)
+				snapshotCache.putDistances(networkSnapshot, targetIds, targetDistances);
+		}
+
+		if (contracted && paths.size() > maxK) {
+			double tieWeight = paths.get(maxK - 1).weight;
+			int tiedPaths = paths.size() - maxK;
+			for (int i = maxK - 1; i >= 0 && Algorithms.isTied(paths.get(i).weight, tieWeight, graph.relativeEpsilon()); i--)
+				tiedPaths++;
+
+			if (includePathScoreTies ? tiedPaths > maxTiedPaths
+					: Algorithms.isTied(paths.get(maxK).weight, tieWeight, graph.relativeEpsilon())) {
+				if (paths instanceof SpilledPathWays)
+					((SpilledPathWays) paths).close();
+				return null;
+			}
+
+			// the path past the kth one only tells that it is not tied with it
+			if (!includePathScoreTies)
+				paths.subList(maxK, paths.size()).clear();
+		}
+
+		return paths;
+	}
+
 	/**
 	 * Setter method for commonSourcesTargets
 	 * sets the number of common sources and targets
@@ -210,210 +503,361 @@ public class PathLinkerModel {
 	}
 
 	/**
-	 * Creates a copy of the original network to run ksp 
-	 * with the following modifications:
-	 * 1. undirected edges are converted to bidirectional edges.  
-	 * 2. treats multiple edges as one edge with a weight of the average of the
-	 * multiple edges. This is done because pathlinker is not compatible with
-	 * multigraphs.
-	 */
-	private void initializeNetwork() {
-		// Originally I had created a text version of each edge and stored and checked 
-		// for the text version in the hiddenEdges set, but retrieving both directed 
-		// and undirected edges was dominating the run time. Thus here we 
-		// create a new network to which we will copy the original nodes and edges 
-		// with undirected edges converted to two directed edges
-		CyRootNetwork root = ((CySubNetwork) originalNetwork).getRootNetwork();
-		// create a subnetwork of the original network without any of the original edges
-		network = root.addSubNetwork(root.getNodeList(), null);
-		// create a subnetwork rather than a new private network so the nodes will be the same.
-		// this way the source and target node lists will still work with the new network
-		//_network = _networkFactory.createNetworkWithPrivateTables();
-
-		// maps each source-target SUID string to its corresponding CyEdge in the 
-		// newly created network. Used to keep track of which edges in the original 
-		// network match the newly created edge 
-		HashMap<String, CyEdge> sourcetargetToEdge = new HashMap<String, CyEdge>();
-		// maps a source-target pair to all the weights of the edges connecting the same
-		// source/target pair in the original network 
-		// so we can go through afterwards and remove the extra edges
-		HashMap<String, List<Double>> edgeMultiWeights = new HashMap<String, List<Double>>(); 
-
-		// copy all of the edges of the original network to this network
-		// convert undirected edges to bidirectional edges
-		for (CyEdge e : originalNetwork.getEdgeList()) {
-
-			CyNode source = e.getSource();
-			CyNode target = e.getTarget();
-
-			// a hack for unweighted edge to avoid calling getNetworkTableWeight
-			// should be edit in the future to avoid constant checks
-			Double w = edgeWeightType == EdgeWeightType.UNWEIGHTED ? 1 : getNetworkTableWeight(e);
-
-			// check if this source-target was already added as an edge. If it was, keep track of the 
-			// multiple weights. If not, add it as a new edge
-			checkAddEdge(sourcetargetToEdge, edgeMultiWeights, source, target, w);
-			// also add the reverse direction if the original edge was undirected
-            // or if the treatNetworkAsUndirected option is checked
-			if (!e.isDirected() || treatNetworkAsUndirected)
-				checkAddEdge(sourcetargetToEdge, edgeMultiWeights, target, source, w);
+	 * Gets the snapshot of the network with its edge weights, from the snapshot
+	 * cache if a previous run cached it and the network didn't change since,
+	 * otherwise builds it from the edges read when validating the parameters, or
+	 * reads them if they were not. Building is in parallel for large networks.
+	 * The snapshot is cached in the snapshot storage, so it is moved off the
+	 * heap only when built
+	 * @return the snapshot of the network, its last two nodes being the super
+	 *         source and super target without any edge
+	 */
+	private GraphSnapshot getNetworkSnapshot() {
+		boolean weighted = edgeWeightType != EdgeWeightType.UNWEIGHTED;
+		String column = weighted ? edgeWeightColumnName : null;
+
+		SnapshotCache.Key key = null;
+		if (snapshotCache != null) {
+			key = new SnapshotCache.Key(originalNetwork.getSUID(), edgeWeightColumnName, treatNetworkAsUndirected,
+					edgeWeightType, weighted ? edgePenalty : 0, snapshotStorage);
+
+			// the changes to the network not yet delivered to the listeners drop its snapshots first
+			snapshotCache.flushEvents();
+			GraphSnapshot cached = snapshotCache.get(key);
+			statistics.setCachedSnapshot(cached != null);
+			if (cached != null)
+				return cached;
 		}
 
-		edgeWeights = new HashMap<CyEdge, Double>();
-
-		// now set the edge weight of each of the edges in the newly created network
-		// if there were any multi-edges, then average the weights
-		for (String sourcetarget : sourcetargetToEdge.keySet()){
-
-			List<Double> weights = edgeMultiWeights.get(sourcetarget);
-			// the final weight of this edge
-			Double edgeWeight = weights.get(0);
-
-			// if there are more than 1 weights for this edge, then average them together
-			if (weights.size() > 1){
-				Double sum = 0.0;
-				for (Double w : weights){
-					sum += w;
-				}
-				// divide the sum by the total number of weights to get the average
-				edgeWeight = sum / weights.size();
-			}
-
-			edgeWeights.put(sourcetargetToEdge.get(sourcetarget), edgeWeight);
+		// the edge table is read once per run, by the validation if it checked the weights
+		NetworkEdges edges = networkEdges;
+		if (edges == null || !edges.isReadFrom(originalNetwork, column, treatNetworkAsUndirected)) {
+			long version = snapshotCache == null ? -1 : snapshotCache.getVersion(originalNetwork.getSUID(), column);
+			edges = new NetworkEdges(originalNetwork, column, treatNetworkAsUndirected, version);
 		}
+		networkEdges = null;
+		if (edges.getMissingWeightCount() > 0)
+			throw new IllegalStateException(edges.getMissingWeightCount()
+					+ " edges have no weight in the edge weight column " + edgeWeightColumnName);
+
+		SnapshotBuilder builder = edges.createBuilder();
+		if (weighted)
+			builder.setEdgePenalty(edgeWeightType, edgePenalty);
+		// the network is moved off the heap once, and the runs share it
+		GraphSnapshot snapshot = builder.build().toOffHeap(snapshotStorage);
+
+		// a snapshot read while the network changed is not cached
+		if (snapshotCache != null && edges.getVersion() >= 0)
+			snapshotCache.put(key, edges.getVersion(), snapshot);
+		return snapshot;
 	}
 
 	/**
-	 * Initializes the edges that we are hiding from the algorithm. Doesn't
-	 * actually remove the edges as that dominates runtime.
+	 * Attaches the sources and targets of the run to the super nodes of the
+	 * snapshot of the network, hiding the edges incoming to the sources and
+	 * outgoing from the targets unless they are allowed in the paths, and
+	 * prunes the nodes that are either unreachable from the super source or
+	 * can't reach the super target, as no path goes through them. Renumbers the
+	 * nodes of the pruned graph for locality, contracts its linear chains and
+	 * keeps its weights in single precision if the options are set, keeping the
+	 * graph the chains were contracted from. Records the size of the graph before
+	 * and after in the run statistics
+	 * @return the pruned snapshot
 	 */
-	private void initializeHiddenEdges() {
-		hiddenEdges = new HashSet<CyEdge>();
-
-		// only if we don't allow sources and targets internal to paths
-		if (!allowSourcesTargetsInPaths) {
-			// hides all incoming directed edges to source nodes
-			for (CyNode source : sourcesList) {
-				hiddenEdges.addAll(network.getAdjacentEdgeList(source, CyEdge.Type.INCOMING));
-			}
-			// hides all outgoing directed edges from target nodes
-			for (CyNode target : targetsList) {
-				hiddenEdges.addAll(network.getAdjacentEdgeList(target, CyEdge.Type.OUTGOING));
+	private GraphSnapshot buildSnapshot() {
+		statistics = new RunStatistics();
+		uncontractedGraph = null;
+		GraphSnapshot snapshot = getNetworkSnapshot();
+		networkSnapshot = snapshot;
+
+		// the super nodes are shared by the runs on the same snapshot
+		int n = snapshot.nodeCount();
+		superSource = snapshot.node(n - 2);
+		superTarget = snapshot.node(n - 1);
+		GraphSnapshot pruned = snapshot.prune(n - 2, getNodeIds(snapshot, sourcesList),
+				n - 1, getNodeIds(snapshot, targetsList), !allowSourcesTargetsInPaths);
+
+		statistics.setNodeCount(n - 2);
+		statistics.setEdgeCount(snapshot.edgeCount());
+
+		// the super nodes and their edges are kept as long as there is any path
+		if (pruned.nodeCount() > 0) {
+			// neighbors get nearby ids, for fewer cache misses in the searches
+			if (reorderNodes)
+				pruned = pruned.reorder(pruned.indexOf(superSource));
+
+			int prunedSuperSource = pruned.indexOf(superSource);
+			int prunedSuperTarget = pruned.indexOf(superTarget);
+			int prunedSuperEdges = pruned.outEnd(prunedSuperSource) - pruned.outBegin(prunedSuperSource)
+					+ pruned.inEnd(prunedSuperTarget) - pruned.inBegin(prunedSuperTarget);
+
+			statistics.setSearchedNodeCount(pruned.nodeCount() - 2);
+			statistics.setSearchedEdgeCount(pruned.edgeCount() - prunedSuperEdges);
+
+			if (contractChains) {
+				uncontractedGraph = pruned;
+				GraphSnapshot contracted = pruned.contractChains(prunedSuperSource, prunedSuperTarget);
+				statistics.setContractedNodeCount(pruned.nodeCount() - contracted.nodeCount());
+				pruned = contracted;
 			}
 		}
 
-		Algorithms.initializeHiddenEdges(hiddenEdges);
+		// the weights are rounded once the graph is final
+		if (singlePrecisionWeights)
+			pruned = pruned.toSinglePrecision();
+		return pruned;
 	}
 
 	/**
-	 * Sets the edge weights to be used in the algorithm. Doesn't actually set
-	 * the weights as attributes because that dominates runtime.
+	 * Plans the run: checks if the graph left after pruning is acyclic and chooses
+	 * the engine computing the paths from the graph and the query, unless one was
+	 * requested and can run on the graph.
+	 * 1. the acyclic graphs run the DAG engine, which computes the same paths as
+	 * Yen's algorithm without its spur searches. The hidden source and target
+	 * edges are already out of the pruned graph, so they don't count as cycles.
+	 * Yen's algorithm is kept when spilling to disk, as the DAG engine keeps its
+	 * paths on the heap, and runs instead of the DAG engine when the last path
+	 * kept is tied with the next one (see runKSP).
+	 * 2. the runs with a maximum path length search the spur paths over labels
+	 * that keep track of their number of edges (see HopLimitedSearch), and the
+	 * approximate runs inflate the A* heuristic, both on the exact weights, so
+	 * they run Yen's algorithm.
+	 * 3. a run for a single path from few sources to few targets runs Yen's
+	 * algorithm too, as the distances to the targets are then only needed around
+	 * the path and are computed on demand, whereas the other engines compute the
+	 * distances of the whole graph first.
+	 * 4. the unweighted runs and the additive runs with integral weights and
+	 * penalty run Yen's algorithm on integer distances with bucket queues, and the
+	 * runs with quantizeWeights set on rounded distances with radix heaps.
+	 * Records the plan, and the result and the engine in the run statistics
+	 * @param graph the pruned snapshot
+	 * @return the nodes of the graph in topological order, null if it has a cycle
 	 */
-	private void setEdgeWeights() {
-
-		if (edgeWeightType == EdgeWeightType.UNWEIGHTED){
-			for (CyEdge edge : network.getEdgeList()) {
-				edgeWeights.put(edge, 1.);
-			}
+	private int[] planEngine(GraphSnapshot graph) {
+		int[] topologicalOrder = graph.topologicalOrder();
+		statistics.setAcyclic(topologicalOrder != null);
+
+		plan = new EnginePlan();
+		String unfit = requestedEngine == null ? null : getUnfitReason(graph, requestedEngine, topologicalOrder != null);
+		if (requestedEngine != null && unfit == null) {
+			plan.setEngine(requestedEngine);
+			plan.setRequested(true);
+			plan.setReason(requestedEngine + " was requested");
 		}
-
-		// applies edge penalty and then log transforms the edge weights for the
-		// probability option
-		else if (edgeWeightType == EdgeWeightType.PROBABILITIES) {
-			applyMultiplicativeEdgePenalty(edgePenalty);
-			logTransformEdgeWeights();
+		else {
+			if (topologicalOrder != null && !spillToDisk)
+				plan(KspEngine.DAG, "the graph is acyclic");
+			else if (maxPathLength != null)
+				plan(KspEngine.YEN, "the paths have a maximum length");
+			else if (approximationEpsilon > 0)
+				plan(KspEngine.YEN, "the paths are approximate");
+			else if (isSinglePathQuery())
+				plan(KspEngine.YEN, "a single path is computed from few sources to few targets");
+			else if (edgeWeightType == EdgeWeightType.UNWEIGHTED || graph.hasIntegerWeights())
+				plan(KspEngine.BUCKET, "the weights are integral");
+			else if (quantizeWeights && RadixSearch.canQuantize(graph, quantizationDigits))
+				plan(KspEngine.RADIX, "the weights can be quantized");
+			else
+				plan(KspEngine.YEN, "the graph has cycles and non-integral weights");
+
+			if (unfit != null)
+				plan.setReason(requestedEngine + " was requested but " + unfit + ", " + plan.getReason());
 		}
 
-		// applies edge penalty for the additive option
-		else if (edgeWeightType == EdgeWeightType.ADDITIVE) {
-			applyAdditiveEdgePenalty(edgePenalty);
-		}
+		// the searches limited to a number of edges are exact
+		if (maxPathLength != null && approximationEpsilon > 0)
+			plan.setReason(plan.getReason() + "; the paths are exact as they have a maximum length");
 
-		// sets the weights in the algorithms class
-		Algorithms.setEdgeWeights(edgeWeights);
+		statistics.setEngine(plan.getEngine());
+		return topologicalOrder;
 	}
 
 	/**
-	 * Adds a superSource and superTarget and attaches them to the sources and
-	 * targets, respectively. Sets _superSource, _superTarget, and populates the
-	 * list _superEdges, so they can be removed later.
+	 * Sets the engine chosen by the planner
+	 * @param engine the engine
+	 * @param reason why the engine was chosen
 	 */
-	private void addSuperNodes() {
-		// sets up the super source/super target
-		superSource = network.addNode();
-		superTarget = network.addNode();
-		superEdges = new HashSet<CyEdge>();
+	private void plan(KspEngine engine, String reason) {
+		plan.setEngine(engine);
+		plan.setReason(reason);
+	}
 
-		// attaches super source to all sources
-		for (CyNode source : sourcesList) {
-			CyEdge superEdge = network.addEdge(superSource, source, true);
+	/**
+	 * Checks if the run is for a single path from few sources to few targets, for which
+	 * the backward search from the targets usually settles few nodes before the first
+	 * search reaches the target
+	 * @return true if a single path is asked for, without ties, from at most
+	 *         FEW_SOURCES_TARGETS sources to at most as many targets
+	 */
+	private boolean isSinglePathQuery() {
+		return inputK == 1 && !includePathScoreTies
+				&& sourcesList.size() <= FEW_SOURCES_TARGETS && targetsList.size() <= FEW_SOURCES_TARGETS;
+	}
 
-			// sets an edge weight of 0, so the edges connecting the super nodes
-			// and the sources/targets don't affect the final path weights
-			Algorithms.setWeight(superEdge, 0.);
-			superEdges.add(superEdge);
+	/**
+	 * Checks if an engine can run on the searched graph
+	 * @param graph   the pruned snapshot
+	 * @param engine  the engine
+	 * @param acyclic whether or not the graph is acyclic
+	 * @return why the engine can't run on the graph, null if it can
+	 */
+	private String getUnfitReason(GraphSnapshot graph, KspEngine engine, boolean acyclic) {
+		if (engine == KspEngine.DAG && !acyclic)
+			return "the graph has cycles";
+		if ((engine == KspEngine.BUCKET || engine == KspEngine.RADIX) && maxPathLength != null)
+			return "the paths have a maximum length";
+		if (engine == KspEngine.BUCKET && !graph.hasIntegerWeights())
+			return "the weights are not integral";
+		if (engine == KspEngine.RADIX && !RadixSearch.canQuantize(graph, quantizationDigits))
+			return "the weights can't be quantized";
+
+		return null;
+	}
+
+	/**
+	 * Plans the number of threads computing the distances to the targets for the
+	 * YEN engine, unless it was requested. They are computed on demand for a single
+	 * path from few sources to few targets, as only the distances around the path
+	 * are needed, otherwise in parallel if the graph they are computed in is large
+	 * (see DeltaStepping.getParallelism). Records the parallelism in the plan
+	 * @param graph the graph the distances are computed in
+	 * @return the number of threads, 1 to compute the distances on demand
+	 */
+	private int planParallelism(GraphSnapshot graph) {
+		int parallelism;
+		String reason;
+		if (requestedParallelism != null) {
+			parallelism = requestedParallelism;
+			reason = "requested";
 		}
-		// attaches all targets to super target
-		for (CyNode target : targetsList) {
-			CyEdge superEdge = network.addEdge(target, superTarget, true);
-
-			// sets an edge weight of 0, so the edges connecting the super nodes
-			// and the sources/targets don't affect the final path weights
-			Algorithms.setWeight(superEdge, 0.);
-			superEdges.add(superEdge);
+		else if (isSinglePathQuery()) {
+			parallelism = 1;
+			reason = "only needed around the path";
 		}
+		else {
+			parallelism = DeltaStepping.getParallelism(graph);
+			reason = parallelism > 1 ? "the graph is large" : "the graph is small";
+		}
+
+		plan.setParallelism(parallelism);
+		plan.setReason(plan.getReason() + "; the distances to the targets are computed "
+				+ (parallelism > 1 ? "by " + parallelism + " threads" : "on demand") + " as " + reason);
+		return parallelism;
+	}
+
+	/**
+	 * Gets the maximum number of edges of the paths in the searched graph, which
+	 * also go through the edges of the super source and super target
+	 * @return the maximum number of edges, Integer.MAX_VALUE for no limit
+	 */
+	private int getMaxHops() {
+		return maxPathLength == null ? Integer.MAX_VALUE : maxPathLength + 2;
 	}
 
 	/**
-	 * Gets the edge weight value from the network table. Expensive operation,
-	 * so we try to minimize how often we use this
+	 * Gets the maximum weight of the paths in the searched graph, log transforming
+	 * the minimum probability for the probabilities option as the edge weights are
+	 * @return the maximum weight, infinity for no limit
 	 */
-	private double getNetworkTableWeight(CyEdge e) {
-		// gets the attribute edge weight value
-		Double value = Double.parseDouble((originalNetwork.getRow(e).getRaw(edgeWeightColumnName).toString()));
-		double edge_weight = value != null ? value.doubleValue() : -44444;
+	private double getMaxWeight() {
+		if (maxPathCost == null)
+			return Double.POSITIVE_INFINITY;
+		if (edgeWeightType == EdgeWeightType.PROBABILITIES)
+			return -1 * Math.log(maxPathCost) / Math.log(10);
 
-		return edge_weight;
+		return maxPathCost;
 	}
 
 	/**
-	 * Checks to see if the given source->target edge in the original network was already added 
-	 * to the new network. If it was, then add the weight of the edge to the list of weights 
-	 * for this edge. If it wasn't, then add the edge as a new edge and keep track of it in 
-	 * the HashMap for possible future duplicate edges
-	 * @param sourcetargetToEdge
-	 * 			maps the source-target SUIDs to the edge in the new network
-	 * @param edgeMultiWeights
-	 * 			maps each edge to the list of weights 
-	 * @param source 
-	 * 			source node
-	 * @param target 
-	 * 			target node
-	 * @param w 
-	 * 			edge weight
+	 * Gets the approximation of the spur searches of the run, which only the A*
+	 * searches of the YEN engine make when the paths have no maximum length
+	 * @return the approximation epsilon of the spur searches, 0 if they are exact
 	 */
-	private void checkAddEdge(HashMap<String, CyEdge> sourcetargetToEdge, 
-			HashMap<String, List<Double>> edgeMultiWeights,
-			CyNode source, CyNode target, Double w){
+	private double getSearchEpsilon() {
+		return statistics.getEngine() == KspEngine.YEN && maxPathLength == null ? approximationEpsilon : 0.;
+	}
 
-		String sourceSUID = source.getSUID().toString();
-		String targetSUID = target.getSUID().toString();
-		String sourcetargetSUID = sourceSUID + "-" + targetSUID;
-		boolean duplicate = sourcetargetToEdge.containsKey(sourcetargetSUID);
+	/**
+	 * Gets the ids of the targets in the snapshot of the network, followed by the
+	 * super target
+	 * @return the target node ids
+	 */
+	private int[] getTargetIds() {
+		int[] targetIds = Arrays.copyOf(getNodeIds(networkSnapshot, targetsList), targetsList.size() + 1);
+		targetIds[targetsList.size()] = networkSnapshot.nodeCount() - 1;
+		return targetIds;
+	}
 
-		// make sure we aren't adding any duplicate edges to this new network
-		if (!duplicate){
-			// add the first direction of the edge
-			CyEdge newEdge = network.addEdge(source, target, true);
-			sourcetargetToEdge.put(sourcetargetSUID, newEdge);
-			List<Double> weights = new ArrayList<Double>();
-			weights.add(w);
-			edgeMultiWeights.put(sourcetargetSUID, weights);
-		}
-		else{
-			// if the network already contains this edge, then add the extra edge weight to this edge's list of edge weights
-			edgeMultiWeights.get(sourcetargetSUID).add(w);
+	/**
+	 * Takes the distances of the nodes of the snapshot of the network to the targets
+	 * out of the snapshot cache, or starts computing them if a previous run didn't.
+	 * The distances are kept for the YEN engine on double precision weights only:
+	 * the other engines compute their own, and rounding the weights of the searched
+	 * graph to single precision would make them slightly inconsistent.
+	 * The distances follow the edges into the sources even if they are hidden from
+	 * the run, and are thus lower bounds on those of the searched graph, which keep
+	 * the A* searches exact.
+	 * Records whether they were cached in the run statistics
+	 * @param targetIds the target node ids in the snapshot, with the super target
+	 * @return the distances to give back to the cache once the run is over, null to
+	 *         compute the distances in the searched graph
+	 */
+	private TargetDistances takeTargetDistances(int[] targetIds) {
+		if (snapshotCache == null || statistics.getEngine() != KspEngine.YEN || singlePrecisionWeights)
+			return null;
+
+		TargetDistances cached = snapshotCache.takeDistances(networkSnapshot, targetIds);
+		statistics.setCachedDistances(cached != null);
+		if (cached != null) {
+			plan.setReason(plan.getReason() + "; the distances to the targets are reused from a previous run");
+			return cached;
 		}
+
+		return new TargetDistances(networkSnapshot, targetIds, planParallelism(networkSnapshot));
+	}
+
+	/**
+	 * Starts computing the distances of the nodes of the searched graph to the super
+	 * target for the YEN engine, with the planned parallelism
+	 * @param graph the searched graph
+	 * @return the distances, null if the engine computes its own or if the super
+	 *         target was pruned
+	 */
+	private TargetDistances getSearchDistances(GraphSnapshot graph) {
+		int target = graph.indexOf(superTarget);
+		if (statistics.getEngine() != KspEngine.YEN || target < 0)
+			return null;
+
+		return new TargetDistances(graph, new int[] { target }, planParallelism(graph));
+	}
+
+	/**
+	 * Gets a view of the distances to the targets in the snapshot of the network
+	 * for the searched graph, the super source being given a distance of 0
+	 * @param graph           the searched graph
+	 * @param targetDistances the distances in the snapshot of the network
+	 * @return the distances by node id of the searched graph
+	 */
+	private TargetDistances getDistanceView(GraphSnapshot graph, TargetDistances targetDistances) {
+		int[] ids = new int[graph.nodeCount()];
+		for (int v = 0; v < ids.length; v++)
+			ids[v] = graph.node(v) == superSource ? -1 : networkSnapshot.indexOf(graph.node(v));
+
+		return new TargetDistances(targetDistances, ids);
+	}
+
+	/**
+	 * Gets the ids of nodes of the graph
+	 * @param graph    the graph
+	 * @param nodeList the nodes
+	 * @return the id of each node
+	 */
+	private int[] getNodeIds(GraphSnapshot graph, List<CyNode> nodeList) {
+		int[] ids = new int[nodeList.size()];
+		for (int i = 0; i < ids.length; i++)
+			ids[i] = graph.indexOf(nodeList.get(i));
+
+		return ids;
 	}
 
 	/**
@@ -421,7 +865,7 @@ public class PathLinkerModel {
 	 * The PathLinkerControlPanel->createKSPSubgraphAndView method uses the selected paths to generate the ksp subgraph
 	 * @param paths the list of paths generated by ksp algorithm
 	 */
-	private void selectKSPSubgraph(ArrayList<PathWay> paths) {
+	private void selectKSPSubgraph(List<PathWay> paths) {
 
 		// keeps track of sources/targets in the ksp subgraph
 		// to change their visual properties later
@@ -469,50 +913,6 @@ public class PathLinkerModel {
 		}
 	}
 
-	/**
-	 * Applies the user specified edge penalty for the multiplicative option.
-	 * This weight penalizes the score of every path by a factor equal to (the
-	 * number of edges in the path)^(this factor). This was previously done in
-	 * the logTransformEdgeWeights method with a parameter weight=(sum of all
-	 * edge weights). In the "standard" PathLinker case, this was necessary to
-	 * account for the probability that is lost when edges (incoming source or
-	 * outgoing target) are removed, along with probability lost to zero degree
-	 * nodes in the edge flux calculation.
-	 *
-	 * @param edgePenalty
-	 *            the penalty to apply to each edge
-	 */
-	private void applyMultiplicativeEdgePenalty(double edgePenalty) {
-		if (edgePenalty == 1.0)
-			return;
-
-		for (CyEdge edge : edgeWeights.keySet()) {
-			if (hiddenEdges.contains(edge))
-				continue;
-
-			double edgeWeight = edgeWeights.get(edge);
-			double w = edgeWeight / edgePenalty;
-			edgeWeights.put(edge, w);
-		}
-	}
-
-	/**
-	 * Performs a log transformation on the supplied edges in place given a
-	 * mapping from edges to their initial weights
-	 */
-	private void logTransformEdgeWeights() {
-		for (CyEdge edge : edgeWeights.keySet()) {
-			if (hiddenEdges.contains(edge))
-				continue;
-
-			double edgeWeight = edgeWeights.get(edge);
-
-			// double w = -1 * Math.log(edge_weight);
-			double w = -1 * Math.log(Math.max(0.000000001, edgeWeight)) / Math.log(10);
-			edgeWeights.put(edge, w);
-		}
-	}
-
 	/**
 	 * "un log-transforms" the path scores in the weighted options to undo the
 	 * log transformations and leave the path scores in terms of the original
@@ -521,36 +921,17 @@ public class PathLinkerModel {
 	 * @param paths
 	 *            the list of paths from the ksp algorithm
 	 */
-	private void undoLogTransformPathLength(ArrayList<PathWay> paths) {
+	private void undoLogTransformPathLength(List<PathWay> paths) {
 		// weighted probabilities option sets the weight to 2 ^ (-weight)
+		// the paths are set back, as the paths of a spilled result are read anew by each get
 		if (edgeWeightType == EdgeWeightType.PROBABILITIES) {
-			for (PathWay p : paths) {
+			for (int i = 0; i < paths.size(); i++) {
+				PathWay p = paths.get(i);
 				p.weight = Math.pow(10, -1 * p.weight);
+				paths.set(i, p);
 			}
 		}
 
 		// don't have to do anything for unweighted or additive option
 	}
-
-	/**
-	 * Applies the user specified edge penalty for the additive option. This
-	 * weight penalizes the score of every path by a factor equal to (the number
-	 * of edges in the path)*(this factor).
-	 *
-	 * @param edgePenalty
-	 *            the penalty to apply to each edge
-	 */
-	private void applyAdditiveEdgePenalty(double edgePenalty) {
-		if (edgePenalty == 0)
-			return;
-
-		for (CyEdge edge : edgeWeights.keySet()) {
-			if (hiddenEdges.contains(edge))
-				continue;
-
-			double edgeWeight = edgeWeights.get(edge);
-			double w = edgeWeight + edgePenalty;
-			edgeWeights.put(edge, w);
-		}
-	}
 }
@@ -5,17 +5,22 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.cytoscape.model.CyColumn;
-import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyTableUtil;
 
 import com.dpgil.pathlinker.path_linker.internal.util.EdgeWeightType;
+import com.dpgil.pathlinker.path_linker.internal.util.KspEngine;
+import com.dpgil.pathlinker.path_linker.internal.util.NodeNameCache;
 import com.dpgil.pathlinker.path_linker.internal.util.PathLinkerError;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotStorage;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
@@ -26,12 +31,36 @@ import io.swagger.annotations.ApiModelProperty;
 @ApiModel(value="PathLinker Parameters", description="Parameters for PathLinkerModel")
 public class PathLinkerModelParams {
 
-    @ApiModelProperty(value = "Source node names separated by spaces. Must match the \"name\" column in the Node Table", example = "S1 S2 S3", required = true)
+    @ApiModelProperty(value = "Source node names separated by spaces. Must match the \"name\" column in the Node Table. "
+            + "Required unless the sources are given by sourceNodeNames, sourceSUIDs or sourceColumn", example = "S1 S2 S3")
     public String sources; 
 
-    @ApiModelProperty(value = "target node names separated by spaces. Must match the \"name\" column in the Node Table", example = "T1 T2 T3", required = true)
+    @ApiModelProperty(value = "target node names separated by spaces. Must match the \"name\" column in the Node Table. "
+            + "Required unless the targets are given by targetNodeNames, targetSUIDs or targetColumn", example = "T1 T2 T3")
     public String targets;
 
+    @ApiModelProperty(value = "Source node names, added to the sources. Must match the \"name\" column in the Node Table. "
+            + "Avoids joining a long list of names into the sources string", example = "[\"S1\", \"S2\", \"S3\"]")
+    public List<String> sourceNodeNames;
+
+    @ApiModelProperty(value = "Target node names, added to the targets. Must match the \"name\" column in the Node Table",
+            example = "[\"T1\", \"T2\", \"T3\"]")
+    public List<String> targetNodeNames;
+
+    @ApiModelProperty(value = "Source node SUIDs, added to the sources", example = "[101, 102]")
+    public List<Long> sourceSUIDs;
+
+    @ApiModelProperty(value = "Target node SUIDs, added to the targets", example = "[201, 202]")
+    public List<Long> targetSUIDs;
+
+    @ApiModelProperty(value = "Name of a boolean column of the Node Table. The nodes with a true value are added to the sources, "
+            + "such as \"selected\" for the selected nodes", example = "is_source")
+    public String sourceColumn;
+
+    @ApiModelProperty(value = "Name of a boolean column of the Node Table. The nodes with a true value are added to the targets",
+            example = "is_target")
+    public String targetColumn;
+
     @ApiModelProperty(value = "Number of paths to compute. Default = 50", example = "50")
     public Integer k = 50;
 
@@ -60,6 +89,79 @@ public class PathLinkerModelParams {
             example = "false", dataType = "boolean")
     public boolean includeTiedPaths = false;
 
+    @ApiModelProperty(value = "Maximum number of paths allowed to share the kth path’s length/score when includeTiedPaths is set. "
+            + "Default = no limit", example = "1000")
+    public Integer maxTiedPaths;
+
+    @ApiModelProperty(value = "Maximum number of edges of the paths. Longer paths are never searched, "
+            + "which speeds up dense networks. The paths are then computed by the YEN or DAG engine. "
+            + "Default = no limit", example = "8")
+    public Integer maxPathLength;
+
+    @ApiModelProperty(value = "Maximum path score of the paths, or minimum path score for edge weight type PROBABILITIES, "
+            + "whose path scores are probabilities. Costlier paths are never searched, so fewer than k paths may be found. "
+            + "Default = no limit", example = "0.001")
+    public Double maxPathCost;
+
+    @ApiModelProperty(value = "Compute approximate paths, each at most (1 + approximationEpsilon) times costlier than "
+            + "the exact path of the same rank, which is faster for large k. The cost of a path is its path score, "
+            + "or -log10 of its path score for edge weight type PROBABILITIES. Each path reports the bound it achieved. "
+            + "Only networks with cycles are searched approximately. Must be 0 when maxPathLength is set. "
+            + "Default = 0, for exact paths", example = "0.1")
+    public Double approximationEpsilon = 0.0;
+
+    @ApiModelProperty(value = "Keep only a window of the candidate paths in memory and spill the rest to temporary files. "
+            + "Use for very large k (10^5 or more paths). Default = false",
+            example = "false", dataType = "boolean")
+    public boolean spillToDisk = false;
+
+    @ApiModelProperty(value = "Contract the chains of nodes with a single incoming and outgoing edge into single edges "
+            + "before computing the paths. The paths and their ranks are the same. Default = false",
+            example = "false", dataType = "boolean")
+    public boolean contractChains = false;
+
+    @ApiModelProperty(value = "Renumber the nodes in reverse Cuthill-McKee order from the sources before computing the paths, "
+            + "so that neighboring nodes are close in memory. Speeds up very large networks. "
+            + "The paths and their scores are the same. Default = false",
+            example = "false", dataType = "boolean")
+    public boolean reorderNodes = false;
+
+    @ApiModelProperty(value = "Keep the edge weights in single precision while computing the paths, "
+            + "halving their memory on very large networks. Path scores are accurate to about 7 significant digits, "
+            + "and paths whose scores agree to 6 digits are treated as tied. Default = false",
+            example = "false", dataType = "boolean")
+    public boolean singlePrecisionWeights = false;
+
+    @ApiModelProperty(value = "Where to keep the adjacency and weights of the network while computing the paths. "
+            + "HEAP for Java arrays, DIRECT for direct buffers or MAPPED for buffers mapped from a temporary file, "
+            + "which keep very large networks out of the garbage collected heap. The network is moved once "
+            + "and shared by the runs on it, the part of it searched by each run stays on the heap. Default = HEAP",
+            example = "HEAP")
+    public SnapshotStorage snapshotStorage = SnapshotStorage.HEAP;
+
+    @ApiModelProperty(value = "Search the paths on edge weights rounded to quantizationDigits decimal digits, "
+            + "which is faster on large networks with non-negative weights. The path scores are still exact, "
+            + "but paths whose scores differ by less than the rounding may be ranked differently; "
+            + "such cases are counted in the ambiguousSearchCount of the statistics. Default = false",
+            example = "false", dataType = "boolean")
+    public boolean quantizeWeights = false;
+
+    @ApiModelProperty(value = "Number of decimal digits of the edge weights kept when quantizeWeights is set. "
+            + "Must be between 1 and 15. Default = 6", example = "6")
+    public Integer quantizationDigits = 6;
+
+    @ApiModelProperty(value = "The algorithm computing the paths: YEN, BUCKET (integral weights only), "
+            + "RADIX (non-negative weights only) or DAG (acyclic networks only). "
+            + "The paths are the same, except for the ranks of paths within the rounding of RADIX. "
+            + "Default = chosen from the network and the parameters, as is an engine that can't run on the network. "
+            + "The response reports the choice", example = "YEN")
+    public KspEngine engine;
+
+    @ApiModelProperty(value = "Number of threads computing the distances of the nodes to the targets for the YEN engine, "
+            + "1 to compute them as the searches need them, at most the number of processors. "
+            + "Default = chosen from the size of the network and the parameters", example = "4")
+    public Integer parallelism;
+
     @ApiModelProperty(value = "Skip the generation of the subnetwork/subnetwork view, the path rank column, "
             + "and the result panel in Cytoscape", 
             example = "false", dataType = "boolean")
@@ -82,6 +184,8 @@ public class PathLinkerModelParams {
     private List<CyNode> sourcesList;
     /** the targets to be used in the algorithm */
     private List<CyNode> targetsList;
+    /** the edges read while checking the edge weights, for the run to build its snapshot from */
+    private NetworkEdges networkEdges;
 
     /** list of PathLinkerError generated by validation */
     private List<PathLinkerError> errorList;
@@ -135,6 +239,15 @@ public class PathLinkerModelParams {
         return this.targetNames;
     }
 
+    /**
+     * Getter method of networkEdges
+     * @return the edges read from the network by the validation, null if it didn't read them
+     */
+    @ApiModelProperty(hidden = true)
+    public NetworkEdges getNetworkEdges() {
+        return this.networkEdges;
+    }
+
     /**
      * Getter method of quit
      * @return true if quit is false
@@ -155,10 +268,31 @@ public class PathLinkerModelParams {
      */
     @ApiModelProperty(hidden = true)
     public List<PathLinkerError> validate(CyNetwork network, String resourcePath) {
+        return validate(network, resourcePath, null, null);
+    }
+
+    /**
+     * Validation of the model parameter on the give network
+     *      modify the model parameter object itself
+     *      and initialize/sets varies other properties
+     * The edges read to check the edge weights are kept for the run, see getNetworkEdges,
+     *      and not read at all if a snapshot read from the same column is cached.
+     *      The sources and targets are looked up in the node name index of the network
+     *      instead of reading the name of every node, if a node name cache is given
+     * @param network the given network for validation
+     * @param resourcePath the resource path for error construction
+     * @param snapshotCache the cache of the network snapshots, null for none
+     * @param nodeNameCache the cache of the node name indexes, null for none
+     * @return list of PathLinkerError as result of the validation
+     */
+    @ApiModelProperty(hidden = true)
+    public List<PathLinkerError> validate(CyNetwork network, String resourcePath, SnapshotCache snapshotCache,
+            NodeNameCache nodeNameCache) {
         // initialize errorList, resourcePath, and quit property
         errorList = new ArrayList<PathLinkerError>();
         this.resourcePath = resourcePath;
         quit = false;
+        networkEdges = null;
 
         // check if network exists
         if (network == null) {
@@ -172,7 +306,7 @@ public class PathLinkerModelParams {
         }
 
         // initialize source and target properties for validation
-        prepareIdSourceTarget(network);
+        prepareIdSourceTarget(network, nodeNameCache);
 
         // insert all missing sources/targets to the error message
         if (!sourcesNotInNet.isEmpty()) {
@@ -223,22 +357,36 @@ public class PathLinkerModelParams {
 
         // checks if all the edges in the graph have weights. Skip the check if edge weight type is unweighted
         // Error exists if a weighted option was selected, but not all edges have weights.
+        // The edges and their weights are read in a single pass over the edge table, which the run
+        // then builds its snapshot from instead of reading the table again. A snapshot cached for
+        // the column since its values last changed has all its weights, so the read is skipped
         PathLinkerError edgeWeightError = null;
         if (edgeWeightType != null && edgeWeightType != EdgeWeightType.UNWEIGHTED) {
-            for (CyEdge edge : network.getEdgeList()) {
-                try {
-                    Double.parseDouble(network.getRow(edge).getRaw(edgeWeightColumnName).toString());
-                } catch (NullPointerException  e) {
-                    String errorMsg = "Weighted option is selected, but at least one edge does not have a weight in the selected edge weight column '" + 
-                            edgeWeightColumnName + "'.\nPlease either select the Unweighted option, or ensure all edges have a weight to run PathLinker.\n";
-
-                    edgeWeightError = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
-                            PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
-                            errorMsg.replace("\n", ""), errorMsg);
-
-                    quit = true;
-                    break;
-                }
+            // the changes to the network not yet delivered to the listeners drop its snapshots first
+            if (snapshotCache != null)
+                snapshotCache.flushEvents();
+
+            int missingWeightCount = network.getEdgeCount();
+            if (edgeWeightColumnName != null && snapshotCache != null
+                    && snapshotCache.hasSnapshot(network.getSUID(), edgeWeightColumnName))
+                missingWeightCount = 0;
+            else if (edgeWeightColumnName != null) {
+                long version = snapshotCache == null ? -1
+                        : snapshotCache.getVersion(network.getSUID(), edgeWeightColumnName);
+                networkEdges = new NetworkEdges(network, edgeWeightColumnName, treatNetworkAsUndirected, version);
+                missingWeightCount = networkEdges.getMissingWeightCount();
+            }
+
+            if (missingWeightCount > 0) {
+                String errorMsg = "Weighted option is selected, but at least one edge does not have a weight in the selected edge weight column '" + 
+                        edgeWeightColumnName + "'.\nPlease either select the Unweighted option, or ensure all edges have a weight to run PathLinker.\n";
+
+                edgeWeightError = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                        PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                        errorMsg.replace("\n", ""), errorMsg);
+
+                quit = true;
+                networkEdges = null;
             }
         }
 
@@ -259,6 +407,73 @@ public class PathLinkerModelParams {
             errorList.add(error);
         }
 
+        // validate the limit on tied paths
+        if (maxTiedPaths != null && maxTiedPaths < 1) {
+            String errorMsg = "Invalid maxTiedPaths. maxTiedPaths cannot be less than 1";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
+        // validate the limit on the path length
+        if (maxPathLength != null && maxPathLength < 1) {
+            String errorMsg = "Invalid maxPathLength. maxPathLength cannot be less than 1";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
+        // validate the approximation of the paths
+        if (approximationEpsilon == null || !(approximationEpsilon >= 0) || approximationEpsilon.isInfinite()) {
+            String errorMsg = "Invalid approximationEpsilon. approximationEpsilon must be a number greater than or equal to 0";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
+        // the paths of a maximum length are searched exactly
+        if (maxPathLength != null && approximationEpsilon != null && approximationEpsilon > 0) {
+            String errorMsg = "Invalid approximationEpsilon. approximationEpsilon must be 0 when maxPathLength is set";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
+        // validate the number of threads, each searching on a processor of its own
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (parallelism != null && (parallelism < 1 || parallelism > processors)) {
+            String errorMsg = "Invalid parallelism. parallelism must be between 1 and the number of processors, " + processors;
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
+        // validate the precision of the quantized weights
+        if (quantizationDigits == null || quantizationDigits < 1 || quantizationDigits > 15) {
+            String errorMsg = "Invalid quantizationDigits. quantizationDigits must be between 1 and 15";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
         // check user input for edgeWeightType
         if (edgeWeightType == null) {
             String errorMsg = "Invalid edgeWeightType. edgeWeightType must be UNWEIGHTED, ADDITIVE, or PROBABILITIES" ;
@@ -271,6 +486,20 @@ public class PathLinkerModelParams {
             return errorList;
         }
 
+        // validate the limit on the path score, a probability for the probabilities option
+        if (maxPathCost != null && (edgeWeightType == EdgeWeightType.PROBABILITIES
+                ? !(maxPathCost > 0 && maxPathCost <= 1) : !(maxPathCost >= 0) || maxPathCost.isInfinite())) {
+            String errorMsg = edgeWeightType == EdgeWeightType.PROBABILITIES
+                    ? "Invalid maxPathCost. maxPathCost must be greater than 0 and at most 1 for edge weight type PROBABILITIES"
+                    : "Invalid maxPathCost. maxPathCost must be a number greater than or equal to 0";
+
+            PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                    PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                    errorMsg, null);
+
+            errorList.add(error);
+        }
+
         // skip validation for other parameters if edge weight type is unweighted
         if (edgeWeightType == EdgeWeightType.UNWEIGHTED)
             return errorList;
@@ -356,14 +585,23 @@ public class PathLinkerModelParams {
      *      targetsList, targetNames, targetsNoInNet
      *      idToCyNode
      */
-    private void prepareIdSourceTarget(CyNetwork network) {
+    private void prepareIdSourceTarget(CyNetwork network, NodeNameCache nodeNameCache) {
         // populates a mapping from the name of a node to the actual node object
-        // used for converting user input to node objects. populates the map named _idToCyNode
-        populateIdCyNodePair(network);
+        // used for converting user input to node objects. populates the map named _idToCyNode.
+        // the index of the network is kept up to date between runs, so the names are not read again
+        if (nodeNameCache != null) {
+            // the nodes added, removed or renamed not yet delivered to the listeners update the index first
+            nodeNameCache.flushEvents();
+            NodeNameCache.Index index = nodeNameCache.getIndex(network);
+            idToCyNode = index.getNameToNode();
+            cyNodeToId = index.getNodeToName();
+        }
+        else
+            populateIdCyNodePair(network);
 
         // sets source and target
-        setSources();
-        setTargets();
+        setSources(network);
+        setTargets(network);
     }
 
     /**
@@ -383,15 +621,17 @@ public class PathLinkerModelParams {
 
     /**
      * Setter method for sourcesList, sourceNames, and sourcesNotInNet
+     * @param network the network to find the sources in
      */
-    private void setSources() {
+    private void setSources(CyNetwork network) {
         // stores the sources that were inputed but are not actually in the network, may have been mistyped
         sourcesNotInNet = new ArrayList<String>();
         // initialize the sourcesList here in case the text field is empty
         sourcesList = new ArrayList<CyNode>(); 
+        sourceNames = new HashSet<String>();
 
         // if nothing was entered, then return
-        if (sources == null || sources.isEmpty()){
+        if (isEmpty(sources, sourceNodeNames, sourceSUIDs, sourceColumn)) {
             String errorMsg = "Source field cannot be empty";
 
             PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
@@ -402,32 +642,23 @@ public class PathLinkerModelParams {
             return;
         }
 
-        // splits the names by spaces
-        String[] rawSourceNames = sources.split("\\s+");
-        sourceNames = new HashSet<String>(Arrays.asList(rawSourceNames));
-
-        // checks for mistyped source names
-        for (String sourceName : sourceNames) {
-            if (!idToCyNode.containsKey(sourceName))
-                sourcesNotInNet.add(sourceName);
-        }
-
-        // generates a list of the valid source nodes to be used in the graph
-        sourceNames.removeAll(sourcesNotInNet);
-        sourcesList = stringsToNodes(sourceNames);
+        sourcesList = collectNodes(network, sources, sourceNodeNames, sourceSUIDs, sourceColumn,
+                sourceNames, sourcesNotInNet);
     }
 
     /**
      * Setter method for targetsList, targetNames, and targetsNotInNet
+     * @param network the network to find the targets in
      */
-    private void setTargets() {
+    private void setTargets(CyNetwork network) {
         // stores the targets that were inputed but are not actually in the network, may have been mistyped
         targetsNotInNet = new ArrayList<String>();
         // initialize the targetsList here in case the text field is empty
         targetsList = new ArrayList<CyNode>(); 
+        targetNames = new HashSet<String>();
 
         // if nothing was entered, then return
-        if (targets == null || targets.length() == 0){
+        if (isEmpty(targets, targetNodeNames, targetSUIDs, targetColumn)) {
             String errorMsg = "Target field cannot be empty";
 
             PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
@@ -438,19 +669,87 @@ public class PathLinkerModelParams {
             return;
         }
 
+        targetsList = collectNodes(network, targets, targetNodeNames, targetSUIDs, targetColumn,
+                targetNames, targetsNotInNet);
+    }
+
+    /**
+     * Checks if no node was given in any of the ways to give sources or targets
+     * @param text      the node names separated by spaces
+     * @param nodeNames the node names
+     * @param suids     the node SUIDs
+     * @param column    the boolean node column
+     * @return true if no node was given
+     */
+    private boolean isEmpty(String text, List<String> nodeNames, List<Long> suids, String column) {
+        return (text == null || text.isEmpty()) && (nodeNames == null || nodeNames.isEmpty())
+                && (suids == null || suids.isEmpty()) && (column == null || column.isEmpty());
+    }
+
+    /**
+     * Collects the nodes given by name, by SUID and by a boolean node column, looking up
+     *      each name and SUID instead of converting the nodes to a string of names
+     * @param network   the network to find the nodes in
+     * @param text      the node names separated by spaces
+     * @param nodeNames the node names
+     * @param suids     the node SUIDs
+     * @param column    the boolean node column selecting the nodes
+     * @param names     the set to add the names of the nodes found to
+     * @param notInNet  the list to add the names and SUIDs not found in the network to
+     * @return the nodes found, without duplicates
+     */
+    private List<CyNode> collectNodes(CyNetwork network, String text, List<String> nodeNames, List<Long> suids,
+            String column, Set<String> names, List<String> notInNet) {
         // splits the names by spaces
-        String[] rawTargetNames = targets.split("\\s+");
-        targetNames = new HashSet<String>(Arrays.asList(rawTargetNames));
+        if (text != null && !text.isEmpty())
+            names.addAll(Arrays.asList(text.split("\\s+")));
+        if (nodeNames != null)
+            names.addAll(nodeNames);
+
+        // checks for mistyped names
+        for (String name : names) {
+            if (!idToCyNode.containsKey(name))
+                notInNet.add(name);
+        }
+
+        // generates a list of the valid nodes to be used in the graph
+        names.removeAll(notInNet);
+        Set<CyNode> nodes = new LinkedHashSet<CyNode>(stringsToNodes(names));
+
+        if (suids != null) {
+            for (Long suid : suids) {
+                CyNode node = suid == null ? null : network.getNode(suid);
+                if (node == null)
+                    notInNet.add("SUID " + suid);
+                else
+                    nodes.add(node);
+            }
+        }
+
+        if (column != null && !column.isEmpty()) {
+            CyColumn nodeColumn = network.getDefaultNodeTable().getColumn(column);
+            if (nodeColumn != null && nodeColumn.getType() == Boolean.class)
+                nodes.addAll(CyTableUtil.getNodesInState(network, column, true));
+            else {
+                String errorMsg = "Invalid node column " + column + ". Column name must point to a valid node column with boolean type";
+
+                PathLinkerError error = new PathLinkerError(PathLinkerError.INVALID_INPUT_CODE, 
+                        PathLinkerError.RESOURCE_ERROR_ROOT + ":" + resourcePath + ":" + PathLinkerError.INVALID_INPUT_ERROR, 
+                        errorMsg, null);
+
+                errorList.add(error);
+                quit = true;
+            }
+        }
 
-        // checks for mistyped target  names
-        for (String targetName : targetNames) {
-            if (!idToCyNode.containsKey(targetName))
-                targetsNotInNet.add(targetName);
+        // the names of the nodes given by SUID or column, to find them in the result
+        for (CyNode node : nodes) {
+            String name = cyNodeToId.get(node);
+            if (name != null)
+                names.add(name);
         }
 
-        // generates a list of the valid target nodes to be used in the graph
-        targetNames.removeAll(targetsNotInNet);
-        targetsList = stringsToNodes(targetNames);
+        return new ArrayList<CyNode>(nodes);
     }
 
     /**
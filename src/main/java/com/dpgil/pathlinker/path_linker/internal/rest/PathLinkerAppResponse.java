@@ -2,7 +2,9 @@ package com.dpgil.pathlinker.path_linker.internal.rest;
 
 import java.util.List;
 
+import com.dpgil.pathlinker.path_linker.internal.util.EnginePlan;
 import com.dpgil.pathlinker.path_linker.internal.util.Path;
+import com.dpgil.pathlinker.path_linker.internal.util.RunStatistics;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
@@ -24,6 +26,10 @@ public class PathLinkerAppResponse {
     private String pathRankColumnName;
     /** List of PathLinkerPath objects */
     private List<Path> paths;
+    /** Statistics of the run */
+    private RunStatistics statistics;
+    /** Engine and parallelism of the run */
+    private EnginePlan plan;
 
     /**
      * Getter method of the subnetworkSUID
@@ -93,4 +99,40 @@ public class PathLinkerAppResponse {
     public void setPaths(List<Path> paths) {
         this.paths = paths;
     }
+
+    /**
+     * Getter method of the statistics
+     * @return statistics the statistics of the run
+     */
+    @ApiModelProperty(value = "Size of the graph searched by the algorithm, after pruning the nodes "
+            + "that are on no path from a source to a target")
+    public RunStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Setter method of the statistics
+     * @param statistics the statistics of the run
+     */
+    public void setStatistics(RunStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Getter method of the plan
+     * @return plan the engine and parallelism of the run
+     */
+    @ApiModelProperty(value = "Algorithm and parallelism used to compute the paths, chosen from the network "
+            + "and the parameters unless requested, and why")
+    public EnginePlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Setter method of the plan
+     * @param plan the engine and parallelism of the run
+     */
+    public void setPlan(EnginePlan plan) {
+        this.plan = plan;
+    }
 }
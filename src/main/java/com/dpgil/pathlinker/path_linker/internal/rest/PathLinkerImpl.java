@@ -26,8 +26,11 @@ import com.dpgil.pathlinker.path_linker.internal.task.CreateKSPViewTask;
 import com.dpgil.pathlinker.path_linker.internal.task.CreateResultPanelTask;
 import com.dpgil.pathlinker.path_linker.internal.task.RunKSPTask;
 import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
+import com.dpgil.pathlinker.path_linker.internal.util.NodeNameCache;
 import com.dpgil.pathlinker.path_linker.internal.util.PathLinkerError;
 import com.dpgil.pathlinker.path_linker.internal.util.Path;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
+import com.dpgil.pathlinker.path_linker.internal.util.SpilledPathWays;
 import com.dpgil.pathlinker.path_linker.internal.view.PathLinkerControlPanel;
 
 /**
@@ -51,6 +54,10 @@ public class PathLinkerImpl implements PathLinkerResource {
     private PathLinkerModel pathLinkerModel;
     /** CI Factories for Exceptions */
     private final CIExceptionFactory ciExceptionFactory;
+    /** the cache of the network snapshots, shared with the control panel */
+    private SnapshotCache snapshotCache;
+    /** the cache of the node name indexes, shared with the control panel */
+    private NodeNameCache nodeNameCache;
 
     /**
      * Default constructor
@@ -61,6 +68,8 @@ public class PathLinkerImpl implements PathLinkerResource {
      * @param serviceRegistrar      service registrar
      * @param cySwingApp            swing app
      * @param ciExceptionFactory    CIException factory
+     * @param snapshotCache         the cache of the network snapshots
+     * @param nodeNameCache         the cache of the node name indexes
      */
     public PathLinkerImpl(
             PathLinkerControlPanel controlPanel,
@@ -69,7 +78,9 @@ public class PathLinkerImpl implements PathLinkerResource {
             CyAppAdapter adapter,
             CyServiceRegistrar serviceRegistrar,
             CySwingApplication cySwingApp,
-            CIExceptionFactory ciExceptionFactory) {
+            CIExceptionFactory ciExceptionFactory,
+            SnapshotCache snapshotCache,
+            NodeNameCache nodeNameCache) {
         this.controlPanel = controlPanel;
         this.cyApplicationManager = cyApplicationManager;
         this.cyNetworkManager = cyNetworkManager;
@@ -77,6 +88,8 @@ public class PathLinkerImpl implements PathLinkerResource {
         this.serviceRegistrar = serviceRegistrar;
         this.cySwingApp = cySwingApp;
         this.ciExceptionFactory = ciExceptionFactory;
+        this.snapshotCache = snapshotCache;
+        this.nodeNameCache = nodeNameCache;
     }
 
     /**
@@ -118,7 +131,7 @@ public class PathLinkerImpl implements PathLinkerResource {
     private Response runPathLinker(CyNetwork cyNetwork, PathLinkerModelParams modelParams) {
         // process validation for input parameters
         // throw exception if error found
-        List<PathLinkerError> errorList = modelParams.validate(cyNetwork, "run");
+        List<PathLinkerError> errorList = modelParams.validate(cyNetwork, "run", snapshotCache, nodeNameCache);
         if (!errorList.isEmpty()) {
             if (errorList.get(0).status == PathLinkerError.CY_NETWORK_NOT_FOUND_CODE)
                 throw ciExceptionFactory.getCIException(PathLinkerError.CY_NETWORK_NOT_FOUND_CODE,
@@ -132,7 +145,7 @@ public class PathLinkerImpl implements PathLinkerResource {
         SynchronousTaskManager<?> synTaskMan = adapter.getCyServiceRegistrar().getService(SynchronousTaskManager.class);
 
         // performs KSP algorithm by creating the runKSPTask
-        RunKSPTask runKSPTask = new RunKSPTask(cyNetwork, modelParams);
+        RunKSPTask runKSPTask = new RunKSPTask(cyNetwork, modelParams, snapshotCache);
         synTaskMan.execute(new TaskIterator(runKSPTask));
 
         // response to be returned
@@ -187,11 +200,18 @@ public class PathLinkerImpl implements PathLinkerResource {
                 currentPath.add(path.nodeIdMap.get(path.get(j)));
             }
 
-            result.add(new Path(i + 1, Double.valueOf(df.format(paths.get(i).weight)), currentPath));
+            result.add(new Path(i + 1, Double.valueOf(df.format(paths.get(i).weight)), currentPath,
+                    path.approximationBound));
         }
 
+        // delete the file of the paths if they were spilled to disk, unless a result panel holds them
+        if (modelParams.skipSubnetworkGeneration && paths instanceof SpilledPathWays)
+            ((SpilledPathWays) paths).close();
+
         // store results into response
         response.setPaths(result);
+        response.setStatistics(pathLinkerModel.getStatistics());
+        response.setPlan(pathLinkerModel.getPlan());
 
         return Response.status(Response.Status.OK).type(MediaType.APPLICATION_JSON).entity(response).build();
     }
@@ -222,7 +222,7 @@ public class CreateKSPViewTask extends AbstractNetworkTask implements Observable
      * @param paths 
      *          the sorted paths of the network generated from the algorithm
      */
-    public void updatePathRankAttribute(ArrayList<PathWay> paths) {
+    public void updatePathRankAttribute(List<PathWay> paths) {
         // Use nameIndex to create a new attribute "path rank n"
         // in the network edge table, where n is an unique number
         while (network.getDefaultEdgeTable().getColumn("path rank " + controlPanel.nameIndex) != null)
@@ -7,6 +7,7 @@ import org.cytoscape.work.TaskMonitor;
 
 import com.dpgil.pathlinker.path_linker.internal.model.PathLinkerModel;
 import com.dpgil.pathlinker.path_linker.internal.model.PathLinkerModelParams;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
 
 /**
  * Class which creates a task that runs the KSP algorithm
@@ -17,6 +18,8 @@ public class RunKSPTask extends AbstractNetworkTask implements ObservableTask {
     private CyNetwork network;
     /** parameters to create model for running the ksp algorithm */
     private PathLinkerModelParams modelParams;
+    /** the cache of the network snapshots, null for none */
+    private SnapshotCache snapshotCache;
     /** the model to run ksp algorithm */
     private PathLinkerModel pathLinkerModel;
     /** task monitor for the RunKSPTask */
@@ -29,9 +32,21 @@ public class RunKSPTask extends AbstractNetworkTask implements ObservableTask {
      */
     public RunKSPTask(CyNetwork network, 
             PathLinkerModelParams modelParams) {
+        this(network, modelParams, null);
+    }
+
+    /**
+     * Constructor reusing the snapshots of the networks between runs
+     * @param network network to perform ksp algorithm
+     * @param modelParams parameters to create model for running the ksp algorithm
+     * @param snapshotCache the cache of the network snapshots, null for none
+     */
+    public RunKSPTask(CyNetwork network, 
+            PathLinkerModelParams modelParams, SnapshotCache snapshotCache) {
         super(network);
         this.network = network;
         this.modelParams = modelParams;
+        this.snapshotCache = snapshotCache;
     }
 
     /**
@@ -81,9 +96,25 @@ public class RunKSPTask extends AbstractNetworkTask implements ObservableTask {
                 modelParams.edgeWeightType, 
                 modelParams.edgePenalty,
                 modelParams.getCyNodeToId());
+        pathLinkerModel.setMaxTiedPaths(modelParams.maxTiedPaths);
+        pathLinkerModel.setMaxPathLength(modelParams.maxPathLength);
+        pathLinkerModel.setMaxPathCost(modelParams.maxPathCost);
+        pathLinkerModel.setApproximationEpsilon(modelParams.approximationEpsilon);
+        pathLinkerModel.setRequestedEngine(modelParams.engine);
+        pathLinkerModel.setRequestedParallelism(modelParams.parallelism);
+        pathLinkerModel.setSpillToDisk(modelParams.spillToDisk);
+        pathLinkerModel.setContractChains(modelParams.contractChains);
+        pathLinkerModel.setReorderNodes(modelParams.reorderNodes);
+        pathLinkerModel.setSinglePrecisionWeights(modelParams.singlePrecisionWeights);
+        pathLinkerModel.setSnapshotStorage(modelParams.snapshotStorage);
+        pathLinkerModel.setQuantizeWeights(modelParams.quantizeWeights);
+        pathLinkerModel.setQuantizationDigits(modelParams.quantizationDigits);
+        pathLinkerModel.setSnapshotCache(snapshotCache);
+        pathLinkerModel.setNetworkEdges(modelParams.getNetworkEdges());
 
         // runs the KSP algorithm
         pathLinkerModel.runKSP();
-        taskMonitor.setStatusMessage("Running KSP algorithm success.");
+        taskMonitor.setStatusMessage(String.format("Running KSP algorithm success. Pruned %.1f%% of the nodes.",
+                100 * pathLinkerModel.getStatistics().getPruningRatio()));
     }
 }
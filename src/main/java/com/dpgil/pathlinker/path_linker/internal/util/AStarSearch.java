@@ -0,0 +1,163 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import javax.swing.JOptionPane;
+
+/**
+ * The A* search used by the ksp algorithm to find the spur paths, with the
+ *      distances to the target in the whole graph as its heuristic. The distances
+ *      are asked for as the nodes are reached, and only as far as the bound of the
+ *      search needs, so they can be computed on demand (see TargetDistances).
+ * The heuristic can be inflated by a weight of 1 + epsilon, as in weighted A*:
+ *      the search then goes more directly to the target, and finds a path at most
+ *      1 + epsilon times heavier than the shortest path.
+ */
+public class AStarSearch extends SpurSearch {
+
+    // real-valued edge weights can cause the search to fail due to
+    // accumulated error summing along the path. test with a relative
+    // epsilon to catch only the 'real' errors
+    private static final double REL_EPS = 1E-10;
+
+    /** the distance of each node to the target, the heuristic */
+    private TargetDistances minDists;
+    /** the best distance seen so far for each node */
+    private double[] dists;
+    /** the nodes on the fringe, keyed by heuristic distance */
+    private NodeHeap fringe;
+    /** the factor of the heuristic in the keys, 1 for an exact search */
+    private double heuristicWeight = 1.;
+
+    /**
+     * Default constructor
+     * @param graph    the graph to search
+     * @param minDists the distance of each node to the target
+     */
+    public AStarSearch(GraphSnapshot graph, double[] minDists) {
+        this(graph, new TargetDistances(minDists));
+    }
+
+    /**
+     * Constructor with the distances to the target computed on demand
+     * @param graph    the graph to search
+     * @param minDists the distance of each node to the target
+     */
+    public AStarSearch(GraphSnapshot graph, TargetDistances minDists) {
+        super(graph);
+
+        this.minDists = minDists;
+        this.dists = new double[graph.nodeCount()];
+        this.fringe = new NodeHeap();
+    }
+
+    /**
+     * Setter method of the heuristic weight
+     * @param heuristicWeight the factor of the heuristic in the keys of the fringe, at least 1.
+     *                        The paths found are at most that many times heavier than the
+     *                        shortest paths
+     */
+    public void setHeuristicWeight(double heuristicWeight) {
+        this.heuristicWeight = heuristicWeight;
+    }
+
+    /**
+     * Computes the shortest path from source to target with A*, giving up once
+     *      the path can't be shorter than maxDist. Because the heuristic is a lower
+     *      bound, the search stops as soon as the lightest node on the fringe exceeds maxDist.
+     *      With an inflated heuristic, the keys are no longer lower bounds, so the nodes
+     *      that exceed maxDist are rather left out of the fringe
+     * @param source  the source node id
+     * @param target  the target node id
+     * @param maxDist the maximum weight of the path, infinity for no bound
+     * @return the edge ids in order in the path, null if there is no path within maxDist
+     */
+    @Override
+    public int[] shortestPath(int source, int target, double maxDist) {
+        if (source == target)
+            return new int[0];
+
+        nextStamp();
+        fringe.clear();
+
+        seen[source] = stamp;
+        dists[source] = 0.;
+        predEdges[source] = -1;
+        boolean bounded = !Double.isInfinite(maxDist);
+        boolean inflated = heuristicWeight != 1.;
+
+        double sourceHeuristic = bounded ? minDists.get(source, 0., maxDist) : minDists.get(source);
+        if (inflated && bounded && sourceHeuristic > maxDist)
+            return null;
+        fringe.push(inflated ? heuristicWeight * sourceHeuristic : sourceHeuristic, source, 0.);
+
+        // iteratively search the graph outward until we've processed all nodes
+        while (!fringe.isEmpty()) {
+            double currHeurDist = fringe.topKey();
+            int currNode = fringe.topNode();
+            double currActDist = fringe.topDist();
+            fringe.pop();
+
+            // every remaining path is heavier than the bound
+            if (bounded && !inflated && currHeurDist > maxDist)
+                return null;
+
+            // if we've already processed this node, don't re-process it. this
+            // happens because when we see a better path to an already seen
+            // node, it's cheaper to leave it in the heap and deal with it here
+            // than to remove it
+            if (done[currNode] == stamp)
+                continue;
+
+            // process this node, this is necessarily the best possible path to it
+            done[currNode] = stamp;
+
+            // check for a solution
+            if (currNode == target)
+                return buildPath(source, target);
+
+            // examine all neighbors to this node and consider adding them to the fringe
+            for (int e = graph.outBegin(currNode); e < graph.outEnd(currNode); e++) {
+                if (!canFollow(e))
+                    continue;
+
+                int nextNode = graph.target(e);
+                double nextActDist = currActDist + graph.weight(e);
+
+                // if the heuristic function returns infinity, then the target
+                // is necessarily unreachable, so don't expand the search along this edge.
+                // past the bound, a lower bound on the distance is enough to know the
+                // node is of no use, which saves computing the distance exactly
+                double heuristic = bounded ? minDists.get(nextNode, nextActDist, maxDist)
+                        : minDists.get(nextNode);
+                if (Double.isInfinite(heuristic))
+                    continue;
+
+                // if we've already processed the neighbor, then this can't
+                // possibly be a better path, assuming the problem is well-formed
+                if (done[nextNode] == stamp) {
+                    // verify that the graph and heuristic don't break the search property.
+                    // an inflated heuristic may process a node before its best path
+                    if (!inflated && (nextActDist * (1 + REL_EPS)) < dists[nextNode]) {
+                        JOptionPane.showMessageDialog(
+                                null,
+                                "Contradictory search path. Bad heuristic? Negative weights?");
+                        return null;
+                    }
+                }
+                // only adds the node if this path to it is an improvement over the
+                // previous path. the old entry is left in the heap and skipped
+                else if (seen[nextNode] != stamp || nextActDist < dists[nextNode]) {
+                    if (inflated && bounded && nextActDist + heuristic > maxDist)
+                        continue;
+
+                    seen[nextNode] = stamp;
+                    dists[nextNode] = nextActDist;
+                    predEdges[nextNode] = e;
+                    fringe.push(inflated ? nextActDist + heuristicWeight * heuristic : nextActDist + heuristic,
+                            nextNode, nextActDist);
+                }
+            }
+        }
+
+        return null;
+    }
+}
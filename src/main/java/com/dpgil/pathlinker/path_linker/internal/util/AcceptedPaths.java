@@ -0,0 +1,100 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The paths accepted by the ksp algorithm, in the order they were accepted.
+ *      When given a SpillFile, the paths are written to the file and only the
+ *      most recently accepted path and the position of each path are kept on the heap.
+ */
+public class AcceptedPaths {
+
+    /** the accepted paths when not spilling */
+    private ArrayList<CompactPath> paths;
+    /** the file of the accepted paths, null when not spilling */
+    private SpillFile file;
+    /** the position of each path in the file */
+    private long[] positions;
+    /** number of accepted paths */
+    private int size;
+    /** the most recently accepted path */
+    private CompactPath last;
+
+    /**
+     * Constructor of paths kept on the heap
+     */
+    public AcceptedPaths() {
+        this(null);
+    }
+
+    /**
+     * Constructor of paths spilled to the given file
+     * @param file the file of the accepted paths, null to keep the paths on the heap
+     */
+    public AcceptedPaths(SpillFile file) {
+        this.file = file;
+        if (file == null)
+            paths = new ArrayList<CompactPath>();
+        else
+            positions = new long[16];
+    }
+
+    /**
+     * Adds the next accepted path
+     * @param path the accepted path
+     */
+    public void add(CompactPath path) {
+        if (file == null) {
+            paths.add(path);
+        }
+        else {
+            if (size == positions.length)
+                positions = Arrays.copyOf(positions, 2 * size);
+            positions[size] = file.getWritePosition();
+            path.write(file);
+        }
+
+        last = path;
+        size++;
+    }
+
+    /**
+     * Returns the ith accepted path
+     * @param i the rank of the path
+     * @return the ith accepted path
+     */
+    public CompactPath get(int i) {
+        if (i == size - 1)
+            return last;
+        if (file == null)
+            return paths.get(i);
+
+        file.setReadPosition(positions[i]);
+        return CompactPath.read(file);
+    }
+
+    /**
+     * Returns the number of accepted paths
+     * @return number of accepted paths
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the most recently accepted path
+     * @return the most recently accepted path, null if there are none
+     */
+    public CompactPath last() {
+        return last;
+    }
+
+    /**
+     * Deletes the file of the accepted paths
+     */
+    public void close() {
+        if (file != null)
+            file.close();
+    }
+}
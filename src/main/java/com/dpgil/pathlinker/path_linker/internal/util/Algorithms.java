@@ -4,17 +4,11 @@ import java.util.Comparator;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
 
-import javax.swing.JOptionPane;
-import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNode;
-import org.cytoscape.model.CyNetwork;
 
 /**
  * // -------------------------------------------------------------------------
@@ -26,36 +20,11 @@ import org.cytoscape.model.CyNetwork;
  */
 public class Algorithms
 {
-	private static final double            INFINITY = Integer.MAX_VALUE;
-	private static HashSet<CyEdge>         initialHiddenEdges;
-	private static HashSet<CyEdge>         hiddenEdges;
-	private static Map<CyEdge, Double>     _edgeWeights;
-
-
-	/**
-	 * This heuristic function gives a lower bound on the path
-	 * length to go the rest of the way to the finish from the start
-
-	 * If this function returns infinity, then the target
-	 * is necessarily unreachable, so don't expand the search along
-	 * this edge
-	 *            
-	 * @param minDists
-	 *            the map of nodes to their minimum distance from the target
-	 * @param node
-	 * 			  the node to check the distance for
-	 * @return minimum distance to target or infinity if the target is unreachable
-	 *            
-	 */
-	private static double heuristicF(
-			HashMap<CyNode, Double> minDists,
-			CyNode node)
-	{
-		if (minDists.containsKey(node))
-			return minDists.get(node);
-		else
-			return INFINITY;
-	}
+	private static final double            INFINITY = Double.POSITIVE_INFINITY;
+	// real-valued edge weights can cause the search to fail due to
+	// accumulated error summing along the path. test with a relative
+	// epsilon to catch only the 'real' errors
+	private static final double            REL_EPS  = 1E-10;
 
 
 	/**
@@ -70,6 +39,14 @@ public class Algorithms
 		public double            weight;
 		/** the map of node names in the nodeList*/
 		public Map<CyNode, String> nodeIdMap;
+		/** the rank of each node's name among all the result nodes, used for sorting */
+		public int[]             nodeOrdinals;
+		/** the maximum ratio of the weight of the path to the weight of the exact
+		 * path of the same rank, null for the paths of an exact run */
+		public Double            approximationBound;
+		/** the position of the path in the file of a SpilledPathWays it was
+		 * read from, -1 for a path kept on the heap */
+		long                     spillPosition = -1;
 
 		/**
 		 * Constructor for the path class
@@ -77,7 +54,8 @@ public class Algorithms
 		 * @param nodeList
 		 *            the list of nodes in order in the path
 		 * @param map
-		 * 			  the map of the original network, use to find names of the nodes
+		 * 			  the map of the original network, use to find names of the nodes,
+		 * 			  null to leave the names out
 		 * @param weight
 		 *            the total weight of the path
 		 */
@@ -86,6 +64,8 @@ public class Algorithms
 			this.nodeList = nodeList;
 			this.weight = weight;
 			this.nodeIdMap = new HashMap<CyNode, String>();
+			if (map == null)
+				return;
 			for (int i = 0; i < nodeList.size(); i++)
 				nodeIdMap.put(nodeList.get(i), map.get(nodeList.get(i)));
 		}
@@ -137,12 +117,22 @@ public class Algorithms
 		 * Use for sorting the path results
 		 * Sort by weight, if weight is equal then sort by the name of the nodes
 		 * if name is equal then return the path with less nodes
+		 * The names are compared through the precomputed nodeOrdinals when
+		 * both paths have them, see sortResult
 		 */
 		@Override
 		public int compareTo(PathWay o) {
 			if (Double.compare(this.weight, o.weight) != 0) return Double.compare(this.weight, o.weight);
 
 			int size = this.size() < o.size() ? this.size() : o.size();
+			if (this.nodeOrdinals != null && o.nodeOrdinals != null) {
+				for (int i = 1; i < size - 1; i++) {
+					if (this.nodeOrdinals[i] != o.nodeOrdinals[i])
+						return Integer.compare(this.nodeOrdinals[i], o.nodeOrdinals[i]);
+				}
+				return Integer.compare(this.size(), o.size());
+			}
+
 			for (int i = 1; i < size - 1; i++) {
 				String name1 = this.nodeIdMap.get(this.get(i));
 				String name2 = o.nodeIdMap.get(o.get(i));
@@ -153,8 +143,9 @@ public class Algorithms
 	}
 
 
+
 	/**
-	 * Computes the k shortest acyclic paths in the supplied network using Yen's
+	 * Computes the k shortest acyclic paths in the supplied graph using Yen's
 	 * algorithm. Assumes that this is NOT a multigraph (there is at most one
 	 * edge between any two nodes). A* is used as the pathfinding subroutine,
 	 * with the distances in the input graph as a heuristic. Because the
@@ -162,768 +153,1021 @@ public class Algorithms
 	 * and effective. If the graph contains n less than k paths, n paths will be
 	 * returned.
 	 *
-	 * @param network
-	 *            the supplied network
+	 * @param graph
+	 *            the snapshot of the supplied network
 	 * @param cyNodeToId
-     *            the map that maps CyNode object to its string name
+	 *            the map that maps CyNode object to its string name
 	 * @param source
-	 *            the source node
+	 *            the source node id, -1 if it is not in the graph
 	 * @param target
-	 *            the target node
+	 *            the target node id, -1 if it is not in the graph
 	 * @param maxK
 	 *            the number of shortest paths
 	 * @param includePathScoreTies
 	 * 			  the option to include all paths of equal length
+	 * @param maxTiedPaths
+	 *            the maximum number of paths allowed to share the weight of
+	 *            the kth path when includePathScoreTies is set
+	 * @param maxHops
+	 *            the maximum number of edges of the paths, counting the edges
+	 *            of the chains (see GraphSnapshot.hopCount), Integer.MAX_VALUE
+	 *            for no limit. The spur searches then keep track of the edges
+	 *            left to them (see HopLimitedSearch), which only the exact YEN
+	 *            engine does
+	 * @param maxWeight
+	 *            the maximum weight of the paths, INFINITY for no limit. The
+	 *            spur searches are bounded by it, and a path whose weight is
+	 *            tied with it is kept
+	 * @param epsilon
+	 *            the approximation of the spur searches of YEN, 0 for exact
+	 *            searches. The heuristic is then inflated by 1 + epsilon, so
+	 *            each spur path is at most 1 + epsilon times heavier than the
+	 *            shortest one, and so is the ith path found than the exact ith
+	 *            shortest path (see setApproximationBounds). Ignored by the
+	 *            other engines, and must be 0 when the paths have a maximum
+	 *            length
+	 * @param spillToDisk
+	 *            the option to keep only a window of the candidate paths and
+	 *            the latest accepted path on the heap, and spill the other
+	 *            paths and their prefix tree to temporary files. The paths
+	 *            found are then returned as a SpilledPathWays, read back from
+	 *            its file one path at a time, which the caller closes
+	 * @param engine
+	 *            the search run for the spur paths: BUCKET for integer
+	 *            distances over bucket queues, for graphs with integral weights
+	 *            only (see GraphSnapshot.hasIntegerWeights), RADIX for weights
+	 *            rounded to quantizationDigits over radix heaps, for graphs
+	 *            with non-negative weights only (see RadixSearch.canQuantize),
+	 *            otherwise A* on the exact weights
+	 * @param quantizationDigits
+	 *            the number of decimal digits of the weights kept by RADIX
+	 * @param targetDistances
+	 *            the distance of each node to the target for the A* heuristic
+	 *            of YEN, such as distances kept from a previous run with the
+	 *            same targets, null to compute them on demand
+	 * @param statistics
+	 *            the statistics of the run, to which the number of searches
+	 *            and of ambiguous searches are recorded
 	 * @return a list of k-shortest paths in sorted order by cost
 	 */
-	public static ArrayList<PathWay> ksp(
-			CyNetwork network,
+	public static List<PathWay> ksp(
+			GraphSnapshot graph,
 			Map<CyNode, String> cyNodeToId,
-			CyNode source,
-			CyNode target,
+			int source,
+			int target,
 			int maxK,
-			boolean includePathScoreTies)
+			boolean includePathScoreTies,
+			int maxTiedPaths,
+			int maxHops,
+			double maxWeight,
+			double epsilon,
+			boolean spillToDisk,
+			KspEngine engine,
+			int quantizationDigits,
+			TargetDistances targetDistances,
+			RunStatistics statistics)
 			{
 		// the list of shortest paths
-		ArrayList<PathWay> A = new ArrayList<PathWay>();
+		List<PathWay> result = new ArrayList<PathWay>();
 
-		// compute the original distance from the source to use for the
-		// heuristic function
-		HashMap<CyNode, Double> minDists =
-				reverseSingleSourceDijkstra(network, target);
+		if (source < 0 || target < 0)
+			return result;
 
-		// compute the initial shortest path to initialize Yen's
-		PathWay shortestPath = dijkstra(network, cyNodeToId, source, target);
+		if (maxHops != Integer.MAX_VALUE && (engine != KspEngine.YEN || epsilon > 0.))
+			throw new IllegalArgumentException("Only the exact YEN engine limits the number of edges of the paths");
 
-		// there is no path from source to target
-		if (shortestPath == null)
-			return A;
+		// compute the original distance from the source to use for the
+		// heuristic function
+		TargetDistances minDists;
+		SpurSearch search;
+		RadixSearch radixSearch = null;
+		AStarSearch aStarSearch = null;
+		if (maxHops != Integer.MAX_VALUE)
+		{
+			// the search over labels takes the exact distances as its heuristic
+			minDists = targetDistances != null ? targetDistances
+					: new TargetDistances(graph, target);
+			search = new HopLimitedSearch(graph, minDists, target);
+		}
+		else if (engine == KspEngine.BUCKET)
+		{
+			BucketSearch bucketSearch = new BucketSearch(graph, target);
+			minDists = new TargetDistances(bucketSearch.getMinDists());
+			search = bucketSearch;
+		}
+		else if (engine == KspEngine.RADIX)
+		{
+			// the paths found are weighed with the exact weights by
+			// concatenate, only the searches run on the rounded weights
+			radixSearch = new RadixSearch(graph, target, quantizationDigits);
+			minDists = new TargetDistances(radixSearch.getMinDists());
+			search = radixSearch;
+		}
+		else
+		{
+			// the distances are computed as the spur searches reach the
+			// nodes, usually leaving out the part of the graph far from
+			// the sources
+			minDists = targetDistances != null ? targetDistances
+					: new TargetDistances(graph, target);
+			aStarSearch = new AStarSearch(graph, minDists);
+			search = aStarSearch;
+		}
 
-		A.add(shortestPath);
+		// the searches are bounded by the maximum weight, with the slack of the
+		// tied weights
+		double maxSearchDist = Double.isInfinite(maxWeight) ? INFINITY
+				: maxWeight + graph.relativeEpsilon() * Math.abs(maxWeight);
 
-		// the heap, stores the potential k shortest paths
-		ArrayList<PathWay> B = new ArrayList<PathWay>();
+		// compute the initial shortest path to initialize Yen's. the heuristic
+		// is exact here, so A* goes straight to the target
+		int[] shortestEdges = shortestPath(search, source, target, maxSearchDist, maxHops);
 
-		// A cache mapping prefixes of accepted paths to the next node after
-		// the prefix. Used to avoid scanning all previous paths many times,
-		// which otherwise dominates runtime.
-		HashMap<ArrayList<CyNode>, ArrayList<CyNode>> prefixCache =
-				new HashMap<ArrayList<CyNode>, ArrayList<CyNode>>();
-		for (int i = 1; i < shortestPath.size(); i++)
+		// there is no path from source to target
+		if (shortestEdges == null)
+			return result;
+
+		// the first path is exact, the spur paths are approximate
+		if (epsilon > 0. && search == aStarSearch)
+			aStarSearch.setHeuristicWeight(1 + epsilon);
+
+		// the accepted paths, and the heap which stores the potential k
+		// shortest paths. A prefix tree of the accepted paths, giving the next
+		// nodes after each prefix. Used to avoid scanning all previous paths
+		// many times, which otherwise dominates runtime.
+		AcceptedPaths A;
+		CandidatePaths B;
+		PrefixTree prefixes;
+		if (spillToDisk)
 		{
-			ArrayList<CyNode> subPath =
-					new ArrayList<CyNode>(shortestPath.nodeList.subList(0, i));
-			CyNode node = shortestPath.get(i);
-
-			if (prefixCache.containsKey(subPath))
-			{
-				prefixCache.get(subPath).add(node);
-			}
-			else
-			{
-				prefixCache
-				.put(subPath, new ArrayList<CyNode>(Arrays.asList(node)));
-			}
+			A = new AcceptedPaths(new SpillFile("pathlinker-accepted"));
+			B = new CandidatePaths(new SpillFile("pathlinker-candidates"),
+					CandidatePaths.DEFAULT_HOT_WINDOW);
+			prefixes = new PrefixTree(new SpillFile("pathlinker-prefixes"));
 		}
-
-		// continue the loop if includePathScoreTies is true even if k is greater or equal to than maxK
-		for (int k = 1; k < maxK || includePathScoreTies; k++)
+		else
 		{
-			// previously computed shortest path
-			PathWay latestPath = A.get(A.size() - 1);
+			A = new AcceptedPaths();
+			B = new CandidatePaths();
+			prefixes = new PrefixTree();
+		}
 
-			// process each node of the most recently found path, computing the
-			// shortest path that deviates at that node and adding it to the
-			// candidate heap
-			for (int i = 0; i < latestPath.size() - 1; i++)
+		try
+		{
+			int[] rootNodes = { source };
+			CompactPath shortestPath = concatenate(graph, rootNodes, 0., shortestEdges);
+			if (isHeavier(graph, shortestPath.weight, maxWeight))
+				return result;
+			A.add(shortestPath);
+			prefixes.add(shortestPath.nodes);
+
+			for (int k = 1; k < maxK; k++)
 			{
-				CyNode nodeSpur = latestPath.get(i);
-				List<CyNode> pathRoot = latestPath.nodeList.subList(0, i + 1);
-
-				// hide edges incoming to x until iteration k is over to avoid
-				// finding cycles. note that this effect is cumulative, meaning
-				// that while processing the current node in the path, all
-				// incoming edges to this node and all previous nodes have
-				// been hidden
-				List<CyEdge> inEdges =
-						network.getAdjacentEdgeList(nodeSpur, CyEdge.Type.INCOMING);
-				for (CyEdge inEdge : inEdges)
-				{
-					hiddenEdges.add(inEdge);
-				}
-
-				// for each previously-found shortest path P_j with the same
-				// first i nodes as the first i nodes of prevPath, hide the
-				// edge from x to the i+1 node in P_j to ensure we don't
-				// re-find a previously found path. Lookup the prefixes in a
-				// cache to disallow them. Requires more memory to store the
-				// cache, but saves scanning the list of found paths
-				for (CyNode repNode : prefixCache
-						.get(latestPath.nodeList.subList(0, i + 1)))
-				{
-					CyEdge repEdge = getEdge(network, nodeSpur, repNode);
-
-					if (repEdge != null)
-					{
-						hiddenEdges.add(repEdge);
-					}
-				}
-
-				// find the shortest path using A*
-				PathWay pathSpur =
-						shortestPathAStar(network, cyNodeToId, nodeSpur, target, minDists);
+				addSpurPaths(graph, search, target, minDists, prefixes,
+						A.last(), B, maxWeight, maxHops);
 
-				// short circuit if the target node was unreachable, which is
-				// expected to happen as we remove edges
-				if (pathSpur != null)
-				{
-					// concatenates prevPath[:i+1] and the shortest path from
-					// nodeSpur to the target, and add this path to candidates
-					ArrayList<CyNode> pathTotal = new ArrayList<CyNode>(
-							pathRoot.subList(0, pathRoot.size() - 1));
-					pathTotal.addAll(pathSpur.nodeList);
+				// accepts the next shortest path on the candidates heap, which
+				// is necessarily the next shortest path
+				CompactPath newShortest = B.poll();
 
-					double distTotal = computePathDist(network, pathTotal);
-					PathWay potentialK = new PathWay(pathTotal, cyNodeToId, distTotal);
+				// terminates early if there are no more paths found from the
+				// source to the target, or only heavier ones than the maximum
+				if (newShortest == null || isHeavier(graph, newShortest.weight, maxWeight))
+					break;
 
-					if (!B.contains(potentialK))
-					{
-						B.add(potentialK);
-					}
-				}
+				prefixes.add(newShortest.nodes);
+				A.add(newShortest);
 			}
 
-			resetHiddenEdges();
+			// only look for ties once all k paths were found, otherwise there
+			// are no more paths to find
+			if (includePathScoreTies && A.size() >= maxK)
+				addTiedPaths(graph, search, target, minDists, prefixes,
+						A, B, maxTiedPaths, maxHops);
 
-			if (B.size() > 0)
+			// the spilled paths are written out with their nodes for the caller
+			// to read them back one at a time
+			if (spillToDisk)
 			{
-				// sorts the candidate paths by their weight
-				Collections.sort(B, new Comparator<PathWay>() {
-
-					@Override
-					public int compare(PathWay path1, PathWay path2)
+				SpilledPathWays spilled = new SpilledPathWays(cyNodeToId);
+				try
+				{
+					for (int i = 0; i < A.size(); i++)
 					{
-						return Double.compare(path1.weight, path2.weight);
+						CompactPath path = A.get(i);
+						spilled.append(toNodeList(graph, path), path.weight);
 					}
-
-				});
-
-				// accepts the next shortest path on the candidates heap, which
-				// is necessarily the next shortest path
-				PathWay newShortest = B.remove(0);
-
-				// adds this to the list of prefixes for efficient lookup later
-				for (int i = 1; i < newShortest.size(); i++)
+				}
+				catch (RuntimeException e)
 				{
-					CyNode currNode = newShortest.get(i);
-					ArrayList<CyNode> subPath = new ArrayList<CyNode>(
-							newShortest.nodeList.subList(0, i));
-
-					if (!prefixCache.containsKey(subPath))
-						prefixCache.put(subPath, new ArrayList<CyNode>());
-
-					ArrayList<CyNode> cachedPath = prefixCache.get(subPath);
-					if (!cachedPath.contains(currNode))
-						cachedPath.add(currNode);
+					spilled.close();
+					throw e;
 				}
-
-				// If the ties stops then break the loop, don't add the newShortest
-				if (k >= maxK && A.size() > 2 && A.get(A.size() - 1).weight != newShortest.weight)
-					break;
-
-				// adds the next shortest path to the accepted list of paths
-				A.add(newShortest);
+				result = spilled;
 			}
 			else
 			{
-				// terminates early if there are no more paths found from the
-				// source to the target
-				break;
+				for (int i = 0; i < A.size(); i++)
+					result.add(toPathWay(graph, A.get(i), cyNodeToId));
 			}
 		}
-
-		return A;
-			}
-
-
-	/**
-	 * Used to store data about a node while performing A*
-	 */
-	private static class AStarData
-	{
-		public double heurDist;
-		public CyNode node;
-		public double actDist;
-
-
-		public AStarData(double heurDist, CyNode node, double actDist)
+		finally
 		{
-			this.heurDist = heurDist;
-			this.node = node;
-			this.actDist = actDist;
+			A.close();
+			B.close();
+			prefixes.close();
+
+			statistics.setSpurSearchCount(search.getSearchCount());
+			statistics.setHeuristicNodeCount(minDists.getSettledCount());
+			if (radixSearch != null)
+				statistics.setAmbiguousSearchCount(radixSearch.getAmbiguousSearchCount());
 		}
-	}
 
-
-	/**
-	 * "Resets" hidden edges, by changing hiddenEdges state to what it was
-	 * initialized to
-	 */
-	private static void resetHiddenEdges()
-	{
-		hiddenEdges.clear();
-		hiddenEdges.addAll(initialHiddenEdges);
-	}
+		return result;
+			}
 
 
 	/**
-	 * An implementation of the A* algorithm. Computes exact shortest paths in
-	 * the network, utilizing the fact that the heuristic function is monotonic
+	 * Computes the k shortest paths of a directed acyclic graph. As every path
+	 * of the graph is simple, the paths are enumerated best-first from the
+	 * source without any of the spur searches of Yen's algorithm: each partial
+	 * path is keyed by its weight plus the distance of its last node to the
+	 * target, computed by dynamic programming over the topological order, so the
+	 * complete paths come out in order of weight. Gives the same paths as ksp,
+	 * with the same weights, including the paths tied with the kth path when
+	 * includePathScoreTies is set. Which of the tied paths ksp keeps when the kth
+	 * rank, or maxTiedPaths, cuts through a group of tied paths depends on the
+	 * order of its spur searches, so the paths are only returned when no group
+	 * of tied paths is cut
 	 *
-	 * @param network
-	 *            the supplied network
+	 * @param graph
+	 *            the snapshot of the supplied network, which must be acyclic
 	 * @param cyNodeToId
-     *            the map that maps CyNode object to its string name
+	 *            the map that maps CyNode object to its string name
+	 * @param order
+	 *            the node ids of the graph in topological order
 	 * @param source
-	 *            the source node
+	 *            the source node id, -1 if it is not in the graph
 	 * @param target
-	 *            the target node
-	 * @param minDists
-	 *            the map of nodes to their minimum distance from the target
-	 * @return a path from source to target and its weight
+	 *            the target node id, -1 if it is not in the graph
+	 * @param maxK
+	 *            the number of shortest paths
+	 * @param includePathScoreTies
+	 * 			  the option to include all paths of equal length
+	 * @param maxTiedPaths
+	 *            the maximum number of paths allowed to share the weight of
+	 *            the kth path when includePathScoreTies is set
+	 * @param maxHops
+	 *            the maximum number of edges of the paths, counting the edges
+	 *            of the chains, Integer.MAX_VALUE for no limit
+	 * @param maxWeight
+	 *            the maximum weight of the paths, INFINITY for no limit
+	 * @return a list of k-shortest paths in sorted order by cost, null if the
+	 *         last path kept is tied with the next one, for ksp to compute them
 	 */
-	public static PathWay shortestPathAStar(
-			CyNetwork network,
+	public static ArrayList<PathWay> dagKsp(
+			GraphSnapshot graph,
 			Map<CyNode, String> cyNodeToId,
-			CyNode source,
-			CyNode target,
-			final HashMap<CyNode, Double> minDists)
+			int[] order,
+			int source,
+			int target,
+			int maxK,
+			boolean includePathScoreTies,
+			int maxTiedPaths,
+			int maxHops,
+			double maxWeight)
 	{
-		PathWay currPath = new PathWay(new ArrayList<CyNode>(), null, 0.);
-
-		// if source==target:
-		// return ({source:0}, {source:[source]})
-		if (source.equals(target))
+		ArrayList<PathWay> result = new ArrayList<PathWay>();
+
+		if (source < 0 || target < 0 || maxK < 1)
+			return result;
+
+		// the relative tolerance of tied weights
+		double relEps = graph.relativeEpsilon();
+
+		// the distance of each node to the target, exact on a DAG even with
+		// negative weights
+		double[] minDists = new double[graph.nodeCount()];
+		Arrays.fill(minDists, INFINITY);
+		minDists[target] = 0.;
+		// and the least number of edges, as a partial path that can't reach
+		// the target within the limit is of no use
+		int[] minHops = new int[graph.nodeCount()];
+		Arrays.fill(minHops, Integer.MAX_VALUE);
+		minHops[target] = 0;
+		for (int i = order.length - 1; i >= 0; i--)
 		{
-			return currPath;
+			int v = order[i];
+			for (int e = graph.outBegin(v); e < graph.outEnd(v); e++)
+			{
+				int next = graph.target(e);
+				if (!graph.isHidden(e) && next != v)
+				{
+					minDists[v] = Math.min(minDists[v], graph.weight(e) + minDists[next]);
+					if (minHops[next] != Integer.MAX_VALUE)
+						minHops[v] = Math.min(minHops[v], graph.hopCount(e) + minHops[next]);
+				}
+			}
 		}
 
-		// dictionary of final distances
-		HashMap<CyNode, Double> distances = new HashMap<CyNode, Double>();
-		// dictionary of paths
-		HashMap<CyNode, CyNode> preds = new HashMap<CyNode, CyNode>();
-		// map of seen nodes and their distancess
-		HashMap<CyNode, Double> seen = new HashMap<CyNode, Double>();
-		seen.put(source, 0.);
-
-		// heap of nodes on the border to process, keyed by heuristic distance
-		PriorityQueue<AStarData> fringe =
-				new PriorityQueue<AStarData>(10, new Comparator<AStarData>() {
-					@Override
-					public int compare(AStarData data1, AStarData data2)
-					{
-						return Double.compare(data1.heurDist, data2.heurDist);
-					}
-
-				});
+		// the partial paths are bounded by the maximum weight, with the slack
+		// of the keys
+		double maxKey = Double.isInfinite(maxWeight) ? INFINITY
+				: maxWeight + 2 * relEps * Math.abs(maxWeight);
+		if (Double.isInfinite(minDists[source]) || minDists[source] > maxKey
+				|| minHops[source] > maxHops)
+			return result;
+
+		// the partial paths, each one being its parent extended by one edge,
+		// with their number of edges
+		int[] entryNodes = new int[16];
+		int[] entryParents = new int[16];
+		int[] entryHops = new int[16];
+		int entryCount = 1;
+		entryNodes[0] = source;
+		entryParents[0] = -1;
+
+		NodeHeap fringe = new NodeHeap();
+		fringe.push(minDists[source], 0, 0.);
+
+		// the complete paths in the order they come out
+		ArrayList<CompactPath> paths = new ArrayList<CompactPath>();
+		// the weight of the kth path once it is found. the paths tied with it are
+		// looked for even without includePathScoreTies, up to one more than can be
+		// kept, to tell if the last path kept is tied with the next one
+		double kthWeight = INFINITY;
+		int tiedPaths = 0;
+		int maxTied = includePathScoreTies ? maxTiedPaths : 1;
+
+		while (!fringe.isEmpty())
+		{
+			double key = fringe.topKey();
+			int entry = fringe.topNode();
+			double dist = fringe.topDist();
 
-		fringe.add(new AStarData(heuristicF(minDists, source), source, 0));
+			// once k paths are found, the tied paths are the only ones left to
+			// look for. the slack covers the rounding of the keys
+			if (paths.size() >= maxK)
+			{
+				if (key > kthWeight + 2 * relEps * Math.abs(kthWeight)
+						|| tiedPaths > maxTied)
+					break;
+			}
+			fringe.pop();
 
-		// real-valued edge weights can cause the search to fail due to
-		// accumulated error summing along the path. test with a relative
-		// epsilon to catch only the 'real' errors
-		final double REL_EPS = 1E-10;
+			int v = entryNodes[entry];
+			if (v == target)
+			{
+				if (isHeavier(graph, dist, maxWeight))
+					continue;
 
-		// iteratively search the graph outward until we've processed all nodes
-		while (fringe.size() > 0)
-		{
-			AStarData currData = fringe.poll();
-			CyNode currNode = currData.node;
-
-			// if we've already processed this node, don't re-process it. this
-			// happens beecause when we see a better path to an already seen
-			// node, it's cheaper to leave it in the heap and deal with it here
-			// than to remove it
-			if (distances.containsKey(currNode))
+				paths.add(toCompactPath(entryNodes, entryParents, entry, dist));
+				if (paths.size() == maxK)
+					kthWeight = dist;
+				if (paths.size() >= maxK && isTied(dist, kthWeight, relEps))
+					tiedPaths++;
 				continue;
+			}
 
-			// process this node, this is necessarily the best possible path
-			// to it
-			distances.put(currNode, currData.actDist);
+			for (int e = graph.outBegin(v); e < graph.outEnd(v); e++)
+			{
+				int next = graph.target(e);
+				if (graph.isHidden(e) || next == v || Double.isInfinite(minDists[next]))
+					continue;
 
-			// check for a solution
-			if (currNode.equals(target))
-				break;
+				int nextHops = entryHops[entry] + graph.hopCount(e);
+				double nextDist = graph.addWeight(dist, e);
+				if (minHops[next] > maxHops - nextHops || nextDist + minDists[next] > maxKey)
+					continue;
 
-			// examine all neighbors to this node and consider adding them to
-			// the fringe
-			List<CyEdge> neighbors =
-					network.getAdjacentEdgeList(currNode, CyEdge.Type.OUTGOING);
-			for (CyEdge nextEdge : neighbors)
-			{
-				// doesn't consider edges that are hidden. uses this structure
-				// of hiding edges because manipulating the graph completely
-				// dominates runtime in cytoscape
-				if (hiddenEdges.contains(nextEdge))
+				if (entryCount == entryNodes.length)
 				{
-					continue;
+					entryNodes = Arrays.copyOf(entryNodes, 2 * entryCount);
+					entryParents = Arrays.copyOf(entryParents, 2 * entryCount);
+					entryHops = Arrays.copyOf(entryHops, 2 * entryCount);
 				}
+				entryNodes[entryCount] = next;
+				entryParents[entryCount] = entry;
+				entryHops[entryCount] = nextHops;
 
-				CyNode nextNode = nextEdge.getTarget();
+				fringe.push(nextDist + minDists[next], entryCount++, nextDist);
+			}
+		}
 
-				// the actual distance to the node from the source
-				double nextActDist =
-						currData.actDist + getWeight(network, nextEdge);
+		// the keys are rounded differently than the path weights, so the
+		// paths are put back in order of weight before taking the first k
+		Collections.sort(paths, new Comparator<CompactPath>() {
+			@Override
+			public int compare(CompactPath path1, CompactPath path2)
+			{
+				return Double.compare(path1.weight, path2.weight);
+			}
+		});
 
-				// the heuristic function gives a lower bound on the path
-				// length to go the rest of the way to the finish from the start
-				double nextHeurDist =
-						nextActDist + heuristicF(minDists, nextNode);
+		int size = Math.min(maxK, paths.size());
+		if (includePathScoreTies && paths.size() >= maxK)
+		{
+			double tieWeight = paths.get(maxK - 1).weight;
 
-				// if the heuristic function returns infinity, then the target
-				// is necessarily unreachable, so don't expand the search along
-				// this edge
-				if (isInf(heuristicF(minDists, nextNode)))
-					continue;
+			// the number of paths already accepted with the tie weight
+			int tied = 0;
+			for (int i = maxK - 1; i >= 0 && isTied(paths.get(i).weight, tieWeight, relEps); i--)
+				tied++;
 
-				// if we've already processed the neighbor, then this can't
-				// possibly be a better path, assuming the problem is
-				// well-formed
-				if (distances.containsKey(nextNode))
-				{
-					// verify that the graph and heuristic don't break the
-					// search property
-					if ((nextActDist * (1 + REL_EPS)) < distances.get(nextNode))
-					{
-						JOptionPane.showMessageDialog(
-								null,
-								"Contradictory search path. Bad heuristic? Negative weights?");
-						return null;
-					}
-				}
-				// if this node hasn't already been processed, we need to
-				// consider adding it to the heap. if it's not already in the
-				// heap, we should only add it if this path to it is an
-				// improvement over the previous path. for performance, we leave
-				// the old entry in the heap in that case and skip it when it
-				// pops out
-				else if (!seen.containsKey(nextNode)
-						|| nextActDist < seen.get(nextNode))
-				{
-					seen.put(nextNode, nextActDist);
-					fringe.add(
-							new AStarData(nextHeurDist, nextNode, nextActDist));
-					preds.put(nextNode, currNode);
-				}
+			while (size < paths.size() && tied < maxTiedPaths
+					&& isTied(paths.get(size).weight, tieWeight, relEps))
+			{
+				size++;
+				tied++;
 			}
 		}
 
-		// builds the path and returns it
-		ArrayList<CyNode> nodeList = constructNodeList(preds, source, target);
-		if (nodeList == null)
+		// the paths kept out of a group of tied paths depend on the order they
+		// are found in
+		if (size > 0 && size < paths.size()
+				&& isTied(paths.get(size).weight, paths.get(size - 1).weight, relEps))
 			return null;
 
-		return new PathWay(nodeList, cyNodeToId, distances.get(target));
+		for (int i = 0; i < size; i++)
+			result.add(toPathWay(graph, paths.get(i), cyNodeToId));
+
+		return result;
 	}
 
 
 	/**
-	 * Computes the shortest distance from a source to every node in the graph
+	 * Builds the path of a partial path entry of dagKsp by following its parents
+	 */
+	private static CompactPath toCompactPath(
+			int[] entryNodes,
+			int[] entryParents,
+			int entry,
+			double weight)
+	{
+		int length = 0;
+		for (int i = entry; i >= 0; i = entryParents[i])
+			length++;
+
+		int[] nodes = new int[length];
+		for (int i = entry; i >= 0; i = entryParents[i])
+			nodes[--length] = entryNodes[i];
+
+		return new CompactPath(nodes, weight);
+	}
+
+
+	/**
+	 * Tie completion phase of ksp. Keeps accepting paths whose weight is tied
+	 * with the weight of the kth path. Yen's iterations continue as normal,
+	 * except that the spur searches are bounded by the tie weight, so any
+	 * spur path that cannot produce a tied path is never searched, and the
+	 * phase stops as soon as the next candidate is strictly heavier
 	 *
-	 * @param network
-	 *            the supplied network
-	 * @param source
-	 *            the source
-	 * @return a map of nodes and their distances from the source
+	 * @param graph
+	 *            the snapshot of the supplied network
+	 * @param search
+	 *            the search of the spur paths
+	 * @param target
+	 *            the target node id
+	 * @param minDists
+	 *            the minimum distance of each node to the target
+	 * @param prefixes
+	 *            the prefixes of the accepted paths
+	 * @param A
+	 *            the accepted paths, the kth path is the last one
+	 * @param B
+	 *            the candidate paths
+	 * @param maxTiedPaths
+	 *            the maximum number of paths allowed to share the tie weight
+	 * @param maxHops
+	 *            the maximum number of edges of the paths, Integer.MAX_VALUE
+	 *            for no limit
 	 */
-	public static HashMap<CyNode, Double> reverseSingleSourceDijkstra(
-			CyNetwork network,
-			CyNode source)
-			{
-		final HashMap<CyNode, Double> distances = new HashMap<CyNode, Double>();
-		HashMap<CyNode, CyNode> previous = new HashMap<CyNode, CyNode>();
-		PriorityQueue<CyNode> pq =
-				new PriorityQueue<CyNode>(10, new Comparator<CyNode>() {
-					@Override
-					public int compare(CyNode o1, CyNode o2)
-					{
-						return Double.compare(distances.get(o1), distances.get(o2));
-					}
-				});
+	private static void addTiedPaths(
+			GraphSnapshot graph,
+			SpurSearch search,
+			int target,
+			TargetDistances minDists,
+			PrefixTree prefixes,
+			AcceptedPaths A,
+			CandidatePaths B,
+			int maxTiedPaths,
+			int maxHops)
+	{
+		double tieWeight = A.last().weight;
 
-		// intializes distances
-		for (CyNode v : network.getNodeList())
-		{
-			distances.put(v, INFINITY);
-			previous.put(v, null);
-		}
-		distances.put(source, 0.);
-		pq.add(source);
+		// the number of paths already accepted with the tie weight
+		int tiedPaths = 0;
+		for (int i = A.size() - 1; i >= 0 && isTied(A.get(i).weight, tieWeight, graph.relativeEpsilon()); i--)
+			tiedPaths++;
 
-		while (!pq.isEmpty())
+		while (tiedPaths < maxTiedPaths)
 		{
-			CyNode current = pq.poll();
+			addSpurPaths(graph, search, target, minDists, prefixes,
+					A.last(), B, tieWeight, maxHops);
 
-			// goes through incoming neighbors because we are finding the paths
-			// that lead to the target. however, we don't want to reverse the
-			// network and call a normal SSD because manipulating the network
-			// dominates runtime in Cytoscape
-			for (CyEdge neighborEdge : network
-					.getAdjacentEdgeList(current, CyEdge.Type.INCOMING))
-			{
-				CyNode neighbor = neighborEdge.getSource();
-
-				double newCost =
-						distances.get(current) + getWeight(network, neighborEdge);
+			CompactPath newShortest = B.peek();
 
-				if (newCost < distances.get(neighbor))
-				{
-					distances.put(neighbor, newCost);
-					previous.put(neighbor, current);
+			// If the ties stops then break the loop, don't add the newShortest
+			if (newShortest == null || !isTied(newShortest.weight, tieWeight, graph.relativeEpsilon()))
+				break;
 
-					// re-add to priority queue
-					pq.remove(neighbor);
-					pq.add(neighbor);
-				}
-			}
+			B.poll();
+			prefixes.add(newShortest.nodes);
+			A.add(newShortest);
+			tiedPaths++;
 		}
-
-		return distances;
-			}
+	}
 
 
 	/**
-	 * Computes the shortest distance from a source to every node in the graph
+	 * Computes the spur paths deviating from the most recently accepted path
+	 * and adds them to the candidate paths. Spur searches that cannot find a
+	 * path no heavier than the given bound are skipped
 	 *
-	 * @param network
-	 *            the supplied network
-	 * @param source
-	 *            the source
-	 * @return a map of nodes and their distances from the source
+	 * @param graph
+	 *            the snapshot of the supplied network
+	 * @param search
+	 *            the search of the spur paths
+	 * @param target
+	 *            the target node id
+	 * @param minDists
+	 *            the minimum distance of each node to the target
+	 * @param prefixes
+	 *            the prefixes of the accepted paths
+	 * @param latestPath
+	 *            the most recently accepted path
+	 * @param B
+	 *            the candidate paths
+	 * @param bound
+	 *            the maximum weight of the candidates to look for, INFINITY
+	 *            for no bound
+	 * @param maxHops
+	 *            the maximum number of edges of the candidates, Integer.MAX_VALUE
+	 *            for no limit
 	 */
-	public static HashMap<CyNode, Double> singleSourceDijkstra(
-			CyNetwork network,
-			CyNode source)
-			{
-		HashMap<CyNode, Double> distances = new HashMap<CyNode, Double>();
-		HashMap<CyNode, CyNode> previous = new HashMap<CyNode, CyNode>();
-		ArrayList<CyNode> pq = new ArrayList<CyNode>();
-
-		// intializes distances
-		for (CyNode v : network.getNodeList())
+	private static void addSpurPaths(
+			GraphSnapshot graph,
+			SpurSearch search,
+			int target,
+			TargetDistances minDists,
+			PrefixTree prefixes,
+			CompactPath latestPath,
+			CandidatePaths B,
+			double bound,
+			int maxHops)
+	{
+		boolean bounded = !Double.isInfinite(bound);
+		int[] nodes = latestPath.nodes;
+
+		// the weight of the root path up to each spur node, summed in order
+		// so the candidate weights are exactly the sums along their paths
+		double[] rootDists = new double[nodes.length];
+		// the number of edges of the root path, which the spur path can't
+		// take past the limit
+		int[] rootHops = new int[nodes.length];
+		for (int i = 1; i < nodes.length; i++)
 		{
-			distances.put(v, INFINITY);
-			previous.put(v, null);
+			int edge = graph.findEdge(nodes[i - 1], nodes[i]);
+			rootDists[i] = graph.addWeight(rootDists[i - 1], edge);
+			rootHops[i] = rootHops[i - 1] + graph.hopCount(edge);
 		}
-		distances.put(source, 0.);
-		pq.add(source);
 
-		while (!pq.isEmpty())
+		// the prefix of the latest path ending at the spur node
+		int prefix = PrefixTree.ROOT;
+
+		// process each node of the most recently found path, computing the
+		// shortest path that deviates at that node and adding it to the
+		// candidate heap
+		for (int i = 0; i < nodes.length - 1; i++)
 		{
-			CyNode current = pq.remove(0);
+			int nodeSpur = nodes[i];
+			prefix = prefixes.child(prefix, nodeSpur);
+
+			// remove the nodes of the root path until iteration k is over to
+			// avoid finding cycles. this is the same as hiding their incoming
+			// edges. note that this effect is cumulative, meaning that while
+			// processing the current node in the path, this node and all
+			// previous nodes have been removed
+			search.block(nodeSpur);
+
+			// the heuristic is a lower bound on the rest of the path, so a
+			// spur path deviating here can't be any lighter than this
+			double maxSpurDist = INFINITY;
+			if (bounded)
+			{
+				maxSpurDist = bound - rootDists[i] + graph.relativeEpsilon() * Math.abs(bound);
+				if (minDists.exceeds(nodeSpur, 0., maxSpurDist))
+					continue;
+			}
 
-			// goes through the neighbors
-			for (CyEdge neighborEdge : network
-					.getAdjacentEdgeList(current, CyEdge.Type.OUTGOING))
+			// for each previously-found shortest path P_j with the same
+			// first i nodes as the first i nodes of prevPath, hide the
+			// edge from x to the i+1 node in P_j to ensure we don't
+			// re-find a previously found path. The next nodes are looked up
+			// in the prefix tree instead of scanning the list of found paths
+			for (int child = prefixes.firstChild(prefix); child != PrefixTree.NONE;
+					child = prefixes.nextSibling(child))
 			{
-				CyNode neighbor = neighborEdge.getTarget();
+				int repEdge = graph.findEdge(nodeSpur, prefixes.label(child));
 
-				double newCost =
-						distances.get(current) + getWeight(network, neighborEdge);
+				if (repEdge >= 0)
+					search.hide(repEdge);
+			}
 
-				if (newCost < distances.get(neighbor))
-				{
-					distances.put(neighbor, newCost);
-					previous.put(neighbor, current);
+			// find the shortest path using A*
+			int[] pathSpur = shortestPath(search, nodeSpur, target, maxSpurDist,
+					maxHops == Integer.MAX_VALUE ? maxHops : maxHops - rootHops[i]);
 
-					// add to priority queue
-					pq.remove(neighbor);
-					for (int i = 0; i < pq.size(); i++)
-					{
-						if (distances.get(neighbor) < distances.get(pq.get(i)))
-						{
-							pq.add(i, neighbor);
-							break;
-						}
-					}
-					if (!pq.contains(neighbor))
-						pq.add(neighbor);
-				}
+			// short circuit if the target node was unreachable, which is
+			// expected to happen as we remove edges
+			if (pathSpur != null)
+			{
+				// concatenates prevPath[:i+1] and the shortest path from
+				// nodeSpur to the target, and add this path to candidates
+				B.add(concatenate(graph, Arrays.copyOf(nodes, i + 1), rootDists[i], pathSpur));
 			}
 		}
 
-		return distances;
-			}
+		search.reset();
+	}
 
 
 	/**
-	 * Computes the shortest path from a source to a sink in the supplied
-	 * network
+	 * Concatenates a root path and the edges of a spur path starting at its
+	 * last node
 	 *
-	 * @param network
-	 *            the network
-	 * @param cyNodeToId
-     *            the map that maps CyNode object to its string name
-	 * @param source
-	 *            the source node of the graph
-	 * @param target
-	 *            the target node of the graph
-	 * @return the path from source to target
+	 * @param graph
+	 *            the snapshot of the supplied network
+	 * @param rootNodes
+	 *            the node ids in order in the root path
+	 * @param rootDist
+	 *            the weight of the root path
+	 * @param spurEdges
+	 *            the edge ids in order in the spur path
+	 * @return the path and its total weight, summed along the path in order
 	 */
-	public static PathWay dijkstra(CyNetwork network, Map<CyNode, String> cyNodeToId, CyNode source, CyNode target)
+	private static CompactPath concatenate(
+			GraphSnapshot graph,
+			int[] rootNodes,
+			double rootDist,
+			int[] spurEdges)
 	{
-		final HashMap<CyNode, Double> distances = new HashMap<CyNode, Double>();
-		HashMap<CyNode, CyNode> previous = new HashMap<CyNode, CyNode>();
-		PriorityQueue<CyNode> pq =
-				new PriorityQueue<CyNode>(10, new Comparator<CyNode>() {
-					@Override
-					public int compare(CyNode o1, CyNode o2)
-					{
-						return Double.compare(distances.get(o1), distances.get(o2));
-					}
-				});
-
-		// intializes distances
-		for (CyNode v : network.getNodeList())
+		int[] nodes = Arrays.copyOf(rootNodes, rootNodes.length + spurEdges.length);
+		double dist = rootDist;
+		for (int i = 0; i < spurEdges.length; i++)
 		{
-			distances.put(v, INFINITY);
-			previous.put(v, null);
+			nodes[rootNodes.length + i] = graph.target(spurEdges[i]);
+			dist = graph.addWeight(dist, spurEdges[i]);
 		}
-		distances.put(source, 0.);
-		pq.add(source);
 
-		while (!pq.isEmpty())
-		{
-			CyNode current = pq.poll();
+		return new CompactPath(nodes, dist);
+	}
 
-			// short circuit
-			if (current.equals(target))
-			{
-				// return path reconstructed
-				break;
-			}
 
-			// goes through the neighbors
-			for (CyEdge neighborEdge : network
-					.getAdjacentEdgeList(current, CyEdge.Type.OUTGOING))
-			{
-				CyNode neighbor = neighborEdge.getTarget();
+	/**
+	 * Runs a spur search, limited to maxHops edges if there is a limit, in which
+	 * case ksp made the search a HopLimitedSearch
+	 *
+	 * @param search
+	 *            the spur search
+	 * @param source
+	 *            the source node id
+	 * @param target
+	 *            the target node id
+	 * @param maxDist
+	 *            the maximum weight of the path, infinity for no bound
+	 * @param maxHops
+	 *            the maximum number of edges of the path, Integer.MAX_VALUE for
+	 *            no limit
+	 * @return the edge ids in order in the path, null if there is no path
+	 *         within maxDist and maxHops
+	 */
+	private static int[] shortestPath(
+			SpurSearch search,
+			int source,
+			int target,
+			double maxDist,
+			int maxHops)
+	{
+		if (maxHops == Integer.MAX_VALUE)
+			return search.shortestPath(source, target, maxDist);
 
-				double newCost =
-						distances.get(current) + getWeight(network, neighborEdge);
+		return ((HopLimitedSearch)search).shortestPath(source, target, maxDist, maxHops);
+	}
 
-				if (newCost < distances.get(neighbor))
-				{
-					distances.put(neighbor, newCost);
-					previous.put(neighbor, current);
 
-					// add to priority queue
-					pq.remove(neighbor);
-					pq.add(neighbor);
-				}
-			}
-		}
+	/**
+	 * Converts a CompactPath to a PathWay, expanding the edges that stand for
+	 * chains of the original graph
+	 *
+	 * @param graph
+	 *            the snapshot the node ids refer to
+	 * @param path
+	 *            the compact path
+	 * @param cyNodeToId
+	 *            the map that maps CyNode object to its string name
+	 * @return the path with each id replaced by its node
+	 */
+	private static PathWay toPathWay(
+			GraphSnapshot graph,
+			CompactPath path,
+			Map<CyNode, String> cyNodeToId)
+	{
+		return new PathWay(toNodeList(graph, path), cyNodeToId, path.weight);
+	}
+
 
-		if (isInf(distances.get(target)))
+	/**
+	 * Returns the nodes of a CompactPath in order, expanding the edges that
+	 * stand for chains of the original graph
+	 *
+	 * @param graph
+	 *            the snapshot the node ids refer to
+	 * @param path
+	 *            the compact path
+	 * @return the node of each id of the path, and of each chain in between
+	 */
+	private static ArrayList<CyNode> toNodeList(GraphSnapshot graph, CompactPath path)
+	{
+		ArrayList<CyNode> nodeList = new ArrayList<CyNode>(path.nodes.length);
+		for (int i = 0; i < path.nodes.length; i++)
 		{
-			// unreachable node
-			return null;
+			if (i > 0 && graph.hasChains())
+			{
+				int edge = graph.findEdge(path.nodes[i - 1], path.nodes[i]);
+				for (int j = 0; j < graph.chainLength(edge); j++)
+					nodeList.add(graph.chainNode(edge, j));
+			}
+			nodeList.add(graph.node(path.nodes[i]));
 		}
 
-		// return constructed path
-		ArrayList<CyNode> nodeList =
-				constructNodeList(previous, source, target);
-		if (nodeList == null)
-			return null;
-
-		return new PathWay(nodeList, cyNodeToId, distances.get(target));
+		return nodeList;
 	}
 
 
 	/**
-	 * Initializes our local copy of the edge weights
+	 * Returns if two path weights are equal up to a relative epsilon. The
+	 * weights are sums of real-valued edge weights, so testing them for exact
+	 * equality would break ties on accumulated rounding errors
 	 *
-	 * @param weights
-	 *            a map of the edge to its value
+	 * @param weight1
+	 *            the weight of the first path
+	 * @param weight2
+	 *            the weight of the second path
+	 * @return true if the weights are tied, false otherwise
 	 */
-	public static void setEdgeWeights(Map<CyEdge, Double> weights)
+	public static boolean isTied(double weight1, double weight2)
 	{
-		_edgeWeights = weights;
+		return isTied(weight1, weight2, REL_EPS);
 	}
 
-
 	/**
-	 * Returns the weight of an edge in the network
+	 * Returns if two path weights are equal up to a given relative epsilon,
+	 * such as the larger one of a snapshot with single precision weights (see
+	 * GraphSnapshot.relativeEpsilon)
 	 *
-	 * @param network
-	 *            the supplied network
-	 * @param edge
-	 *            the edge to find the weight of
-	 * @return double the weight of the edge. returns a very noticeable and
-	 *         obscure number if the weight is not in the network
+	 * @param weight1
+	 *            the weight of the first path
+	 * @param weight2
+	 *            the weight of the second path
+	 * @param relEps
+	 *            the relative epsilon
+	 * @return true if the weights are tied, false otherwise
 	 */
-	public static double getWeight(CyNetwork network, CyEdge edge)
+	public static boolean isTied(double weight1, double weight2, double relEps)
 	{
-		if (!_edgeWeights.containsKey(edge))
-			return -44444;
-
-		return _edgeWeights.get(edge);
+		return Math.abs(weight1 - weight2)
+				<= relEps * Math.max(Math.abs(weight1), Math.abs(weight2));
 	}
 
-
 	/**
-	 * Sets the weight of an edge in the network. Doesn't actually set the edge
-	 * weight as an attribute, as that takes too much time. Instead, stores the
-	 * edge weight in our copy of the weights local to the algorithm.
+	 * Returns if a path weight exceeds a maximum weight, a weight tied with the
+	 * maximum being within it
 	 *
-	 * @param edge
-	 *            the edge to set the weight of
-	 * @param value
-	 *            the new weight of the edge
+	 * @param graph
+	 *            the snapshot the path belongs to, giving the relative epsilon
+	 * @param weight
+	 *            the weight of the path
+	 * @param maxWeight
+	 *            the maximum weight, INFINITY for no limit
+	 * @return true if the path is heavier than the maximum, false otherwise
 	 */
-	public static void setWeight(CyEdge edge, double value)
+	private static boolean isHeavier(GraphSnapshot graph, double weight, double maxWeight)
 	{
-		_edgeWeights.put(edge, value);
+		return weight > maxWeight && !isTied(weight, maxWeight, graph.relativeEpsilon());
 	}
 
 
+
 	/**
-	 * Returns an edge that connects source to target if it exists, null
-	 * otherwise
+	 * Sets the approximation bound of the paths of a run whose spur paths are at
+	 * most 1 + epsilon times heavier than the shortest ones. Each candidate is
+	 * then at most 1 + epsilon times heavier than the shortest path of its part
+	 * of the paths left, as the root path is exact, so the ith path found is at
+	 * most 1 + epsilon times heavier than the exact ith shortest path, as is the
+	 * ith lightest of the paths found. The weight of the exact path of each rank
+	 * is thus at least the weight of the path of that rank divided by 1 +
+	 * epsilon, and at least the weight of the exact path of the rank before.
+	 * The bound of a path is its weight over that lower bound
 	 *
-	 * @param network
-	 *            the network
-	 * @param source
-	 *            the source of the edge
-	 * @param target
-	 *            the target of the edge
-	 * @return the edge connecting source and target, null otherwise
+	 * @param paths
+	 *            the paths of the run in order of weight, with non-negative
+	 *            weights
+	 * @param epsilon
+	 *            the approximation of the spur searches, 0 if they were exact
+	 * @param firstExact
+	 *            whether or not the first path is the exact shortest path
 	 */
-	public static CyEdge getEdge(
-			CyNetwork network,
-			CyNode source,
-			CyNode target)
+	public static void setApproximationBounds(
+			List<PathWay> paths,
+			double epsilon,
+			boolean firstExact)
 	{
-		List<CyEdge> connections =
-				network.getConnectingEdgeList(source, target, CyEdge.Type.DIRECTED);
-
-		// getConnectingEdgeList() returns both the incoming and outgoing edges connected to the two nodes
-		// Using CyEdge.Type.OUTGOING gave strange results in testing, so I stuck with this loop
-		// Use this for loop to get the edge directed from source->target
-		// Currently PathLinker does not support multi-graphs, so just return the first edge found
-		for (CyEdge edge : connections)
+		double lowerBound = 0.;
+		for (int i = 0; i < paths.size(); i++)
 		{
-			if (edge.getSource().equals(source)
-					&& edge.getTarget().equals(target))
-			{
-
-				return edge;
-			}
+			PathWay path = paths.get(i);
+			lowerBound = i == 0 && firstExact ? path.weight
+					: Math.max(lowerBound, path.weight / (1 + epsilon));
+			path.approximationBound = path.weight <= lowerBound ? 1. : path.weight / lowerBound;
+			paths.set(i, path);
 		}
-
-		return null;
 	}
 
 
+
 	/**
-	 * Finds a path from a source to a sink using a supplied previous node list
+	 * Computes the shortest distance from every node in the graph to a target,
+	 * following the edges that are not hidden backwards
 	 *
-	 * @param previous
-	 *            a map of node predecessors
-	 * @param source
-	 *            the source node of the graph
+	 * @param graph
+	 *            the snapshot of the supplied network
 	 * @param target
-	 *            the target node of the graph
-	 * @return list of nodes in the path
+	 *            the target node id
+	 * @return the distance of each node to the target, INFINITY if the target
+	 *         is unreachable
 	 */
-	public static ArrayList<CyNode> constructNodeList(
-			HashMap<CyNode, CyNode> previous,
-			CyNode source,
-			CyNode target)
-			{
-		ArrayList<CyNode> nodeList = new ArrayList<CyNode>();
+	public static double[] reverseSingleSourceDijkstra(
+			GraphSnapshot graph,
+			int target)
+	{
+		double[] distances = new double[graph.nodeCount()];
+		Arrays.fill(distances, INFINITY);
+		distances[target] = 0.;
+
+		NodeHeap pq = new NodeHeap();
+		pq.push(0., target, 0.);
 
-		// constructs the path
-		CyNode iter = target;
-		do
+		while (!pq.isEmpty())
 		{
-			nodeList.add(iter);
+			int current = pq.topNode();
+			double currentDist = pq.topKey();
+			pq.pop();
 
-			if (!previous.containsKey(iter))
-				return null;
-		}
-		while (!(iter = previous.get(iter)).equals(source));
+			// skips the stale entries of nodes that were improved
+			if (currentDist > distances[current])
+				continue;
+
+			// goes through incoming neighbors because we are finding the paths
+			// that lead to the target
+			for (int i = graph.inBegin(current); i < graph.inEnd(current); i++)
+			{
+				int neighborEdge = graph.inEdge(i);
+				if (graph.isHidden(neighborEdge))
+					continue;
 
-		nodeList.add(source);
-		Collections.reverse(nodeList);
+				int neighbor = graph.source(neighborEdge);
+				double newCost = currentDist + graph.weight(neighborEdge);
 
-		return nodeList;
+				if (newCost < distances[neighbor])
+				{
+					distances[neighbor] = newCost;
+					pq.push(newCost, neighbor, newCost);
+				}
 			}
+		}
 
+		return distances;
+	}
 
 	/**
-	 * Returns if a value is within an epsilon of INFINITY
-	 *
-	 * @param value
-	 *            the value to check
-	 * @return true if the value is INFINITY, false otherwise
+	 * Sort the list of the paths using its custom compareTo method
+	 * The ksp algorithm already returns the paths in order of weight, so only
+	 * the runs of paths with equal weight are sorted. Falls back to sorting the
+	 * whole list if the weights are found out of order, or for a SpilledPathWays
+	 * to sorting it by weight in place before sorting its runs, so the whole
+	 * result is never read into memory
+	 * @param result the sorted list of pathss
 	 */
-	private static boolean isInf(double value)
+	public static void sortResult(List<PathWay> result)
 	{
-		return Math.abs(value - INFINITY) < 0.1;
+		for (int i = 1; i < result.size(); i++)
+		{
+			if (Double.compare(result.get(i - 1).weight, result.get(i).weight) > 0)
+			{
+				if (result instanceof SpilledPathWays)
+				{
+					((SpilledPathWays) result).sortByWeight();
+					break;
+				}
+
+				sortRun(result, 0, result.size());
+				return;
+			}
+		}
+
+		int runStart = 0;
+		for (int i = 1; i <= result.size(); i++)
+		{
+			if (i < result.size() && Double.compare(
+					result.get(runStart).weight, result.get(i).weight) == 0)
+				continue;
+
+			// only a run of tied paths needs to be sorted by the node names
+			if (i - runStart > 1)
+				sortRun(result, runStart, i);
+
+			runStart = i;
+		}
 	}
 
 
 	/**
-	 * Initializes the set of hidden edges. Used to start out the algorithm
-	 * hiding all source in edges and target out edges.
+	 * Sorts a run of paths of the result. The run is copied out, as the paths
+	 * of a SpilledPathWays are read anew by each get, and the node ordinals are
+	 * only needed among the paths compared with each other
 	 *
-	 * @param edges
-	 *            the initial hidden edges
+	 * @param result
+	 *            the list of the paths
+	 * @param from
+	 *            the rank of the first path of the run
+	 * @param to
+	 *            the rank after the last path of the run
 	 */
-	public static void initializeHiddenEdges(Set<CyEdge> edges)
+	private static void sortRun(List<PathWay> result, int from, int to)
 	{
-		initialHiddenEdges = new HashSet<CyEdge>();
-		initialHiddenEdges.addAll(edges);
-
-		hiddenEdges = new HashSet<CyEdge>();
-		hiddenEdges.addAll(edges);
+		ArrayList<PathWay> run = new ArrayList<PathWay>(result.subList(from, to));
+		assignNodeOrdinals(run);
+		Collections.sort(run);
+		for (int i = 0; i < run.size(); i++)
+			result.set(from + i, run.get(i));
 	}
 
 
 	/**
-	 * Computes the weight of a given path
+	 * Ranks the names of all the nodes used by the paths once, and stores the
+	 * rank of each node in the path's nodeOrdinals so that compareTo does not
+	 * have to look up and compare the node names at every position
 	 *
-	 * @param network
-	 *            the supplied network
-	 * @param nodeList
-	 *            the list of nodes that make up the path, in order
+	 * @param paths
+	 *            the list of paths to assign the ordinals for
 	 */
-	private static double computePathDist(
-			CyNetwork network,
-			ArrayList<CyNode> nodeList)
+	private static void assignNodeOrdinals(List<PathWay> paths)
 	{
-		double sum = 0.;
-
-		for (int i = 0; i < nodeList.size() - 1; i++)
+		final Map<CyNode, String> names = new HashMap<CyNode, String>();
+		for (PathWay path : paths)
 		{
-			CyNode eSource = nodeList.get(i);
-			CyNode eTarget = nodeList.get(i + 1);
+			for (int i = 1; i < path.size() - 1; i++)
+				names.put(path.get(i), path.nodeIdMap.get(path.get(i)));
+		}
 
-			CyEdge edge = Algorithms.getEdge(network, eSource, eTarget);
+		ArrayList<CyNode> nodes = new ArrayList<CyNode>(names.keySet());
+		Collections.sort(nodes, new Comparator<CyNode>() {
+			@Override
+			public int compare(CyNode node1, CyNode node2)
+			{
+				return compareNames(names.get(node1), names.get(node2));
+			}
+		});
 
-			sum += getWeight(network, edge);
+		// nodes with the same name share the same ordinal
+		HashMap<CyNode, Integer> ordinals = new HashMap<CyNode, Integer>();
+		int ordinal = 0;
+		for (int i = 0; i < nodes.size(); i++)
+		{
+			if (i > 0 && compareNames(names.get(nodes.get(i - 1)), names.get(nodes.get(i))) != 0)
+				ordinal++;
+			ordinals.put(nodes.get(i), ordinal);
 		}
 
-		return sum;
+		for (PathWay path : paths)
+		{
+			path.nodeOrdinals = new int[path.size()];
+			for (int i = 1; i < path.size() - 1; i++)
+				path.nodeOrdinals[i] = ordinals.get(path.get(i));
+		}
 	}
 
+
 	/**
-	 * Sort the list of the paths using its custom compareTo method
-	 * @param result the sorted list of pathss
+	 * Compares two node names, placing nodes without a name first
 	 */
-	public static void sortResult(ArrayList<PathWay> result)
+	private static int compareNames(String name1, String name2)
 	{
-		Collections.sort(result);
+		if (name1 == null || name2 == null)
+			return name1 == null ? (name2 == null ? 0 : -1) : 1;
+
+		return name1.compareTo(name2);
 	}
 }
\ No newline at end of file
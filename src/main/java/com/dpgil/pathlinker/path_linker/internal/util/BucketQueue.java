@@ -0,0 +1,161 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Monotone bucket queue (Dial's algorithm) of node ids keyed by a non-negative
+ *      integer, storing along with each entry the distance of the node when it was
+ *      added. Each key has its own bucket, so adding and removing an entry take
+ *      constant time, as long as no key smaller than the last removed one is added.
+ *      That is always the case for Dijkstra's algorithm, and for A* with a
+ *      consistent heuristic. With unit edge weights, the buckets are the BFS layers.
+ * Like NodeHeap, nodes are added again with their better key, and the searches
+ *      skip the stale entries. The entries of the same key come out in the order they
+ *      were added, as they do from NodeHeap, so a search over either queue settles
+ *      the nodes in the same order and finds the same path among tied ones.
+ */
+public class BucketQueue {
+
+    /** marks an empty bucket or the last entry of a bucket */
+    private static final int NONE = -1;
+
+    /** the key of the first bucket */
+    private int base;
+    /** the first entry of each bucket, by key minus base */
+    private int[] bucketHeads;
+    /** the last entry of each bucket that is not empty */
+    private int[] bucketTails;
+    /** the bucket of the smallest key */
+    private int cursor;
+    /** the last bucket used since the queue was cleared */
+    private int lastBucket;
+    /** the node id of each entry */
+    private int[] entryNodes;
+    /** the distance stored with each entry */
+    private int[] entryDists;
+    /** the next entry of the same bucket */
+    private int[] entryNext;
+    /** number of entries added since the queue was cleared */
+    private int entryCount;
+    /** number of entries in the queue */
+    private int size;
+
+    /**
+     * Default constructor
+     */
+    public BucketQueue() {
+        bucketHeads = new int[64];
+        Arrays.fill(bucketHeads, NONE);
+        bucketTails = new int[64];
+        entryNodes = new int[64];
+        entryDists = new int[64];
+        entryNext = new int[64];
+        lastBucket = NONE;
+    }
+
+    /**
+     * Returns if the queue is empty
+     * @return true if the queue has no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries
+     */
+    public void clear() {
+        for (int i = 0; i <= lastBucket; i++)
+            bucketHeads[i] = NONE;
+
+        cursor = 0;
+        lastBucket = NONE;
+        entryCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest key
+     * @return the key of the top entry
+     */
+    public int topKey() {
+        advance();
+        return base + cursor;
+    }
+
+    /**
+     * Returns the node of the smallest key
+     * @return the node id of the top entry
+     */
+    public int topNode() {
+        advance();
+        return entryNodes[bucketHeads[cursor]];
+    }
+
+    /**
+     * Returns the distance stored with the smallest key
+     * @return the distance of the top entry
+     */
+    public int topDist() {
+        advance();
+        return entryDists[bucketHeads[cursor]];
+    }
+
+    /**
+     * Adds an entry
+     * @param key  the key of the entry, no less than the key of the last removed entry
+     * @param node the node id
+     * @param dist the distance of the node
+     */
+    public void push(int key, int node, int dist) {
+        if (lastBucket == NONE)
+            base = key;
+
+        int bucket = key - base;
+        if (bucket < cursor)
+            throw new IllegalStateException("Keys of a bucket queue must not decrease");
+
+        if (bucket >= bucketHeads.length) {
+            int oldLength = bucketHeads.length;
+            bucketHeads = Arrays.copyOf(bucketHeads, Math.max(2 * oldLength, bucket + 1));
+            Arrays.fill(bucketHeads, oldLength, bucketHeads.length, NONE);
+            bucketTails = Arrays.copyOf(bucketTails, bucketHeads.length);
+        }
+
+        if (entryCount == entryNodes.length) {
+            entryNodes = Arrays.copyOf(entryNodes, 2 * entryCount);
+            entryDists = Arrays.copyOf(entryDists, 2 * entryCount);
+            entryNext = Arrays.copyOf(entryNext, 2 * entryCount);
+        }
+
+        int entry = entryCount++;
+        entryNodes[entry] = node;
+        entryDists[entry] = dist;
+        entryNext[entry] = NONE;
+        if (bucketHeads[bucket] == NONE)
+            bucketHeads[bucket] = entry;
+        else
+            entryNext[bucketTails[bucket]] = entry;
+        bucketTails[bucket] = entry;
+
+        lastBucket = Math.max(lastBucket, bucket);
+        size++;
+    }
+
+    /**
+     * Removes the top entry
+     */
+    public void pop() {
+        advance();
+        bucketHeads[cursor] = entryNext[bucketHeads[cursor]];
+        size--;
+    }
+
+    /**
+     * Moves the cursor to the first bucket that is not empty
+     */
+    private void advance() {
+        while (bucketHeads[cursor] == NONE)
+            cursor++;
+    }
+}
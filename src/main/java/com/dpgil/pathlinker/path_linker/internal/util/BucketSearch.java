@@ -0,0 +1,161 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * The A* search of the spur paths for graphs whose weights are all non-negative
+ *      integers, such as the unweighted runs and the additive runs with integral
+ *      weights and penalty (see GraphSnapshot.hasIntegerWeights). The distances are
+ *      exact integers, so there is no rounding to allow for, and the fringe is a
+ *      bucket queue instead of a binary heap. The heuristic is computed the same way,
+ *      by a reverse Dijkstra over a bucket queue.
+ */
+public class BucketSearch extends SpurSearch {
+
+    /** distance of the nodes that can't reach the target */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** the integral weight of each edge */
+    private int[] weights;
+    /** the distance of each node to the target, the heuristic */
+    private int[] minDists;
+    /** the best distance seen so far for each node */
+    private int[] dists;
+    /** the nodes on the fringe, keyed by heuristic distance */
+    private BucketQueue fringe;
+
+    /**
+     * Default constructor, computes the distances of the nodes to the target
+     * @param graph  the graph to search, with integral weights
+     * @param target the target node id of all the searches
+     */
+    public BucketSearch(GraphSnapshot graph, int target) {
+        super(graph);
+
+        int n = graph.nodeCount();
+        this.weights = new int[graph.edgeCount()];
+        for (int e = 0; e < weights.length; e++)
+            weights[e] = graph.isHidden(e) ? 0 : (int) graph.weight(e);
+
+        this.dists = new int[n];
+        this.fringe = new BucketQueue();
+        this.minDists = reverseDistances(target);
+    }
+
+    /**
+     * Returns the distance of each node to the target, used by the ksp algorithm
+     *      to bound the spur searches
+     * @return the distances, infinity for the nodes that can't reach the target
+     */
+    public double[] getMinDists() {
+        double[] distances = new double[minDists.length];
+        for (int v = 0; v < distances.length; v++)
+            distances[v] = minDists[v] == UNREACHABLE ? Double.POSITIVE_INFINITY : minDists[v];
+
+        return distances;
+    }
+
+    /**
+     * Computes the shortest path from source to target with A*, giving up once
+     *      the path can't be shorter than maxDist
+     * @param source  the source node id
+     * @param target  the target node id
+     * @param maxDist the maximum weight of the path, infinity for no bound
+     * @return the edge ids in order in the path, null if there is no path within maxDist
+     */
+    @Override
+    public int[] shortestPath(int source, int target, double maxDist) {
+        if (source == target)
+            return new int[0];
+        if (minDists[source] == UNREACHABLE)
+            return null;
+
+        nextStamp();
+        fringe.clear();
+
+        // the distances are integers, so the bound can be rounded down
+        long bound = Double.isInfinite(maxDist) ? Long.MAX_VALUE : (long) Math.floor(maxDist);
+
+        seen[source] = stamp;
+        dists[source] = 0;
+        predEdges[source] = -1;
+        fringe.push(minDists[source], source, 0);
+
+        while (!fringe.isEmpty()) {
+            int currHeurDist = fringe.topKey();
+            int currNode = fringe.topNode();
+            int currActDist = fringe.topDist();
+            fringe.pop();
+
+            // every remaining path is heavier than the bound
+            if (currHeurDist > bound)
+                return null;
+
+            // skips the stale entries of the nodes that were improved
+            if (done[currNode] == stamp)
+                continue;
+            done[currNode] = stamp;
+
+            if (currNode == target)
+                return buildPath(source, target);
+
+            for (int e = graph.outBegin(currNode); e < graph.outEnd(currNode); e++) {
+                if (!canFollow(e))
+                    continue;
+
+                int nextNode = graph.target(e);
+                int heuristic = minDists[nextNode];
+                if (heuristic == UNREACHABLE || done[nextNode] == stamp)
+                    continue;
+
+                int nextActDist = currActDist + weights[e];
+                if (seen[nextNode] != stamp || nextActDist < dists[nextNode]) {
+                    seen[nextNode] = stamp;
+                    dists[nextNode] = nextActDist;
+                    predEdges[nextNode] = e;
+                    fringe.push(nextActDist + heuristic, nextNode, nextActDist);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Computes the distance of every node to the target with Dijkstra's algorithm
+     *      over a bucket queue, following the edges that are not hidden backwards
+     */
+    private int[] reverseDistances(int target) {
+        int[] distances = new int[graph.nodeCount()];
+        Arrays.fill(distances, UNREACHABLE);
+        distances[target] = 0;
+
+        BucketQueue queue = new BucketQueue();
+        queue.push(0, target, 0);
+
+        while (!queue.isEmpty()) {
+            int current = queue.topNode();
+            int currentDist = queue.topDist();
+            queue.pop();
+
+            // skips the stale entries of nodes that were improved
+            if (currentDist > distances[current])
+                continue;
+
+            for (int i = graph.inBegin(current); i < graph.inEnd(current); i++) {
+                int e = graph.inEdge(i);
+                if (graph.isHidden(e))
+                    continue;
+
+                int neighbor = graph.source(e);
+                int newCost = currentDist + weights[e];
+                if (newCost < distances[neighbor]) {
+                    distances[neighbor] = newCost;
+                    queue.push(newCost, neighbor, newCost);
+                }
+            }
+        }
+
+        return distances;
+    }
+}
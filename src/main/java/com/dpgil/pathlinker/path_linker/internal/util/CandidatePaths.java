@@ -0,0 +1,227 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * The candidate paths of the ksp algorithm, returned in order of weight.
+ *      Paths of equal weight are returned in the order they were added,
+ *      and a path is never returned twice.
+ *
+ * When given a SpillFile, only a hot window of the lightest candidates is kept on the heap.
+ *      Heavier (cold) candidates are written to the file, and the lightest of them
+ *      are read back once the hot window runs out. Duplicates are then dropped when
+ *      they come up instead of when they are added, which doesn't change the order
+ *      the candidates are returned in.
+ */
+public class CandidatePaths {
+
+    /** default number of candidates kept on the heap when spilling */
+    public static final int DEFAULT_HOT_WINDOW = 1 << 16;
+
+    /** A candidate path and its insertion order */
+    private static class Entry {
+        final CompactPath path;
+        final long seq;
+
+        Entry(CompactPath path, long seq) {
+            this.path = path;
+            this.seq = seq;
+        }
+    }
+
+    /** orders the candidates by weight, then by insertion */
+    private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry entry1, Entry entry2) {
+            int cmp = Double.compare(entry1.path.weight, entry2.path.weight);
+            return cmp != 0 ? cmp : Long.compare(entry1.seq, entry2.seq);
+        }
+    };
+
+    /** the lightest candidates, all of which are lighter than the cold candidates */
+    private TreeSet<Entry> hot;
+    /** the candidates, used to drop duplicates when not spilling */
+    private HashSet<CompactPath> members;
+    /** the file of the cold candidates, null when not spilling */
+    private SpillFile cold;
+    /** number of candidates kept on the heap when spilling */
+    private int hotWindow;
+    /** number of cold candidates */
+    private long coldCount;
+    /** the lightest cold candidate */
+    private Entry coldMin;
+    /** insertion order of the next candidate */
+    private long nextSeq;
+    /** weight of the most recently returned candidates */
+    private double polledWeight;
+    /** candidates returned with polledWeight, used to drop duplicates when spilling */
+    private HashSet<CompactPath> polledAtWeight;
+
+    /**
+     * Constructor of candidates kept entirely on the heap
+     */
+    public CandidatePaths() {
+        this(null, 0);
+    }
+
+    /**
+     * Constructor of candidates spilled to the given file
+     * @param cold      the file of the cold candidates, null to keep all candidates on the heap
+     * @param hotWindow number of candidates kept on the heap
+     */
+    public CandidatePaths(SpillFile cold, int hotWindow) {
+        this.cold = cold;
+        this.hotWindow = Math.max(1, hotWindow);
+        this.hot = new TreeSet<Entry>(ORDER);
+        this.members = new HashSet<CompactPath>();
+        this.polledWeight = Double.NaN;
+        this.polledAtWeight = new HashSet<CompactPath>();
+    }
+
+    /**
+     * Adds a candidate path, unless it already is a candidate
+     * @param path the candidate path
+     */
+    public void add(CompactPath path) {
+        Entry entry = new Entry(path, nextSeq++);
+
+        if (cold == null) {
+            if (members.add(path))
+                hot.add(entry);
+            return;
+        }
+
+        if (coldCount > 0 && ORDER.compare(entry, coldMin) > 0) {
+            writeCold(entry);
+            return;
+        }
+
+        hot.add(entry);
+
+        // spills the heaviest half of the heap once it doubled the hot window
+        if (hot.size() > 2 * hotWindow) {
+            while (hot.size() > hotWindow)
+                writeCold(hot.pollLast());
+        }
+    }
+
+    /**
+     * Returns the lightest candidate without removing it
+     * @return the lightest candidate, null if there are no candidates left
+     */
+    public CompactPath peek() {
+        while (true) {
+            if (hot.isEmpty()) {
+                if (coldCount == 0)
+                    return null;
+                refill();
+            }
+
+            CompactPath path = hot.first().path;
+
+            // drops the spilled duplicates of a path that was already returned
+            if (cold != null && Double.compare(path.weight, polledWeight) == 0
+                    && polledAtWeight.contains(path)) {
+                hot.pollFirst();
+                continue;
+            }
+
+            return path;
+        }
+    }
+
+    /**
+     * Removes and returns the lightest candidate
+     * @return the lightest candidate, null if there are no candidates left
+     */
+    public CompactPath poll() {
+        CompactPath path = peek();
+        if (path == null)
+            return null;
+
+        hot.pollFirst();
+
+        if (cold == null) {
+            members.remove(path);
+        }
+        else {
+            // duplicates have the same weight, so only the paths of the current weight are kept
+            if (Double.compare(path.weight, polledWeight) != 0) {
+                polledWeight = path.weight;
+                polledAtWeight.clear();
+            }
+            polledAtWeight.add(path);
+        }
+
+        return path;
+    }
+
+    /**
+     * Deletes the file of the cold candidates
+     */
+    public void close() {
+        if (cold != null)
+            cold.close();
+    }
+
+    /**
+     * Appends a candidate to the cold candidates
+     */
+    private void writeCold(Entry entry) {
+        cold.writeVarLong(entry.seq);
+        entry.path.write(cold);
+        coldCount++;
+
+        if (coldMin == null || ORDER.compare(entry, coldMin) < 0)
+            coldMin = entry;
+    }
+
+    /**
+     * Reads the cold candidate at the read position
+     */
+    private Entry readCold() {
+        long seq = cold.readVarLong();
+        return new Entry(CompactPath.read(cold), seq);
+    }
+
+    /**
+     * Moves the lightest cold candidates to the empty hot window,
+     *      and compacts the remaining cold candidates in place
+     */
+    private void refill() {
+        long end = cold.getWritePosition();
+
+        // first pass finds the hotWindow lightest cold candidates
+        PriorityQueue<Entry> lightest = new PriorityQueue<Entry>(hotWindow, Collections.reverseOrder(ORDER));
+        cold.setReadPosition(0);
+        while (cold.getReadPosition() < end) {
+            Entry entry = readCold();
+            if (lightest.size() < hotWindow) {
+                lightest.add(entry);
+            }
+            else if (ORDER.compare(entry, lightest.peek()) < 0) {
+                lightest.poll();
+                lightest.add(entry);
+            }
+        }
+
+        Entry heaviest = lightest.peek();
+        hot.addAll(lightest);
+
+        // second pass rewrites the rest. the write position never passes the
+        // read position as each candidate is rewritten with the same bytes
+        cold.setReadPosition(0);
+        cold.setWritePosition(0);
+        coldCount = 0;
+        coldMin = null;
+        while (cold.getReadPosition() < end) {
+            Entry entry = readCold();
+            if (ORDER.compare(entry, heaviest) > 0)
+                writeCold(entry);
+        }
+    }
+}
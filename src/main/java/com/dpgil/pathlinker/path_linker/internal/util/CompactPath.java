@@ -0,0 +1,64 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Compact representation of a path used by the ksp algorithm to store its
+ *      candidate and accepted paths. Each node is represented by its integer id,
+ *      so the path can be written to a SpillFile as a list of varints
+ */
+public class CompactPath {
+
+    /** the ids of the nodes in order in the path */
+    public final int[] nodes;
+    /** the total weight of the path */
+    public final double weight;
+
+    /**
+     * Default constructor
+     * @param nodes  the ids of the nodes in order in the path
+     * @param weight the total weight of the path
+     */
+    public CompactPath(int[] nodes, double weight) {
+        this.nodes = nodes;
+        this.weight = weight;
+    }
+
+    /**
+     * Writes the path at the write position of the spill file
+     * @param file the spill file
+     */
+    public void write(SpillFile file) {
+        file.writeVarLong(nodes.length);
+        file.writeDouble(weight);
+        for (int node : nodes)
+            file.writeVarLong(node);
+    }
+
+    /**
+     * Reads a path at the read position of the spill file
+     * @param file the spill file
+     * @return the path read
+     */
+    public static CompactPath read(SpillFile file) {
+        int[] nodes = new int[(int) file.readVarLong()];
+        double weight = file.readDouble();
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = (int) file.readVarLong();
+
+        return new CompactPath(nodes, weight);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CompactPath))
+            return false;
+
+        return Arrays.equals(nodes, ((CompactPath) o).nodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(nodes);
+    }
+}
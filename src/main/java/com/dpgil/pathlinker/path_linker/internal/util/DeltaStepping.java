@@ -0,0 +1,371 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Computes the distance of every node to a set of targets in parallel, following
+ *      the edges that are not hidden backwards, with the delta-stepping algorithm.
+ *      The nodes are grouped in buckets of width delta by distance and the buckets
+ *      are processed in order. The incoming edges of all the nodes of the current
+ *      bucket are relaxed at once on a fork/join pool, the common pool unless the
+ *      number of threads is given, the light edges of at most delta until the
+ *      bucket is empty, then the heavy edges once.
+ * A distance is only lowered, to the weight of a path found to the target, until
+ *      no edge can lower any distance. With non-negative weights, the distance of
+ *      each node is then the least weight of its paths to the target, summed from
+ *      the target as Algorithms.reverseSingleSourceDijkstra does, which also stops
+ *      at the same point. The distances are thus the same as those of Dijkstra's
+ *      algorithm, whatever the order the edges are relaxed in.
+ */
+public class DeltaStepping {
+
+    /** number of edges from which the distances are computed in parallel */
+    private static final int PARALLEL_EDGE_COUNT = 1 << 20;
+    /** number of nodes whose edges a task relaxes without splitting */
+    private static final int TASK_NODE_COUNT = 256;
+
+    /** the pool the relaxations run on */
+    private ForkJoinPool pool;
+    /** the graph searched backwards */
+    private GraphSnapshot graph;
+    /** the bits of the best distance to the targets found so far for each node,
+     *      which order the same as the distances as they are not negative */
+    private AtomicLongArray distances;
+    /** the width of the buckets */
+    private double delta;
+
+    /**
+     * Gets the number of threads the distances to the targets of a graph are worth
+     *      computing with
+     * @param graph the graph
+     * @return the parallelism of the common pool if the graph is large, 1 otherwise
+     */
+    public static int getParallelism(GraphSnapshot graph) {
+        return graph.edgeCount() >= PARALLEL_EDGE_COUNT ? ForkJoinPool.getCommonPoolParallelism() : 1;
+    }
+
+    /**
+     * Computes the distance of every node to a set of targets on the common pool
+     * @param graph   the graph to search backwards, following the edges that are not hidden,
+     *                whose weights must not be negative
+     * @param targets the target node ids
+     * @return the distance of each node to the closest target, infinity if no target is reachable
+     */
+    public static double[] reverseDistances(GraphSnapshot graph, int[] targets) {
+        return reverseDistances(graph, targets, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Computes the distance of every node to a set of targets with a given number of threads,
+     *      on the common pool if it has as many, otherwise on a pool of its own
+     * @param graph       the graph to search backwards, following the edges that are not hidden,
+     *                    whose weights must not be negative
+     * @param targets     the target node ids
+     * @param parallelism the number of threads
+     * @return the distance of each node to the closest target, infinity if no target is reachable
+     */
+    public static double[] reverseDistances(GraphSnapshot graph, int[] targets, int parallelism) {
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism())
+            return new DeltaStepping(graph, ForkJoinPool.commonPool()).run(targets);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return new DeltaStepping(graph, pool).run(targets);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Default constructor
+     * @param graph the graph to search backwards
+     * @param pool  the pool the relaxations run on
+     */
+    private DeltaStepping(GraphSnapshot graph, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+
+        this.pool = pool;
+        this.graph = graph;
+        this.distances = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++)
+            distances.set(v, Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+
+        // the largest weight over the average degree, so that a bucket holds about
+        // as many nodes as an edge reaches
+        double maxWeight = 0.;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double weight = graph.weight(e);
+            if (!graph.isHidden(e) && weight > maxWeight && !Double.isInfinite(weight))
+                maxWeight = weight;
+        }
+        delta = graph.edgeCount() == 0 ? 0. : maxWeight * n / graph.edgeCount();
+        if (!(delta > 0.))
+            delta = 1.;
+    }
+
+    /**
+     * Runs the delta-stepping algorithm
+     * @param targets the target node ids
+     * @return the distance of each node
+     */
+    private double[] run(int[] targets) {
+        int n = graph.nodeCount();
+
+        // the nodes added to each bucket, some of which may have moved to a lower bucket since
+        Map<Long, IntList> buckets = new HashMap<Long, IntList>();
+        PriorityQueue<Long> order = new PriorityQueue<Long>();
+        for (int target : targets) {
+            if (lower(target, 0.))
+                add(buckets, order, target);
+        }
+
+        // the nodes already requested or settled in the current bucket
+        int[] requested = new int[n];
+        int[] settledIn = new int[n];
+        int stamp = 0;
+        int bucketStamp = 0;
+
+        while (!order.isEmpty()) {
+            long bucket = order.poll();
+            IntList requests = new IntList();
+            stamp++;
+            for (int v : buckets.remove(bucket).toArray()) {
+                if (bucketOf(v) == bucket && requested[v] != stamp) {
+                    requested[v] = stamp;
+                    requests.add(v);
+                }
+            }
+
+            // relaxes the light edges until the bucket is empty, as they may lower
+            // the distances of nodes of the same bucket
+            bucketStamp++;
+            IntList settled = new IntList();
+            while (requests.size() > 0) {
+                int[] nodes = requests.toArray();
+                for (int v : nodes) {
+                    if (settledIn[v] != bucketStamp) {
+                        settledIn[v] = bucketStamp;
+                        settled.add(v);
+                    }
+                }
+
+                requests = new IntList();
+                stamp++;
+                for (int v : relax(nodes, false)) {
+                    if (bucketOf(v) != bucket)
+                        add(buckets, order, v);
+                    else if (requested[v] != stamp) {
+                        requested[v] = stamp;
+                        requests.add(v);
+                    }
+                }
+            }
+
+            // then the heavy edges of the nodes settled in the bucket, once
+            for (int v : relax(settled.toArray(), true))
+                add(buckets, order, v);
+        }
+
+        double[] result = new double[n];
+        for (int v = 0; v < n; v++)
+            result[v] = Double.longBitsToDouble(distances.get(v));
+        return result;
+    }
+
+    /**
+     * Relaxes the light or heavy incoming edges of nodes in parallel
+     * @param nodes the node ids
+     * @param heavy true to relax the edges heavier than delta, false for the others
+     * @return the nodes whose distance was lowered, possibly more than once
+     */
+    private int[] relax(int[] nodes, boolean heavy) {
+        Relaxation relaxation = new Relaxation(nodes, 0, nodes.length, heavy);
+        if (nodes.length <= TASK_NODE_COUNT)
+            relaxation.compute();
+        else
+            pool.invoke(relaxation);
+
+        IntList lowered = new IntList();
+        relaxation.collect(lowered);
+        return lowered.toArray();
+    }
+
+    /**
+     * Lowers the distance of a node, if the given one is lower
+     * @param v        the node id
+     * @param distance the distance of a path from the node to a target
+     * @return true if the distance was lowered
+     */
+    private boolean lower(int v, double distance) {
+        // adding 0 turns a negative zero, such as the weight of a probability of 1,
+        // into a zero, whose bits order before those of any positive distance
+        long bits = Double.doubleToLongBits(distance + 0.);
+        while (true) {
+            long current = distances.get(v);
+            if (bits >= current)
+                return false;
+            if (distances.compareAndSet(v, current, bits))
+                return true;
+        }
+    }
+
+    /**
+     * Gets the bucket of the current distance of a node
+     * @param v the node id
+     * @return the bucket index
+     */
+    private long bucketOf(int v) {
+        return (long) (Double.longBitsToDouble(distances.get(v)) / delta);
+    }
+
+    /**
+     * Adds a node to the bucket of its current distance
+     * @param buckets the nodes of each bucket
+     * @param order   the indices of the buckets, the lowest first
+     * @param v       the node id
+     */
+    private void add(Map<Long, IntList> buckets, PriorityQueue<Long> order, int v) {
+        long bucket = bucketOf(v);
+        IntList nodes = buckets.get(bucket);
+        if (nodes == null) {
+            nodes = new IntList();
+            buckets.put(bucket, nodes);
+            order.add(bucket);
+        }
+        nodes.add(v);
+    }
+
+    /**
+     * The relaxation of the incoming edges of a range of nodes, split in halves
+     *      until the ranges are small enough
+     */
+    private class Relaxation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** the node ids */
+        private final int[] nodes;
+        /** the first node of the range */
+        private final int from;
+        /** the node following the range */
+        private final int to;
+        /** whether to relax the edges heavier than delta or the others */
+        private final boolean heavy;
+        /** the halves of the range, null if the range was relaxed as a whole */
+        private List<Relaxation> halves;
+        /** the nodes whose distance was lowered */
+        private IntList lowered;
+
+        /**
+         * Default constructor
+         * @param nodes the node ids
+         * @param from  the first node of the range
+         * @param to    the node following the range
+         * @param heavy true to relax the edges heavier than delta, false for the others
+         */
+        private Relaxation(int[] nodes, int from, int to, boolean heavy) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.heavy = heavy;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TASK_NODE_COUNT) {
+                int middle = (from + to) >>> 1;
+                halves = new ArrayList<Relaxation>(2);
+                halves.add(new Relaxation(nodes, from, middle, heavy));
+                halves.add(new Relaxation(nodes, middle, to, heavy));
+                invokeAll(halves);
+                return;
+            }
+
+            lowered = new IntList();
+            for (int i = from; i < to; i++) {
+                int current = nodes[i];
+                double currentDist = Double.longBitsToDouble(distances.get(current));
+
+                // goes through incoming neighbors because we are finding the paths
+                // that lead to the targets
+                for (int j = graph.inBegin(current); j < graph.inEnd(current); j++) {
+                    int neighborEdge = graph.inEdge(j);
+                    double weight = graph.weight(neighborEdge);
+                    if (graph.isHidden(neighborEdge) || (weight > delta) != heavy)
+                        continue;
+
+                    int neighbor = graph.source(neighborEdge);
+                    if (lower(neighbor, currentDist + weight))
+                        lowered.add(neighbor);
+                }
+            }
+        }
+
+        /**
+         * Adds the nodes whose distance was lowered to a list
+         * @param list the list
+         */
+        private void collect(IntList list) {
+            if (halves == null) {
+                list.addAll(lowered);
+                return;
+            }
+            for (Relaxation half : halves)
+                half.collect(list);
+        }
+    }
+
+    /**
+     * A growable list of node ids
+     */
+    private static class IntList {
+        /** the node ids */
+        private int[] values = new int[16];
+        /** number of node ids */
+        private int size;
+
+        /**
+         * Adds a node id
+         * @param v the node id
+         */
+        private void add(int v) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, 2 * size);
+            values[size++] = v;
+        }
+
+        /**
+         * Adds the node ids of another list
+         * @param list the list
+         */
+        private void addAll(IntList list) {
+            if (size + list.size > values.length)
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + list.size));
+            System.arraycopy(list.values, 0, values, size, list.size);
+            size += list.size;
+        }
+
+        /**
+         * Getter method of the size
+         * @return number of node ids
+         */
+        private int size() {
+            return size;
+        }
+
+        /**
+         * Copies the node ids
+         * @return the node ids in order
+         */
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
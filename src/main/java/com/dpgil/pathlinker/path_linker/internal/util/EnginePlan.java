@@ -0,0 +1,95 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * The plan of a PathLinker run: the algorithm chosen to compute the paths and
+ *      the number of threads computing the distances to the targets, either by
+ *      the planner of PathLinkerModel from the size of the graph and the query,
+ *      or as requested, and why.
+ */
+@ApiModel(value="Engine Plan",
+description="Algorithm and parallelism chosen to compute the paths")
+public class EnginePlan {
+
+    /** the algorithm used to compute the paths */
+    private KspEngine engine;
+    /** number of threads computing the distances to the targets */
+    private int parallelism = 1;
+    /** whether or not the engine was requested instead of chosen by the planner */
+    private boolean requested;
+    /** why the engine and parallelism were chosen */
+    private String reason;
+
+    /**
+     * Getter method for engine
+     * @return engine
+     */
+    @ApiModelProperty(value = "The algorithm used to compute the paths", example = "YEN")
+    public KspEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setter method for engine
+     * @param engine the algorithm used to compute the paths
+     */
+    public void setEngine(KspEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Getter method for parallelism
+     * @return parallelism
+     */
+    @ApiModelProperty(value = "The number of threads computing the distances of the nodes to the targets "
+            + "for the search heuristic. 1 if they are computed as the searches need them", example = "1")
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Setter method for parallelism
+     * @param parallelism the number of threads computing the distances to the targets
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Getter method for requested
+     * @return requested
+     */
+    @ApiModelProperty(value = "Whether or not the engine is the one given in the parameters "
+            + "instead of the one chosen by the planner", example = "false")
+    public boolean isRequested() {
+        return requested;
+    }
+
+    /**
+     * Setter method for requested
+     * @param requested whether or not the engine was requested instead of chosen by the planner
+     */
+    public void setRequested(boolean requested) {
+        this.requested = requested;
+    }
+
+    /**
+     * Getter method for reason
+     * @return reason
+     */
+    @ApiModelProperty(value = "Why the engine and parallelism were chosen",
+            example = "the graph has cycles and non-integral weights")
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Setter method for reason
+     * @param reason why the engine and parallelism were chosen
+     */
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
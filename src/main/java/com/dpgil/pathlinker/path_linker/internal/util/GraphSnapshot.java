@@ -0,0 +1,1057 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Immutable snapshot of the directed graph the ksp algorithm runs on.
+ *      The nodes are numbered from 0 to nodeCount() - 1. Each edge of the graph is
+ *      stored once with its source, target and weight, and an edge that can be
+ *      followed both ways, such as an undirected edge, is stored once with a
+ *      bidirected bit. The algorithm follows the edges through edge ids, one for
+ *      each direction an edge is followed in, kept in compressed sparse row (CSR)
+ *      form: the outgoing edge ids of node v are outBegin(v) to outEnd(v) - 1, and
+ *      its incoming edge ids are inEdge(i) for i from inBegin(v) to inEnd(v) - 1.
+ *      source, target and weight read the stored edge of an edge id in its direction.
+ * Edges hidden from the algorithm are kept in the snapshot but flagged, so the
+ *      searches skip them. Each direction of a stored edge has its own hidden bit.
+ * After contractChains, an edge may stand for a chain of edges of the original
+ *      graph. Its weight is the sum of the chain's weights, and the inner nodes
+ *      and weights of the chain are kept to expand the paths and sum their weights
+ *      in the same order as the original graph would.
+ * After toSinglePrecision, the weights are kept as floats, halving their memory
+ *      on very large networks. The path weights are still summed as doubles.
+ * After toOffHeap, the adjacency, the reverse adjacency and the stored edges are kept
+ *      in read-only direct or memory-mapped buffers instead of arrays, out of the
+ *      garbage collected heap. The accessors read whichever is set, and as the
+ *      snapshot is never modified it can be shared by concurrent runs.
+ */
+public class GraphSnapshot {
+
+    /** relative tolerance of two path weights to be tied, see Algorithms.isTied */
+    private static final double DOUBLE_REL_EPS = 1E-10;
+    /** relative tolerance of two path weights to be tied with single precision weights.
+     *      A float has 24 bits of precision, so a sum of a few floats rounded from
+     *      equal sums of doubles can differ in its 7th digit */
+    private static final double FLOAT_REL_EPS = 1E-6;
+
+    /** the node of each node id */
+    private CyNode[] nodes;
+    /** the id of each node, built on demand. Volatile as a cached snapshot is
+     *      shared by concurrent runs */
+    private volatile Map<CyNode, Integer> nodeIds;
+    /** the first outgoing edge id of each node, followed by the number of edge ids */
+    private int[] outOffsets;
+    /** the direction of the stored edge each edge id follows: the stored edge shifted
+     *      left by one, plus one if the edge id goes from its target to its source */
+    private int[] edgeDirections;
+    /** the source node id of each stored edge */
+    private int[] storedSources;
+    /** the target node id of each stored edge */
+    private int[] storedTargets;
+    /** the weight of each stored edge, the same both ways */
+    private double[] storedWeights;
+    /** the stored edges followed both ways */
+    private BitSet bidirected;
+    /** the first incoming edge position of each node, followed by the number of edges */
+    private int[] inOffsets;
+    /** the incoming edge ids grouped by target node */
+    private int[] inEdges;
+    /** the directions of the stored edges hidden from the algorithm, indexed as in
+     *      edgeDirections */
+    private BitSet hiddenDirections;
+    /** the first inner node position of the chain of each stored edge followed by the
+     *      number of positions, null if the chains were not contracted */
+    private int[] chainOffsets;
+    /** the inner nodes of the chains in order, grouped by stored edge */
+    private CyNode[] chainNodes;
+    /** the original edge weights of the chains in order, grouped by stored edge. The chain
+     *      of stored edge i has one more weight than inner nodes, starting at chainOffsets[i] + i */
+    private double[] chainWeights;
+    /** the weight of each stored edge in single precision, null unless toSinglePrecision
+     *      was called, in which case storedWeights is null */
+    private float[] floatWeights;
+    /** the chain weights in single precision, in place of chainWeights */
+    private float[] chainFloatWeights;
+    /** number of edge ids */
+    private int edgeCount;
+    /** number of stored edges */
+    private int storedEdgeCount;
+    /** outOffsets off the heap, null unless toOffHeap was called, in which case
+     *      the arrays of the adjacency, reverse adjacency and stored edges are null */
+    private IntBuffer outOffsetBuffer;
+    /** edgeDirections off the heap */
+    private IntBuffer edgeDirectionBuffer;
+    /** storedSources off the heap */
+    private IntBuffer storedSourceBuffer;
+    /** storedTargets off the heap */
+    private IntBuffer storedTargetBuffer;
+    /** storedWeights off the heap, null for single precision weights */
+    private DoubleBuffer storedWeightBuffer;
+    /** floatWeights off the heap, null for double precision weights */
+    private FloatBuffer floatWeightBuffer;
+    /** inOffsets off the heap */
+    private IntBuffer inOffsetBuffer;
+    /** inEdges off the heap */
+    private IntBuffer inEdgeBuffer;
+
+    /**
+     * Constructor of the snapshot from a list of directed edges
+     * @param nodes       the node of each node id
+     * @param sources     the source node id of each edge
+     * @param targets     the target node id of each edge
+     * @param weights     the weight of each edge
+     * @param hiddenEdges the indices of the edges hidden from the algorithm
+     */
+    public GraphSnapshot(CyNode[] nodes, int[] sources, int[] targets, double[] weights, BitSet hiddenEdges) {
+        this(nodes, sources, targets, weights, null, forwardDirections(hiddenEdges));
+    }
+
+    /**
+     * Constructor of the snapshot from a list of stored edges, kept as given. Each
+     *      stored edge is followed from its source to its target, and also from its
+     *      target to its source if it is bidirected. The edge ids are numbered by the
+     *      node they are followed from, keeping the order of the stored edges among
+     *      the edge ids of the same node
+     * @param nodes            the node of each node id
+     * @param sources          the source node id of each stored edge
+     * @param targets          the target node id of each stored edge
+     * @param weights          the weight of each stored edge
+     * @param bidirected       the stored edges followed both ways, null for none
+     * @param hiddenDirections the directions hidden from the algorithm: bit 2 * i from the
+     *                         source of stored edge i to its target, bit 2 * i + 1 from its
+     *                         target to its source. null for none
+     */
+    public GraphSnapshot(CyNode[] nodes, int[] sources, int[] targets, double[] weights, BitSet bidirected,
+            BitSet hiddenDirections) {
+        int n = nodes.length;
+        int stored = sources.length;
+
+        this.nodes = nodes;
+        this.storedEdgeCount = stored;
+        this.storedSources = sources;
+        this.storedTargets = targets;
+        this.storedWeights = weights;
+        this.bidirected = bidirected != null ? bidirected : new BitSet(stored);
+        this.hiddenDirections = hiddenDirections != null ? hiddenDirections : new BitSet(2 * stored);
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+
+        // counting sort of the directions of the stored edges by the node they are followed from
+        for (int i = 0; i < stored; i++) {
+            outOffsets[sources[i] + 1]++;
+            if (this.bidirected.get(i))
+                outOffsets[targets[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+            outOffsets[v + 1] += outOffsets[v];
+
+        this.edgeCount = outOffsets[n];
+        this.edgeDirections = new int[edgeCount];
+        this.inEdges = new int[edgeCount];
+
+        int[] next = new int[n];
+        System.arraycopy(outOffsets, 0, next, 0, n);
+        for (int i = 0; i < stored; i++) {
+            edgeDirections[next[sources[i]]++] = i << 1;
+            if (this.bidirected.get(i))
+                edgeDirections[next[targets[i]]++] = i << 1 | 1;
+        }
+
+        groupInEdges();
+    }
+
+    /**
+     * Returns the number of nodes
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the number of edge ids, one for each direction a stored edge is followed
+     *      in, including the hidden ones
+     * @return number of edge ids
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the node of a node id
+     * @param v the node id
+     * @return the node
+     */
+    public CyNode node(int v) {
+        return nodes[v];
+    }
+
+    /**
+     * Returns the id of a node
+     * @param node the node
+     * @return the id of the node, -1 if the node is not in the snapshot
+     */
+    public int indexOf(CyNode node) {
+        Map<CyNode, Integer> ids = nodeIds;
+        if (ids == null) {
+            ids = new HashMap<CyNode, Integer>();
+            for (int v = 0; v < nodes.length; v++)
+                ids.put(nodes[v], v);
+            nodeIds = ids;
+        }
+
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the first outgoing edge id of a node
+     * @param v the node id
+     * @return the first outgoing edge id
+     */
+    public int outBegin(int v) {
+        return outOffsets != null ? outOffsets[v] : outOffsetBuffer.get(v);
+    }
+
+    /**
+     * Returns the end of the outgoing edge ids of a node
+     * @param v the node id
+     * @return one past the last outgoing edge id
+     */
+    public int outEnd(int v) {
+        return outOffsets != null ? outOffsets[v + 1] : outOffsetBuffer.get(v + 1);
+    }
+
+    /**
+     * Returns the first position of the incoming edges of a node
+     * @param v the node id
+     * @return the first position, see inEdge
+     */
+    public int inBegin(int v) {
+        return inOffsets != null ? inOffsets[v] : inOffsetBuffer.get(v);
+    }
+
+    /**
+     * Returns the end of the incoming edges of a node
+     * @param v the node id
+     * @return one past the last position, see inEdge
+     */
+    public int inEnd(int v) {
+        return inOffsets != null ? inOffsets[v + 1] : inOffsetBuffer.get(v + 1);
+    }
+
+    /**
+     * Returns the incoming edge at a position
+     * @param i the position, between inBegin(v) and inEnd(v) for the edges incoming to v
+     * @return the edge id
+     */
+    public int inEdge(int i) {
+        return inEdges != null ? inEdges[i] : inEdgeBuffer.get(i);
+    }
+
+    /**
+     * Returns the source node of an edge, in the direction of the edge id
+     * @param e the edge id
+     * @return the source node id
+     */
+    public int source(int e) {
+        int direction = direction(e);
+        return (direction & 1) == 0 ? storedSource(direction >>> 1) : storedTarget(direction >>> 1);
+    }
+
+    /**
+     * Returns the target node of an edge, in the direction of the edge id
+     * @param e the edge id
+     * @return the target node id
+     */
+    public int target(int e) {
+        int direction = direction(e);
+        return (direction & 1) == 0 ? storedTarget(direction >>> 1) : storedSource(direction >>> 1);
+    }
+
+    /**
+     * Returns the weight of an edge
+     * @param e the edge id
+     * @return the weight of the edge
+     */
+    public double weight(int e) {
+        return storedWeight(direction(e) >>> 1);
+    }
+
+    /**
+     * Adds the weight of an edge to the distance of a path. When the edge stands for
+     *      a chain, the original weights of the chain are added one by one, so the
+     *      path weights are exactly the same as in the original graph
+     * @param dist the distance of the path up to the edge
+     * @param e    the edge id
+     * @return the distance of the path including the edge
+     */
+    public double addWeight(double dist, int e) {
+        if (chainOffsets == null)
+            return dist + weight(e);
+
+        int stored = direction(e) >>> 1;
+        if (chainFloatWeights != null) {
+            for (int i = chainOffsets[stored] + stored; i <= chainOffsets[stored + 1] + stored; i++)
+                dist += chainFloatWeights[i];
+            return dist;
+        }
+
+        for (int i = chainOffsets[stored] + stored; i <= chainOffsets[stored + 1] + stored; i++)
+            dist += chainWeights[i];
+        return dist;
+    }
+
+    /**
+     * Returns if the weights are kept in single precision
+     * @return true if toSinglePrecision was called, false otherwise
+     */
+    public boolean isSinglePrecision() {
+        return floatWeights != null || floatWeightBuffer != null;
+    }
+
+    /**
+     * Returns the relative tolerance of two path weights to be tied, which is
+     *      larger for single precision weights
+     * @return the relative tolerance
+     */
+    public double relativeEpsilon() {
+        return isSinglePrecision() ? FLOAT_REL_EPS : DOUBLE_REL_EPS;
+    }
+
+    /**
+     * Returns if some edges stand for chains of the original graph
+     * @return true if the chains were contracted, false otherwise
+     */
+    public boolean hasChains() {
+        return chainOffsets != null;
+    }
+
+    /**
+     * Returns the number of inner nodes of the chain of an edge
+     * @param e the edge id
+     * @return number of nodes the edge goes through, 0 for an edge of the original graph
+     */
+    public int chainLength(int e) {
+        if (chainOffsets == null)
+            return 0;
+
+        int stored = direction(e) >>> 1;
+        return chainOffsets[stored + 1] - chainOffsets[stored];
+    }
+
+    /**
+     * Returns the number of edges of the original graph an edge stands for
+     * @param e the edge id
+     * @return 1 plus the number of nodes the edge goes through
+     */
+    public int hopCount(int e) {
+        return 1 + chainLength(e);
+    }
+
+    /**
+     * Returns an inner node of the chain of an edge
+     * @param e the edge id
+     * @param i the position of the node in the chain, from 0 to chainLength(e) - 1
+     * @return the ith node the edge goes through
+     */
+    public CyNode chainNode(int e, int i) {
+        return chainNodes[chainOffsets[direction(e) >>> 1] + i];
+    }
+
+    /**
+     * Returns if an edge is hidden from the algorithm
+     * @param e the edge id
+     * @return true if the edge is hidden, false otherwise
+     */
+    public boolean isHidden(int e) {
+        return hiddenDirections.get(direction(e));
+    }
+
+    /**
+     * Returns if the weights of the edges that are not hidden are all non-negative
+     *      integers, small enough that no path weight overflows an int. The searches
+     *      can then run on exact integer distances, see BucketSearch
+     * @return true if the weights are integral, false otherwise
+     */
+    public boolean hasIntegerWeights() {
+        // a simple path has less than nodeCount() edges
+        double maxWeight = (double) (1 << 30) / Math.max(1, nodes.length);
+        for (int e = 0; e < edgeCount; e++) {
+            double weight = weight(e);
+            if (!isHidden(e) && !(weight >= 0 && weight <= maxWeight && weight == Math.rint(weight)))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the first edge connecting source to target
+     * @param source the source node id
+     * @param target the target node id
+     * @return the edge id, -1 if there is no such edge
+     */
+    public int findEdge(int source, int target) {
+        for (int e = outBegin(source); e < outEnd(source); e++) {
+            if (target(e) == target)
+                return e;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sorts the nodes in topological order over the edges that are not hidden,
+     *      ignoring the self-loops as no path can use them. The graph has a
+     *      topological order exactly when each of its strongly connected components
+     *      is a single node, so this is also the test of the graph being acyclic
+     * @return the node ids in topological order, null if the graph has a cycle
+     */
+    public int[] topologicalOrder() {
+        int n = nodes.length;
+        int[] inDegrees = new int[n];
+        for (int e = 0; e < edgeCount; e++) {
+            if (!isHidden(e) && source(e) != target(e))
+                inDegrees[target(e)]++;
+        }
+
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegrees[v] == 0)
+                order[tail++] = v;
+        }
+
+        while (head < tail) {
+            int v = order[head++];
+            for (int e = outBegin(v); e < outEnd(v); e++) {
+                if (isHidden(e) || target(e) == v)
+                    continue;
+                if (--inDegrees[target(e)] == 0)
+                    order[tail++] = target(e);
+            }
+        }
+
+        // the nodes left out are on a cycle or can only be reached through one
+        return tail == n ? order : null;
+    }
+
+    /**
+     * Returns the part of the graph that lies on some path from the sources to the
+     *      targets, with a super source attached to the sources and the targets
+     *      attached to a super target by edges of weight 0: the nodes both reachable
+     *      from a source and reaching a target, and the edges between them that are
+     *      not hidden. No path from the sources to the targets is lost, and the
+     *      searches of the ksp algorithm never explore a dead end. The super nodes
+     *      are nodes of this snapshot without any edge, so a snapshot of a network
+     *      can be shared by runs from different sources to different targets.
+     * The snapshot is only read through its accessors, so it may be off the heap,
+     *      and the pruned snapshot is built on the heap. A bidirected edge stays
+     *      stored once when neither direction is hidden
+     * @param superSource           the super source node id
+     * @param sources               the source node ids
+     * @param superTarget           the super target node id
+     * @param targets               the target node ids
+     * @param hideSourceTargetEdges whether or not to hide the edges incoming to the
+     *                              sources and outgoing from the targets
+     * @return the pruned snapshot, with its own node ids
+     */
+    public GraphSnapshot prune(int superSource, int[] sources, int superTarget, int[] targets,
+            boolean hideSourceTargetEdges) {
+        if (chainOffsets != null)
+            throw new IllegalStateException("The snapshot must be pruned before its chains are contracted");
+
+        int n = nodes.length;
+        boolean[] isSource = new boolean[n];
+        for (int source : sources)
+            isSource[source] = true;
+        boolean[] isTarget = new boolean[n];
+        for (int target : targets)
+            isTarget[target] = true;
+        boolean[] hiddenInto = hideSourceTargetEdges ? isSource : new boolean[n];
+        boolean[] hiddenOutOf = hideSourceTargetEdges ? isTarget : new boolean[n];
+
+        BitSet kept = reachable(sources, false, hiddenInto, hiddenOutOf);
+        kept.and(reachable(targets, true, hiddenInto, hiddenOutOf));
+
+        // the super nodes are kept as long as there is any path
+        if (!kept.isEmpty()) {
+            kept.set(superSource);
+            kept.set(superTarget);
+        }
+
+        // renumbers the kept nodes in order
+        int[] newIds = new int[n];
+        CyNode[] keptNodes = new CyNode[kept.cardinality()];
+        int keptCount = 0;
+        for (int v = 0; v < n; v++) {
+            newIds[v] = kept.get(v) ? keptCount : -1;
+            if (kept.get(v))
+                keptNodes[keptCount++] = nodes[v];
+        }
+
+        int m = 0;
+        for (int i = 0; i < storedEdgeCount; i++) {
+            int source = storedSource(i), target = storedTarget(i);
+            if (kept.get(source) && kept.get(target)
+                    && (isVisible(i << 1, source, target, hiddenInto, hiddenOutOf)
+                            || isVisible(i << 1 | 1, target, source, hiddenInto, hiddenOutOf)))
+                m++;
+        }
+        for (int source : sources) {
+            if (kept.get(source))
+                m++;
+        }
+        for (int target : targets) {
+            if (kept.get(target))
+                m++;
+        }
+
+        int[] sourceIds = new int[m];
+        int[] targetIds = new int[m];
+        double[] weights = new double[m];
+        BitSet keptBidirected = new BitSet(m);
+        m = 0;
+        for (int i = 0; i < storedEdgeCount; i++) {
+            int source = storedSource(i), target = storedTarget(i);
+            if (!kept.get(source) || !kept.get(target))
+                continue;
+
+            boolean forward = isVisible(i << 1, source, target, hiddenInto, hiddenOutOf);
+            boolean backward = isVisible(i << 1 | 1, target, source, hiddenInto, hiddenOutOf);
+            if (!forward && !backward)
+                continue;
+
+            // an edge left with only its reverse direction is stored the other way
+            sourceIds[m] = newIds[forward ? source : target];
+            targetIds[m] = newIds[forward ? target : source];
+            weights[m] = storedWeight(i);
+            if (forward && backward)
+                keptBidirected.set(m);
+            m++;
+        }
+
+        // the edges of the super nodes are stored after the edges of the network
+        for (int source : sources) {
+            if (kept.get(source)) {
+                sourceIds[m] = newIds[superSource];
+                targetIds[m++] = newIds[source];
+            }
+        }
+        for (int target : targets) {
+            if (kept.get(target)) {
+                sourceIds[m] = newIds[target];
+                targetIds[m++] = newIds[superTarget];
+            }
+        }
+
+        return new GraphSnapshot(keptNodes, sourceIds, targetIds, weights, keptBidirected, null);
+    }
+
+    /**
+     * Renumbers the nodes in reverse Cuthill-McKee order from a node: a breadth
+     *      first search over the edges in both directions, visiting the neighbors of
+     *      each node by increasing degree, reversed. The neighbors of a node then get
+     *      nearby ids, so the distance, predecessor and adjacency entries the searches
+     *      read one after the other are close in memory. The node ids are otherwise
+     *      in the order of the network's node list, which has no locality.
+     * The nodes out of reach of the node are numbered last, in their current order.
+     *      The stored edges keep their order, so do the outgoing edges of each node,
+     *      and the hidden edges are kept
+     * @param source the node id to start from
+     * @return the renumbered snapshot, with its own node ids
+     */
+    public GraphSnapshot reorder(int source) {
+        if (chainOffsets != null)
+            throw new IllegalStateException("The snapshot must be reordered before its chains are contracted");
+        checkConvertible();
+
+        int n = nodes.length;
+        int[] degrees = new int[n];
+        for (int v = 0; v < n; v++)
+            degrees[v] = outOffsets[v + 1] - outOffsets[v] + inOffsets[v + 1] - inOffsets[v];
+
+        // the order of the breadth first search, which is the Cuthill-McKee order
+        int[] order = new int[n];
+        BitSet visited = new BitSet(n);
+        int head = 0, tail = 0;
+        int[] neighbors = new int[16];
+
+        visited.set(source);
+        order[tail++] = source;
+        while (head < tail) {
+            int v = order[head++];
+            int count = 0;
+            int degree = degrees[v];
+            if (degree > neighbors.length)
+                neighbors = new int[Math.max(degree, 2 * neighbors.length)];
+
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                int next = target(e);
+                if (!isHidden(e) && !visited.get(next)) {
+                    visited.set(next);
+                    neighbors[count++] = next;
+                }
+            }
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                int e = inEdges[i];
+                int previous = source(e);
+                if (!isHidden(e) && !visited.get(previous)) {
+                    visited.set(previous);
+                    neighbors[count++] = previous;
+                }
+            }
+
+            // insertion sort by degree, stable so the ties keep the edge order
+            for (int i = 1; i < count; i++) {
+                int next = neighbors[i];
+                int j = i;
+                for (; j > 0 && degrees[neighbors[j - 1]] > degrees[next]; j--)
+                    neighbors[j] = neighbors[j - 1];
+                neighbors[j] = next;
+            }
+
+            for (int i = 0; i < count; i++)
+                order[tail++] = neighbors[i];
+        }
+
+        int reached = tail;
+        for (int v = visited.nextClearBit(0); v < n; v = visited.nextClearBit(v + 1))
+            order[tail++] = v;
+
+        // the reversed order of the reached nodes gives the new ids
+        int[] newIds = new int[n];
+        CyNode[] orderedNodes = new CyNode[n];
+        for (int i = 0; i < n; i++) {
+            int v = order[i < reached ? reached - 1 - i : i];
+            newIds[v] = i;
+            orderedNodes[i] = nodes[v];
+        }
+
+        int[] sources = new int[storedEdgeCount];
+        int[] targets = new int[storedEdgeCount];
+        for (int i = 0; i < storedEdgeCount; i++) {
+            sources[i] = newIds[storedSources[i]];
+            targets[i] = newIds[storedTargets[i]];
+        }
+
+        return new GraphSnapshot(orderedNodes, sources, targets, storedWeights, bidirected, hiddenDirections);
+    }
+
+    /**
+     * Contracts the chains of nodes with exactly one incoming and one outgoing edge
+     *      into single edges. Such nodes can't be branched from, so the paths of the
+     *      contracted graph are exactly the paths of this graph, with fewer nodes
+     *      for the searches to go through one at a time.
+     * A chain is left as is when contracting it would create a loop or a second
+     *      edge between the same two nodes, since the paths are told apart by their nodes.
+     *      The edges of a chain are never bidirected, as a node whose single outgoing
+     *      edge goes back where it came from would close a loop, so the bidirected
+     *      edges are kept as they are
+     * @param source the source node id, never contracted
+     * @param target the target node id, never contracted
+     * @return the contracted snapshot, with its own node ids
+     */
+    public GraphSnapshot contractChains(int source, int target) {
+        if (chainOffsets != null)
+            throw new IllegalStateException("The chains of the snapshot are already contracted");
+        checkConvertible();
+
+        int n = nodes.length;
+        int m = edgeCount;
+
+        // the nodes that can be folded into an edge
+        boolean[] inner = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            inner[v] = v != source && v != target
+                    && inEnd(v) - inBegin(v) == 1 && outEnd(v) - outBegin(v) == 1
+                    && !isHidden(inEdges[inBegin(v)]) && !isHidden(outBegin(v));
+        }
+
+        // follows the chain starting with each edge out of a kept node. the walk
+        // ends as the inner nodes have a single incoming edge. the chain ends are
+        // kept by stored edge, as a chain starts with the only direction of its edge
+        int[] chainEnds = new int[storedEdgeCount];
+        Arrays.fill(chainEnds, -1);
+        boolean[] removed = new boolean[n];
+        HashSet<Long> contracted = new HashSet<Long>();
+        int chainNodeCount = 0;
+        for (int e = 0; e < m; e++) {
+            int u = source(e);
+            if (inner[u] || !inner[target(e)])
+                continue;
+
+            int w = target(e);
+            while (inner[w])
+                w = target(outOffsets[w]);
+
+            if (w == u || findEdge(u, w) >= 0 || !contracted.add(((long) u << 32) | w))
+                continue;
+
+            chainEnds[edgeDirections[e] >>> 1] = w;
+            for (int v = target(e); v != w; v = target(outOffsets[v])) {
+                removed[v] = true;
+                chainNodeCount++;
+            }
+        }
+
+        int[] newIds = new int[n];
+        CyNode[] keptNodes = new CyNode[n - chainNodeCount];
+        int keptCount = 0;
+        for (int v = 0; v < n; v++) {
+            newIds[v] = removed[v] ? -1 : keptCount;
+            if (!removed[v])
+                keptNodes[keptCount++] = nodes[v];
+        }
+
+        int newEdgeCount = 0;
+        for (int i = 0; i < storedEdgeCount; i++) {
+            if (!removed[storedSources[i]] && (!removed[storedTargets[i]] || chainEnds[i] >= 0))
+                newEdgeCount++;
+        }
+
+        // the stored edges keep their order, so the new stored edges follow the order they are listed in
+        int[] sources = new int[newEdgeCount];
+        int[] targets = new int[newEdgeCount];
+        double[] weights = new double[newEdgeCount];
+        BitSet keptBidirected = new BitSet(newEdgeCount);
+        BitSet hidden = new BitSet(2 * newEdgeCount);
+        int[] offsets = new int[newEdgeCount + 1];
+        CyNode[] innerNodes = new CyNode[chainNodeCount];
+        double[] innerWeights = new double[chainNodeCount + newEdgeCount];
+        int next = 0;
+        int position = 0;
+        for (int i = 0; i < storedEdgeCount; i++) {
+            if (removed[storedSources[i]] || (removed[storedTargets[i]] && chainEnds[i] < 0))
+                continue;
+
+            sources[next] = newIds[storedSources[i]];
+            offsets[next] = position;
+            double weight = storedWeights[i];
+            innerWeights[position + next] = storedWeights[i];
+
+            if (chainEnds[i] >= 0) {
+                // sums the chain in order, as a path through it would
+                for (int v = storedTargets[i]; v != chainEnds[i]; v = target(outOffsets[v])) {
+                    double chainWeight = weight(outOffsets[v]);
+                    weight += chainWeight;
+                    innerNodes[position] = nodes[v];
+                    position++;
+                    innerWeights[position + next] = chainWeight;
+                }
+                targets[next] = newIds[chainEnds[i]];
+            }
+            else {
+                targets[next] = newIds[storedTargets[i]];
+                if (bidirected.get(i))
+                    keptBidirected.set(next);
+                if (hiddenDirections.get(i << 1))
+                    hidden.set(next << 1);
+                if (hiddenDirections.get(i << 1 | 1))
+                    hidden.set(next << 1 | 1);
+            }
+
+            weights[next] = weight;
+            next++;
+        }
+        offsets[newEdgeCount] = position;
+
+        GraphSnapshot snapshot = new GraphSnapshot(keptNodes, sources, targets, weights, keptBidirected, hidden);
+        snapshot.chainOffsets = offsets;
+        snapshot.chainNodes = innerNodes;
+        snapshot.chainWeights = innerWeights;
+        return snapshot;
+    }
+
+    /**
+     * Returns a copy of the snapshot with its weights in single precision, sharing
+     *      everything else. The weights are only rounded once, so this is one of
+     *      the last steps of building a snapshot: prune, reorder and contractChains
+     *      only work on double precision weights
+     * @return the single precision snapshot
+     */
+    public GraphSnapshot toSinglePrecision() {
+        checkConvertible();
+
+        GraphSnapshot snapshot = new GraphSnapshot(this);
+        snapshot.storedWeights = null;
+        snapshot.chainWeights = null;
+        snapshot.floatWeights = new float[storedWeights.length];
+        for (int i = 0; i < storedWeights.length; i++)
+            snapshot.floatWeights[i] = (float) storedWeights[i];
+
+        if (chainWeights != null) {
+            snapshot.chainFloatWeights = new float[chainWeights.length];
+            for (int i = 0; i < chainWeights.length; i++)
+                snapshot.chainFloatWeights[i] = (float) chainWeights[i];
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns a copy of the snapshot with its adjacency, reverse adjacency and stored
+     *      edges moved out of the heap into read-only buffers, sharing everything else.
+     *      This is meant for the snapshot of a network, converted once and shared by
+     *      the runs: prune reads it through the accessors and builds the searched
+     *      graph on the heap, while the other steps only work on arrays. The nodes
+     *      and the hidden edges stay on the heap
+     * @param storage DIRECT for direct buffers, MAPPED for buffers mapped from a
+     *                temporary file, HEAP to keep the arrays
+     * @return the off-heap snapshot, or this snapshot for HEAP
+     */
+    public GraphSnapshot toOffHeap(SnapshotStorage storage) {
+        if (storage == SnapshotStorage.HEAP)
+            return this;
+        if (outOffsets == null)
+            throw new IllegalStateException("The snapshot is already off the heap");
+
+        int n = nodes.length;
+        int m = edgeCount;
+        int stored = storedEdgeCount;
+        long[] sizes = { 4L * (n + 1), 4L * m, 4L * stored, 4L * stored,
+                isSinglePrecision() ? 4L * stored : 8L * stored, 4L * (n + 1), 4L * m };
+        for (long size : sizes) {
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("The snapshot is too large for off-heap buffers");
+        }
+
+        ByteBuffer[] buffers = storage == SnapshotStorage.MAPPED ? mapBuffers(sizes) : new ByteBuffer[sizes.length];
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == null)
+                buffers[i] = ByteBuffer.allocateDirect((int) sizes[i]);
+            buffers[i].order(ByteOrder.nativeOrder());
+        }
+
+        GraphSnapshot snapshot = new GraphSnapshot(this);
+        snapshot.outOffsets = null;
+        snapshot.edgeDirections = null;
+        snapshot.storedSources = null;
+        snapshot.storedTargets = null;
+        snapshot.storedWeights = null;
+        snapshot.floatWeights = null;
+        snapshot.inOffsets = null;
+        snapshot.inEdges = null;
+
+        snapshot.outOffsetBuffer = buffers[0].asIntBuffer().put(outOffsets).asReadOnlyBuffer();
+        snapshot.edgeDirectionBuffer = buffers[1].asIntBuffer().put(edgeDirections).asReadOnlyBuffer();
+        snapshot.storedSourceBuffer = buffers[2].asIntBuffer().put(storedSources).asReadOnlyBuffer();
+        snapshot.storedTargetBuffer = buffers[3].asIntBuffer().put(storedTargets).asReadOnlyBuffer();
+        if (floatWeights != null)
+            snapshot.floatWeightBuffer = buffers[4].asFloatBuffer().put(floatWeights).asReadOnlyBuffer();
+        else
+            snapshot.storedWeightBuffer = buffers[4].asDoubleBuffer().put(storedWeights).asReadOnlyBuffer();
+        snapshot.inOffsetBuffer = buffers[5].asIntBuffer().put(inOffsets).asReadOnlyBuffer();
+        snapshot.inEdgeBuffer = buffers[6].asIntBuffer().put(inEdges).asReadOnlyBuffer();
+
+        return snapshot;
+    }
+
+    /**
+     * Maps consecutive regions of a temporary file. The file is deleted right away,
+     *      the mappings stay valid until the buffers are garbage collected
+     * @param sizes the size in bytes of each region
+     * @return the mapped regions
+     */
+    private static ByteBuffer[] mapBuffers(long[] sizes) {
+        ByteBuffer[] buffers = new ByteBuffer[sizes.length];
+        try {
+            File file = File.createTempFile("pathlinker-snapshot", ".csr");
+            file.deleteOnExit();
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                FileChannel channel = randomAccessFile.getChannel();
+                long position = 0;
+                for (int i = 0; i < sizes.length; i++) {
+                    buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, sizes[i]);
+                    position += sizes[i];
+                }
+            }
+            file.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map the snapshot file", e);
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Copy constructor sharing everything of a snapshot
+     * @param snapshot the snapshot to copy
+     */
+    private GraphSnapshot(GraphSnapshot snapshot) {
+        this.nodes = snapshot.nodes;
+        this.nodeIds = snapshot.nodeIds;
+        this.edgeCount = snapshot.edgeCount;
+        this.storedEdgeCount = snapshot.storedEdgeCount;
+        this.outOffsets = snapshot.outOffsets;
+        this.edgeDirections = snapshot.edgeDirections;
+        this.storedSources = snapshot.storedSources;
+        this.storedTargets = snapshot.storedTargets;
+        this.storedWeights = snapshot.storedWeights;
+        this.floatWeights = snapshot.floatWeights;
+        this.bidirected = snapshot.bidirected;
+        this.inOffsets = snapshot.inOffsets;
+        this.inEdges = snapshot.inEdges;
+        this.hiddenDirections = snapshot.hiddenDirections;
+        this.chainOffsets = snapshot.chainOffsets;
+        this.chainNodes = snapshot.chainNodes;
+        this.chainWeights = snapshot.chainWeights;
+        this.chainFloatWeights = snapshot.chainFloatWeights;
+    }
+
+    /**
+     * Returns the direction of the stored edge an edge id follows
+     * @param e the edge id
+     * @return the stored edge shifted left by one, plus one from its target to its source
+     */
+    private int direction(int e) {
+        return edgeDirections != null ? edgeDirections[e] : edgeDirectionBuffer.get(e);
+    }
+
+    /**
+     * Returns the source node of a stored edge
+     * @param i the stored edge
+     * @return the source node id
+     */
+    private int storedSource(int i) {
+        return storedSources != null ? storedSources[i] : storedSourceBuffer.get(i);
+    }
+
+    /**
+     * Returns the target node of a stored edge
+     * @param i the stored edge
+     * @return the target node id
+     */
+    private int storedTarget(int i) {
+        return storedTargets != null ? storedTargets[i] : storedTargetBuffer.get(i);
+    }
+
+    /**
+     * Returns the weight of a stored edge
+     * @param i the stored edge
+     * @return the weight of the stored edge
+     */
+    private double storedWeight(int i) {
+        if (storedWeights != null)
+            return storedWeights[i];
+        if (floatWeights != null)
+            return floatWeights[i];
+        return storedWeightBuffer != null ? storedWeightBuffer.get(i) : floatWeightBuffer.get(i);
+    }
+
+    /**
+     * Returns the nodes reachable from any of some nodes through the edges that are
+     *      not hidden, nor hidden by prune
+     * @param starts      the node ids to start from
+     * @param reverse     true to follow the edges backwards, returning the nodes
+     *                    reaching any of the nodes
+     * @param hiddenInto  the nodes whose incoming edges are hidden
+     * @param hiddenOutOf the nodes whose outgoing edges are hidden
+     * @return the reachable nodes, including the nodes themselves
+     */
+    private BitSet reachable(int[] starts, boolean reverse, boolean[] hiddenInto, boolean[] hiddenOutOf) {
+        BitSet visited = new BitSet(nodes.length);
+        int[] queue = new int[nodes.length];
+        int head = 0, tail = 0;
+
+        for (int start : starts) {
+            if (!visited.get(start)) {
+                visited.set(start);
+                queue[tail++] = start;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            int begin = reverse ? inBegin(v) : outBegin(v);
+            int end = reverse ? inEnd(v) : outEnd(v);
+            for (int i = begin; i < end; i++) {
+                int e = reverse ? inEdge(i) : i;
+                if (!isVisible(direction(e), source(e), target(e), hiddenInto, hiddenOutOf))
+                    continue;
+
+                int next = reverse ? source(e) : target(e);
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        return visited;
+    }
+
+    /**
+     * Returns whether or not a direction of a stored edge is kept by prune
+     * @param direction   the stored edge shifted left by one, plus one from its target
+     *                    to its source
+     * @param source      the node id the direction is followed from
+     * @param target      the node id the direction is followed to
+     * @param hiddenInto  the nodes whose incoming edges are hidden
+     * @param hiddenOutOf the nodes whose outgoing edges are hidden
+     * @return true if the direction is followed and not hidden
+     */
+    private boolean isVisible(int direction, int source, int target, boolean[] hiddenInto, boolean[] hiddenOutOf) {
+        return ((direction & 1) == 0 || bidirected.get(direction >> 1)) && !hiddenDirections.get(direction)
+                && !hiddenInto[target] && !hiddenOutOf[source];
+    }
+
+    /**
+     * Groups the edge ids by target node, once the edge ids are numbered by source node
+     */
+    private void groupInEdges() {
+        int n = nodes.length;
+        int m = edgeCount;
+
+        // counting sort of the edge ids by target node
+        for (int e = 0; e < m; e++)
+            inOffsets[target(e) + 1]++;
+        for (int v = 0; v < n; v++)
+            inOffsets[v + 1] += inOffsets[v];
+
+        int[] next = new int[n];
+        System.arraycopy(inOffsets, 0, next, 0, n);
+        for (int e = 0; e < m; e++)
+            inEdges[next[target(e)]++] = e;
+    }
+
+    /**
+     * Returns the hidden directions of a list of directed edges
+     * @param hiddenEdges the indices of the hidden edges, null for none
+     * @return the hidden directions, from source to target, of the stored edges
+     */
+    private static BitSet forwardDirections(BitSet hiddenEdges) {
+        BitSet hiddenDirections = new BitSet();
+        if (hiddenEdges != null) {
+            for (int i = hiddenEdges.nextSetBit(0); i >= 0; i = hiddenEdges.nextSetBit(i + 1))
+                hiddenDirections.set(i << 1);
+        }
+
+        return hiddenDirections;
+    }
+
+    /**
+     * Checks that the weights are double precision arrays, which the steps that
+     *      build a new snapshot from this one need
+     */
+    private void checkConvertible() {
+        if (storedWeights == null)
+            throw new IllegalStateException("The weights of the snapshot are already in single precision or off the heap");
+    }
+}
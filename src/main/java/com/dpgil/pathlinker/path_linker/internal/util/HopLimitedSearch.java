@@ -0,0 +1,216 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * The A* search used by the ksp algorithm to find the spur paths of at most a given
+ *      number of edges. A node may be worth reaching again by a heavier path with
+ *      fewer edges, so the search settles labels, each being a path to a node with
+ *      its number of edges, instead of nodes.
+ * As the heuristic is consistent, the labels of a node come out of the fringe in
+ *      order of weight, so a label is only of use if it has fewer edges than every
+ *      label of its node settled before. A node is thus settled at most once per
+ *      number of edges, and a path found never goes through the same node twice.
+ *      The labels that can't reach the target within the limit, going by the least
+ *      number of edges from each node to the target, are never added.
+ * The edges standing for chains (see GraphSnapshot.contractChains) count as the
+ *      number of edges of the original graph they stand for.
+ */
+public class HopLimitedSearch extends SpurSearch {
+
+    /** the distance of each node to the target, the heuristic */
+    private TargetDistances minDists;
+    /** the least number of edges from each node to the target, Integer.MAX_VALUE
+     *      for the nodes that can't reach it */
+    private int[] minHops;
+    /** the fewest edges of the labels of each node settled by the current search */
+    private int[] settledHops;
+    /** the node of each label */
+    private int[] labelNodes;
+    /** the label each label extends by one edge, -1 for the source */
+    private int[] labelParents;
+    /** the edge reaching the node of each label */
+    private int[] labelEdges;
+    /** the number of edges of each label */
+    private int[] labelHops;
+    /** number of labels of the current search */
+    private int labelCount;
+    /** the labels on the fringe, keyed by heuristic distance */
+    private NodeHeap fringe;
+
+    /**
+     * Default constructor, computes the least number of edges from each node to the target
+     * @param graph    the graph to search
+     * @param minDists the distance of each node to the target
+     * @param target   the target node id of all the searches
+     */
+    public HopLimitedSearch(GraphSnapshot graph, TargetDistances minDists, int target) {
+        super(graph);
+
+        this.minDists = minDists;
+        this.minHops = reverseHopCounts(graph, target);
+        this.settledHops = new int[graph.nodeCount()];
+        this.labelNodes = new int[16];
+        this.labelParents = new int[16];
+        this.labelEdges = new int[16];
+        this.labelHops = new int[16];
+        this.fringe = new NodeHeap();
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target, double maxDist) {
+        return shortestPath(source, target, maxDist, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the shortest path from source to target of at most maxHops edges with
+     *      A* over labels, giving up once the path can't be shorter than maxDist
+     * @param source  the source node id
+     * @param target  the target node id
+     * @param maxDist the maximum weight of the path, infinity for no bound
+     * @param maxHops the maximum number of edges of the path, Integer.MAX_VALUE for no limit
+     * @return the edge ids in order in the path, null if there is no path within maxDist and maxHops
+     */
+    public int[] shortestPath(int source, int target, double maxDist, int maxHops) {
+        if (source == target)
+            return new int[0];
+
+        nextStamp();
+        fringe.clear();
+        labelCount = 0;
+
+        if (minHops[source] > maxHops)
+            return null;
+
+        boolean bounded = !Double.isInfinite(maxDist);
+        fringe.push(bounded ? minDists.get(source, 0., maxDist) : minDists.get(source),
+                addLabel(source, -1, -1, 0), 0.);
+
+        while (!fringe.isEmpty()) {
+            double currHeurDist = fringe.topKey();
+            int currLabel = fringe.topNode();
+            double currActDist = fringe.topDist();
+            fringe.pop();
+
+            // every remaining path is heavier than the bound
+            if (bounded && currHeurDist > maxDist)
+                return null;
+
+            // a label of the node settled before is no heavier, so this one is of
+            // no use unless it has fewer edges
+            int currNode = labelNodes[currLabel];
+            int currHops = labelHops[currLabel];
+            if (done[currNode] == stamp && currHops >= settledHops[currNode])
+                continue;
+
+            done[currNode] = stamp;
+            settledHops[currNode] = currHops;
+
+            // check for a solution
+            if (currNode == target)
+                return buildLabelPath(currLabel);
+
+            for (int e = graph.outBegin(currNode); e < graph.outEnd(currNode); e++) {
+                if (!canFollow(e))
+                    continue;
+
+                // skips the nodes that can't reach the target with the edges left
+                int nextNode = graph.target(e);
+                int nextHops = currHops + graph.hopCount(e);
+                if (minHops[nextNode] > maxHops - nextHops)
+                    continue;
+                if (done[nextNode] == stamp && nextHops >= settledHops[nextNode])
+                    continue;
+
+                double nextActDist = currActDist + graph.weight(e);
+                double heuristic = bounded ? minDists.get(nextNode, nextActDist, maxDist)
+                        : minDists.get(nextNode);
+                if (Double.isInfinite(heuristic))
+                    continue;
+
+                fringe.push(nextActDist + heuristic, addLabel(nextNode, currLabel, e, nextHops), nextActDist);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a label to the current search
+     * @param v      the node id
+     * @param parent the label extended by the edge, -1 for the source
+     * @param e      the edge id, -1 for the source
+     * @param hops   the number of edges of the label
+     * @return the label
+     */
+    private int addLabel(int v, int parent, int e, int hops) {
+        if (labelCount == labelNodes.length) {
+            labelNodes = Arrays.copyOf(labelNodes, 2 * labelCount);
+            labelParents = Arrays.copyOf(labelParents, 2 * labelCount);
+            labelEdges = Arrays.copyOf(labelEdges, 2 * labelCount);
+            labelHops = Arrays.copyOf(labelHops, 2 * labelCount);
+        }
+
+        labelNodes[labelCount] = v;
+        labelParents[labelCount] = parent;
+        labelEdges[labelCount] = e;
+        labelHops[labelCount] = hops;
+        return labelCount++;
+    }
+
+    /**
+     * Follows the parents of a label back to the source
+     * @param label the label of the target
+     * @return the edge ids in order in the path
+     */
+    private int[] buildLabelPath(int label) {
+        int length = 0;
+        for (int i = label; labelParents[i] >= 0; i = labelParents[i])
+            length++;
+
+        int[] path = new int[length];
+        for (int i = label; labelParents[i] >= 0; i = labelParents[i])
+            path[--length] = labelEdges[i];
+
+        return path;
+    }
+
+    /**
+     * Computes the least number of edges from every node to the target, following
+     *      the edges that are not hidden backwards
+     * @param graph  the graph
+     * @param target the target node id
+     * @return the number of edges of the original graph, Integer.MAX_VALUE for the
+     *         nodes that can't reach the target
+     */
+    private static int[] reverseHopCounts(GraphSnapshot graph, int target) {
+        int[] hops = new int[graph.nodeCount()];
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        hops[target] = 0;
+
+        NodeHeap frontier = new NodeHeap();
+        frontier.push(0., target, 0.);
+        while (!frontier.isEmpty()) {
+            int current = frontier.topNode();
+            int currentHops = (int) frontier.topKey();
+            frontier.pop();
+            if (currentHops > hops[current])
+                continue;
+
+            for (int i = graph.inBegin(current); i < graph.inEnd(current); i++) {
+                int neighborEdge = graph.inEdge(i);
+                if (graph.isHidden(neighborEdge))
+                    continue;
+
+                int neighbor = graph.source(neighborEdge);
+                int newHops = currentHops + graph.hopCount(neighborEdge);
+                if (newHops < hops[neighbor]) {
+                    hops[neighbor] = newHops;
+                    frontier.push(newHops, neighbor, newHops);
+                }
+            }
+        }
+
+        return hops;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+/**
+ * The algorithm used to compute the k shortest paths
+ * Chosen by PathLinkerModel class and reported in the RunStatistics
+ */
+public enum KspEngine {
+
+	/**
+	 * Yen's algorithm with A* spur searches, for any graph. The searches
+	 * go over labels counting the edges of the paths when their length is
+	 * limited (see HopLimitedSearch), and inflate the heuristic for the
+	 * approximate runs
+	 */
+	YEN,
+
+	/**
+	 * Yen's algorithm with A* spur searches on exact integer distances over
+	 * bucket queues, for graphs whose weights are all non-negative integers
+	 */
+	BUCKET,
+
+	/**
+	 * Yen's algorithm with A* spur searches on weights rounded to a fixed
+	 * number of decimal digits over radix heaps, for graphs with non-negative
+	 * weights when quantizeWeights is set. The paths are weighed exactly, but
+	 * their ranks may differ from YEN within the rounding error
+	 */
+	RADIX,
+
+	/**
+	 * Best-first enumeration of the paths of a directed acyclic graph,
+	 * with no spur searches as every path is simple
+	 */
+	DAG
+}
@@ -0,0 +1,89 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+/**
+ * Map from long keys, such as SUIDs or pairs of node ids packed in a long, to
+ *      non-negative indices, kept in open addressing arrays without boxing.
+ *      The map holds at most the number of keys given when it is created, which
+ *      is all the single passes reading a network or merging its edges need.
+ */
+public class LongIndexMap {
+
+    /** the key of each slot */
+    private final long[] keys;
+    /** the index of each slot plus one, 0 for an empty slot */
+    private final int[] indices;
+    /** number of bits of the slot of a key */
+    private final int bits;
+    /** number of keys at most */
+    private final int maxSize;
+    /** number of keys */
+    private int size;
+
+    /**
+     * Default constructor
+     * @param maxSize the number of keys the map holds at most
+     */
+    public LongIndexMap(int maxSize) {
+        // at most half of the slots are used, so the probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(1, maxSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.indices = new int[capacity];
+        this.bits = Integer.numberOfTrailingZeros(capacity);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the index of a key
+     * @param key the key
+     * @return the index of the key, -1 if it is not in the map
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key); indices[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return indices[slot] - 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Maps a key to an index, unless it is already in the map
+     * @param key   the key
+     * @param index the non-negative index
+     * @return the index of the key already in the map, -1 if the key was added
+     */
+    public int putIfAbsent(long key, int index) {
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        for (; indices[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return indices[slot] - 1;
+        }
+
+        if (size == maxSize)
+            throw new IllegalStateException("The map already holds " + maxSize + " keys");
+        keys[slot] = key;
+        indices[slot] = index + 1;
+        size++;
+        return -1;
+    }
+
+    /**
+     * Returns the number of keys
+     * @return the number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first slot of a key, from the high bits of the key multiplied by
+     *      the golden ratio, which spreads consecutive SUIDs and node ids
+     * @param key the key
+     * @return the first slot to probe
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+    }
+}
@@ -0,0 +1,154 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node ids keyed by a double, storing along with each entry
+ *      the distance of the node when it was added. Nodes are never decreased in
+ *      place: a node is added again with its better key, and the searches skip the
+ *      stale entries when they come out of the heap.
+ * The entries of the same key come out in the order they were added, so the order
+ *      of the tied nodes doesn't depend on the shape of the heap, and is the same as
+ *      from a BucketQueue.
+ */
+public class NodeHeap {
+
+    /** the key of each entry */
+    private double[] keys;
+    /** the node id of each entry */
+    private int[] nodes;
+    /** the distance stored with each entry */
+    private double[] dists;
+    /** the rank of each entry in the order the entries were added */
+    private int[] seqs;
+    /** number of entries */
+    private int size;
+    /** number of entries added since the heap was cleared */
+    private int pushCount;
+
+    /**
+     * Default constructor
+     */
+    public NodeHeap() {
+        keys = new double[16];
+        nodes = new int[16];
+        dists = new double[16];
+        seqs = new int[16];
+    }
+
+    /**
+     * Returns if the heap is empty
+     * @return true if the heap has no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries
+     */
+    public void clear() {
+        size = 0;
+        pushCount = 0;
+    }
+
+    /**
+     * Returns the smallest key
+     * @return the key of the top entry
+     */
+    public double topKey() {
+        return keys[0];
+    }
+
+    /**
+     * Returns the node of the smallest key
+     * @return the node id of the top entry
+     */
+    public int topNode() {
+        return nodes[0];
+    }
+
+    /**
+     * Returns the distance stored with the smallest key
+     * @return the distance of the top entry
+     */
+    public double topDist() {
+        return dists[0];
+    }
+
+    /**
+     * Adds an entry
+     * @param key  the key of the entry
+     * @param node the node id
+     * @param dist the distance of the node
+     */
+    public void push(double key, int node, double dist) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            nodes = Arrays.copyOf(nodes, 2 * size);
+            dists = Arrays.copyOf(dists, 2 * size);
+            seqs = Arrays.copyOf(seqs, 2 * size);
+        }
+
+        // sifts the new entry up. it was added last, so it stays below the
+        // entries of the same key
+        int seq = pushCount++;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key)
+                break;
+            set(i, parent);
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        dists[i] = dist;
+        seqs[i] = seq;
+    }
+
+    /**
+     * Removes the top entry
+     */
+    public void pop() {
+        size--;
+        if (size == 0)
+            return;
+
+        // sifts the last entry down from the top
+        double key = keys[size];
+        int node = nodes[size];
+        double dist = dists[size];
+        int seq = seqs[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && before(child + 1, keys[child], seqs[child]))
+                child++;
+            if (!before(child, key, seq))
+                break;
+            set(i, child);
+            i = child;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        dists[i] = dist;
+        seqs[i] = seq;
+    }
+
+    /**
+     * Returns if an entry comes out before the given key and rank
+     */
+    private boolean before(int i, double key, int seq) {
+        return keys[i] < key || (keys[i] == key && seqs[i] < seq);
+    }
+
+    private void set(int i, int j) {
+        keys[i] = keys[j];
+        nodes[i] = nodes[j];
+        dists[i] = dists[j];
+        seqs[i] = seqs[j];
+    }
+}
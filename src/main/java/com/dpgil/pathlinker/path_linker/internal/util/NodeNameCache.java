@@ -0,0 +1,200 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+
+/**
+ * Cache of the node name index of each network, so that the sources and targets
+ *      of a run are looked up by name without reading the name of every node.
+ *      The index of a network is built on first use, then kept up to date by the
+ *      listeners as nodes are added, removed or renamed.
+ * When several nodes share a name, the name maps to the last of them in the node
+ *      list of the network, as when the names are read for each run. An update that
+ *      involves a shared name drops the index, which is built again on next use.
+ * Cytoscape delivers the added and removed nodes and the set rows to the listeners
+ *      in batches, some time after the changes, so the pending events are flushed
+ *      before reading an index for it to see the nodes added or renamed just before.
+ */
+public class NodeNameCache {
+
+    /** the index of each network, by network SUID */
+    private final Map<Long, Index> indexes = new HashMap<Long, Index>();
+    /** the event helper flushing the pending events, null for none */
+    private final CyEventHelper eventHelper;
+
+    /**
+     * Default constructor, for a cache told of the changes as they are made
+     */
+    public NodeNameCache() {
+        this(null);
+    }
+
+    /**
+     * Constructor flushing the pending events of the networks before reading an index
+     * @param eventHelper the Cytoscape event helper
+     */
+    public NodeNameCache(CyEventHelper eventHelper) {
+        this.eventHelper = eventHelper;
+    }
+
+    /**
+     * Delivers the pending events of the networks to the listeners, so that the
+     *      indexes are up to date. To be called before reading an index, outside of
+     *      the lock of the cache the listeners take
+     */
+    public void flushEvents() {
+        if (eventHelper != null)
+            eventHelper.flushPayloadEvents();
+    }
+
+    /**
+     * Getter method of the index of a network, building it if needed
+     * @param network the network
+     * @return the node name index of the network
+     */
+    public synchronized Index getIndex(CyNetwork network) {
+        Index index = indexes.get(network.getSUID());
+        if (index == null) {
+            index = new Index();
+            for (CyNode node : network.getNodeList())
+                index.put(node, network.getRow(node).get(CyNetwork.NAME, String.class));
+            indexes.put(network.getSUID(), index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Sets the name of a node added to a network or renamed, if the network is indexed
+     * @param networkSUID the SUID of the network
+     * @param node        the node
+     * @param name        the name of the node, null for none
+     */
+    public synchronized void setName(Long networkSUID, CyNode node, String name) {
+        Index index = indexes.get(networkSUID);
+        if (index != null && !index.setName(node, name))
+            indexes.remove(networkSUID);
+    }
+
+    /**
+     * Removes a node removed from a network, if the network is indexed
+     * @param networkSUID the SUID of the network
+     * @param nodeSUID    the SUID of the node
+     */
+    public synchronized void removeNode(Long networkSUID, Long nodeSUID) {
+        Index index = indexes.get(networkSUID);
+        if (index != null && !index.removeNode(nodeSUID))
+            indexes.remove(networkSUID);
+    }
+
+    /**
+     * Checks if a network is indexed
+     * @param networkSUID the SUID of the network
+     * @return true if the network has an index to keep up to date
+     */
+    public synchronized boolean isIndexed(Long networkSUID) {
+        return indexes.containsKey(networkSUID);
+    }
+
+    /**
+     * Forgets a network about to be destroyed
+     * @param networkSUID the SUID of the network
+     */
+    public synchronized void remove(Long networkSUID) {
+        indexes.remove(networkSUID);
+    }
+
+    /**
+     * The node name index of a network. Updated by the cache only, and read by the runs
+     *      from any thread
+     */
+    public static class Index {
+        /** the node of each name */
+        private final Map<String, CyNode> nameToNode = new ConcurrentHashMap<String, CyNode>();
+        /** the name of each named node */
+        private final Map<CyNode, String> nodeToName = new ConcurrentHashMap<CyNode, String>();
+        /** the named node of each node SUID */
+        private final Map<Long, CyNode> suidToNode = new HashMap<Long, CyNode>();
+        /** the number of nodes with each name */
+        private final Map<String, Integer> nameCounts = new HashMap<String, Integer>();
+
+        /**
+         * Getter method of the node of each name
+         * @return a read-only view of the map from the names to the nodes
+         */
+        public Map<String, CyNode> getNameToNode() {
+            return Collections.unmodifiableMap(nameToNode);
+        }
+
+        /**
+         * Getter method of the name of each node
+         * @return a read-only view of the map from the nodes to their names
+         */
+        public Map<CyNode, String> getNodeToName() {
+            return Collections.unmodifiableMap(nodeToName);
+        }
+
+        /**
+         * Adds a node while building the index, in the order of the node list
+         * @param node the node
+         * @param name the name of the node, null for none
+         */
+        private void put(CyNode node, String name) {
+            if (name == null)
+                return;
+
+            nameToNode.put(name, node);
+            nodeToName.put(node, name);
+            suidToNode.put(node.getSUID(), node);
+            Integer count = nameCounts.get(name);
+            nameCounts.put(name, count == null ? 1 : count + 1);
+        }
+
+        /**
+         * Sets the name of a node
+         * @param node the node
+         * @param name the name of the node, null for none
+         * @return false if the index has to be built again, when a shared name is involved
+         */
+        private boolean setName(CyNode node, String name) {
+            String oldName = nodeToName.get(node);
+            if (oldName == null ? name == null : oldName.equals(name))
+                return true;
+            if (name != null && nameCounts.containsKey(name))
+                return false;
+
+            if (oldName != null && !removeNode(node.getSUID()))
+                return false;
+            put(node, name);
+            return true;
+        }
+
+        /**
+         * Removes a node
+         * @param nodeSUID the SUID of the node
+         * @return false if the index has to be built again, when a shared name is involved
+         */
+        private boolean removeNode(Long nodeSUID) {
+            CyNode node = suidToNode.get(nodeSUID);
+            if (node == null)
+                return true;
+
+            String name = nodeToName.get(node);
+            int count = nameCounts.get(name);
+            if (count > 1)
+                return false;
+
+            nameToNode.remove(name);
+            nodeToName.remove(node);
+            suidToNode.remove(nodeSUID);
+            nameCounts.remove(name);
+            return true;
+        }
+    }
+}
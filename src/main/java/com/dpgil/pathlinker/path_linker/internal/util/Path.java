@@ -24,6 +24,9 @@ public class Path {
     private double score;
     /** the list of nodes in string in order in the path */
     private ArrayList<String> nodeList;
+    /** the bound on the cost of the path relative to the exact path of the same rank,
+     *      null for an exact run */
+    private Double approximationBound;
 
     /**
      * Default constructor
@@ -32,9 +35,22 @@ public class Path {
      * @param nodeList  the node list
      */
     public Path (int rank, double score, ArrayList<String> nodeList) {
+        this(rank, score, nodeList, null);
+    }
+
+    /**
+     * Constructor of a path of an approximate run
+     * @param rank               the path rank
+     * @param score              the path score
+     * @param nodeList           the node list
+     * @param approximationBound the bound on the cost of the path relative to the exact
+     *                           path of the same rank, null for an exact run
+     */
+    public Path (int rank, double score, ArrayList<String> nodeList, Double approximationBound) {
         this.rank = rank;
         this.score = score;
         this.nodeList = nodeList;
+        this.approximationBound = approximationBound;
     }
 
     /**
@@ -57,6 +73,19 @@ public class Path {
         return score;
     }
 
+    /**
+     * Getter method for approximationBound
+     * @return approximationBound
+     */
+    @ApiModelProperty(value = "For a run with approximationEpsilon, the maximum ratio of the cost of the path "
+            + "to the cost of the exact path of the same rank, at most 1 + approximationEpsilon. "
+            + "1 if the path is known to be as good as the exact one. "
+            + "The cost is -log10 of the path score for edge weight type PROBABILITIES. Null for an exact run",
+            example = "1.05")
+    public Double getApproximationBound() {
+        return approximationBound;
+    }
+
     /**
      * Getter method for the node list
      * @return nodeList
@@ -0,0 +1,155 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Prefix tree (trie) of the paths accepted by the ksp algorithm. Each tree node
+ *      stands for a prefix of some accepted path, and its children are the nodes
+ *      that follow the prefix in the accepted paths. Used instead of a map from
+ *      each prefix to its next nodes, which stores every prefix of every path
+ *      as its own list.
+ * The tree nodes are stored in parallel arrays, the root being the empty prefix.
+ *      When given a SpillFile, the tree nodes are stored in the file instead as
+ *      records of their label, first child and next sibling.
+ */
+public class PrefixTree {
+
+    /** the tree node of the empty prefix */
+    public static final int ROOT = 0;
+    /** returned when a tree node has no more children */
+    public static final int NONE = -1;
+
+    /** the last graph node of the prefix of each tree node */
+    private int[] labels;
+    /** the first child of each tree node */
+    private int[] firstChild;
+    /** the next sibling of each tree node */
+    private int[] nextSibling;
+    /** the file of the tree nodes, null when not spilling */
+    private SpillFile file;
+    /** number of tree nodes */
+    private int size;
+
+    /**
+     * Default constructor, creates the tree with the empty prefix only
+     */
+    public PrefixTree() {
+        this(null);
+    }
+
+    /**
+     * Constructor of a tree spilled to the given file, with the empty prefix only
+     * @param file the file of the tree nodes, null to keep the tree on the heap
+     */
+    public PrefixTree(SpillFile file) {
+        this.file = file;
+        if (file == null) {
+            labels = new int[64];
+            firstChild = new int[64];
+            nextSibling = new int[64];
+        }
+
+        set(ROOT, NONE, NONE, NONE);
+        size = 1;
+    }
+
+    /**
+     * Adds all the prefixes of an accepted path
+     * @param path the ids of the nodes in order in the path
+     */
+    public void add(int[] path) {
+        int treeNode = ROOT;
+        for (int node : path) {
+            int child = child(treeNode, node);
+            if (child == NONE)
+                child = addChild(treeNode, node);
+            treeNode = child;
+        }
+    }
+
+    /**
+     * Returns the tree node extending a prefix by one graph node
+     * @param treeNode the tree node of the prefix
+     * @param node     the graph node following the prefix
+     * @return the tree node of the extended prefix, NONE if no accepted path starts with it
+     */
+    public int child(int treeNode, int node) {
+        for (int child = firstChild(treeNode); child != NONE; child = nextSibling(child)) {
+            if (label(child) == node)
+                return child;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Returns the first child of a tree node
+     * @param treeNode the tree node
+     * @return the first child, NONE if there is none
+     */
+    public int firstChild(int treeNode) {
+        return file == null ? firstChild[treeNode] : file.readInt(position(treeNode) + 4);
+    }
+
+    /**
+     * Returns the next sibling of a tree node
+     * @param treeNode the tree node
+     * @return the next sibling, NONE if there is none
+     */
+    public int nextSibling(int treeNode) {
+        return file == null ? nextSibling[treeNode] : file.readInt(position(treeNode) + 8);
+    }
+
+    /**
+     * Returns the last graph node of the prefix of a tree node
+     * @param treeNode the tree node
+     * @return the graph node id
+     */
+    public int label(int treeNode) {
+        return file == null ? labels[treeNode] : file.readInt(position(treeNode));
+    }
+
+    /**
+     * Deletes the file of the tree nodes
+     */
+    public void close() {
+        if (file != null)
+            file.close();
+    }
+
+    private int addChild(int parent, int node) {
+        if (file == null && size == labels.length) {
+            labels = Arrays.copyOf(labels, 2 * size);
+            firstChild = Arrays.copyOf(firstChild, 2 * size);
+            nextSibling = Arrays.copyOf(nextSibling, 2 * size);
+        }
+
+        int child = size++;
+        set(child, node, NONE, firstChild(parent));
+        if (file == null)
+            firstChild[parent] = child;
+        else
+            file.writeInt(position(parent) + 4, child);
+        return child;
+    }
+
+    private void set(int treeNode, int label, int first, int next) {
+        if (file == null) {
+            labels[treeNode] = label;
+            firstChild[treeNode] = first;
+            nextSibling[treeNode] = next;
+        }
+        else {
+            file.writeInt(position(treeNode), label);
+            file.writeInt(position(treeNode) + 4, first);
+            file.writeInt(position(treeNode) + 8, next);
+        }
+    }
+
+    /**
+     * Returns the position of the record of a tree node in the file
+     */
+    private static long position(int treeNode) {
+        return 12L * treeNode;
+    }
+}
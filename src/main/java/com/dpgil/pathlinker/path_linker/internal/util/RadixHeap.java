@@ -0,0 +1,153 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Monotone radix heap of node ids keyed by a non-negative long, storing along with
+ *      each entry the distance of the node when it was added. An entry is kept in the
+ *      bucket of the highest bit in which its key differs from the last removed key,
+ *      so each entry moves down at most 64 times before it is removed. Like the
+ *      BucketQueue, no key smaller than the last removed one can be added, which
+ *      holds for A* with a consistent heuristic, and stale entries are skipped by the
+ *      searches.
+ */
+public class RadixHeap {
+
+    /** one bucket for the last removed key, and one for each bit */
+    private static final int BUCKETS = 65;
+
+    /** the last removed key, every key in bucket 0 is equal to it */
+    private long last;
+    /** the keys of the entries of each bucket */
+    private long[][] keys;
+    /** the node ids of the entries of each bucket */
+    private int[][] nodes;
+    /** the distances of the entries of each bucket */
+    private long[][] dists;
+    /** number of entries in each bucket */
+    private int[] sizes;
+    /** number of entries */
+    private int size;
+
+    /**
+     * Default constructor
+     */
+    public RadixHeap() {
+        keys = new long[BUCKETS][];
+        nodes = new int[BUCKETS][];
+        dists = new long[BUCKETS][];
+        sizes = new int[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            keys[b] = new long[4];
+            nodes[b] = new int[4];
+            dists[b] = new long[4];
+        }
+    }
+
+    /**
+     * Returns if the heap is empty
+     * @return true if the heap has no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries
+     */
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        size = 0;
+        last = 0;
+    }
+
+    /**
+     * Returns the smallest key
+     * @return the key of the top entry
+     */
+    public long topKey() {
+        settle();
+        return last;
+    }
+
+    /**
+     * Returns the node of the smallest key
+     * @return the node id of the top entry
+     */
+    public int topNode() {
+        settle();
+        return nodes[0][sizes[0] - 1];
+    }
+
+    /**
+     * Returns the distance stored with the smallest key
+     * @return the distance of the top entry
+     */
+    public long topDist() {
+        settle();
+        return dists[0][sizes[0] - 1];
+    }
+
+    /**
+     * Adds an entry
+     * @param key  the key of the entry, no less than the key of the last removed entry
+     * @param node the node id
+     * @param dist the distance of the node
+     */
+    public void push(long key, int node, long dist) {
+        if (key < last)
+            throw new IllegalStateException("Keys of a radix heap must not decrease");
+
+        add(bucket(key), key, node, dist);
+        size++;
+    }
+
+    /**
+     * Removes the top entry
+     */
+    public void pop() {
+        settle();
+        sizes[0]--;
+        size--;
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(int b, long key, int node, long dist) {
+        int i = sizes[b]++;
+        if (i == keys[b].length) {
+            keys[b] = Arrays.copyOf(keys[b], 2 * i);
+            nodes[b] = Arrays.copyOf(nodes[b], 2 * i);
+            dists[b] = Arrays.copyOf(dists[b], 2 * i);
+        }
+        keys[b][i] = key;
+        nodes[b][i] = node;
+        dists[b][i] = dist;
+    }
+
+    /**
+     * Makes sure bucket 0 holds the smallest key, by moving the smallest key of
+     *      the first non empty bucket to last and spreading that bucket in the
+     *      lower buckets
+     */
+    private void settle() {
+        if (sizes[0] > 0)
+            return;
+
+        int b = 1;
+        while (sizes[b] == 0)
+            b++;
+
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < sizes[b]; i++)
+            min = Math.min(min, keys[b][i]);
+        last = min;
+
+        int count = sizes[b];
+        sizes[b] = 0;
+        for (int i = 0; i < count; i++)
+            add(bucket(keys[b][i]), keys[b][i], nodes[b][i], dists[b][i]);
+    }
+}
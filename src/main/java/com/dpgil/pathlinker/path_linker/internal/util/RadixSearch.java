@@ -0,0 +1,218 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * The A* search of the spur paths on quantized weights: each weight is rounded to
+ *      a fixed number of decimal digits and stored as a long number of quanta, so
+ *      the fringe can be a radix heap instead of a binary heap. The heuristic is
+ *      computed the same way, by a reverse Dijkstra over a radix heap.
+ * The ksp algorithm always weighs the paths found with the exact weights, but the
+ *      rounding may make the search miss the exact shortest spur path when another
+ *      path is within the rounding error of it. Such searches are counted as
+ *      ambiguous: their ranking may differ from an exact run.
+ */
+public class RadixSearch extends SpurSearch {
+
+    /** distance of the nodes that can't reach the target */
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /** the number of quanta per unit of weight */
+    private double scale;
+    /** the quantized weight of each edge */
+    private long[] weights;
+    /** the distance of each node to the target, the heuristic */
+    private long[] minDists;
+    /** the best distance seen so far for each node */
+    private long[] dists;
+    /** the nodes on the fringe, keyed by heuristic distance */
+    private RadixHeap fringe;
+    /** number of searches whose path may not be the exact shortest path */
+    private int ambiguousSearchCount;
+
+    /**
+     * Default constructor, computes the distances of the nodes to the target
+     * @param graph  the graph to search, with non-negative weights
+     * @param target the target node id of all the searches
+     * @param digits the number of decimal digits of the weights kept
+     */
+    public RadixSearch(GraphSnapshot graph, int target, int digits) {
+        super(graph);
+
+        int n = graph.nodeCount();
+        this.scale = Math.pow(10, digits);
+        this.weights = new long[graph.edgeCount()];
+        for (int e = 0; e < weights.length; e++)
+            weights[e] = graph.isHidden(e) ? 0 : Math.round(graph.weight(e) * scale);
+
+        this.dists = new long[n];
+        this.fringe = new RadixHeap();
+        this.minDists = reverseDistances(target);
+    }
+
+    /**
+     * Returns if the weights of a graph can be quantized: the weights of the edges
+     *      that are not hidden are non-negative, and no path weight overflows a long
+     *      once quantized
+     * @param graph  the graph
+     * @param digits the number of decimal digits of the weights kept
+     * @return true if the graph can be searched with quantized weights, false otherwise
+     */
+    public static boolean canQuantize(GraphSnapshot graph, int digits) {
+        // a simple path has less than nodeCount() edges, with room for the heuristic
+        double maxWeight = Math.pow(2, 61) / Math.pow(10, digits) / Math.max(1, graph.nodeCount());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double weight = graph.weight(e);
+            if (!graph.isHidden(e) && !(weight >= 0 && weight <= maxWeight))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the distance of each node to the target in units of weight, used by
+     *      the ksp algorithm to bound the spur searches. A quantized distance is
+     *      within half a quantum per edge of the exact one, so the distances are
+     *      lowered by the rounding of a path as long as the graph to stay lower bounds
+     * @return the distances, infinity for the nodes that can't reach the target
+     */
+    public double[] getMinDists() {
+        double[] distances = new double[minDists.length];
+        long slack = graph.nodeCount();
+        for (int v = 0; v < distances.length; v++)
+            distances[v] = minDists[v] == UNREACHABLE ? Double.POSITIVE_INFINITY
+                    : Math.max(0, minDists[v] - slack) / scale;
+
+        return distances;
+    }
+
+    /**
+     * Getter method of the number of ambiguous searches
+     * @return number of searches that found a path within the rounding error of another
+     */
+    public int getAmbiguousSearchCount() {
+        return ambiguousSearchCount;
+    }
+
+    /**
+     * Computes the shortest path from source to target with A* on the quantized
+     *      weights, giving up once the path can't be shorter than maxDist
+     * @param source  the source node id
+     * @param target  the target node id
+     * @param maxDist the maximum weight of the path, infinity for no bound
+     * @return the edge ids in order in the path, null if there is no path within maxDist
+     */
+    @Override
+    public int[] shortestPath(int source, int target, double maxDist) {
+        if (source == target)
+            return new int[0];
+        if (minDists[source] == UNREACHABLE)
+            return null;
+
+        nextStamp();
+        fringe.clear();
+
+        // the bound is widened by the rounding of a path as long as the graph
+        long bound = Double.isInfinite(maxDist) ? Long.MAX_VALUE
+                : (long) Math.ceil(maxDist * scale) + graph.nodeCount();
+
+        seen[source] = stamp;
+        dists[source] = 0;
+        predEdges[source] = -1;
+        fringe.push(minDists[source], source, 0);
+
+        while (!fringe.isEmpty()) {
+            long currHeurDist = fringe.topKey();
+            int currNode = fringe.topNode();
+            long currActDist = fringe.topDist();
+            fringe.pop();
+
+            // every remaining path is heavier than the bound
+            if (currHeurDist > bound)
+                return null;
+
+            // skips the stale entries of the nodes that were improved
+            if (done[currNode] == stamp)
+                continue;
+            done[currNode] = stamp;
+
+            if (currNode == target) {
+                int[] path = buildPath(source, target);
+                checkAmbiguity(currHeurDist, path.length);
+                return path;
+            }
+
+            for (int e = graph.outBegin(currNode); e < graph.outEnd(currNode); e++) {
+                if (!canFollow(e))
+                    continue;
+
+                int nextNode = graph.target(e);
+                long heuristic = minDists[nextNode];
+                if (heuristic == UNREACHABLE || done[nextNode] == stamp)
+                    continue;
+
+                long nextActDist = currActDist + weights[e];
+                if (seen[nextNode] != stamp || nextActDist < dists[nextNode]) {
+                    seen[nextNode] = stamp;
+                    dists[nextNode] = nextActDist;
+                    predEdges[nextNode] = e;
+                    fringe.push(nextActDist + heuristic, nextNode, nextActDist);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts the search as ambiguous if any other path could be within the rounding
+     *      error of the path found, which is half a quantum per edge of either path.
+     *      The nodes left on the fringe are lower bounds of the other paths
+     */
+    private void checkAmbiguity(long pathDist, int pathEdges) {
+        while (!fringe.isEmpty() && done[fringe.topNode()] == stamp)
+            fringe.pop();
+
+        if (!fringe.isEmpty() && fringe.topKey() <= pathDist + pathEdges)
+            ambiguousSearchCount++;
+    }
+
+    /**
+     * Computes the distance of every node to the target with Dijkstra's algorithm
+     *      over a radix heap, following the edges that are not hidden backwards
+     */
+    private long[] reverseDistances(int target) {
+        long[] distances = new long[graph.nodeCount()];
+        Arrays.fill(distances, UNREACHABLE);
+        distances[target] = 0;
+
+        RadixHeap queue = new RadixHeap();
+        queue.push(0, target, 0);
+
+        while (!queue.isEmpty()) {
+            int current = queue.topNode();
+            long currentDist = queue.topDist();
+            queue.pop();
+
+            // skips the stale entries of nodes that were improved
+            if (currentDist > distances[current])
+                continue;
+
+            for (int i = graph.inBegin(current); i < graph.inEnd(current); i++) {
+                int e = graph.inEdge(i);
+                if (graph.isHidden(e))
+                    continue;
+
+                int neighbor = graph.source(e);
+                long newCost = currentDist + weights[e];
+                if (newCost < distances[neighbor]) {
+                    distances[neighbor] = newCost;
+                    queue.push(newCost, neighbor, newCost);
+                }
+            }
+        }
+
+        return distances;
+    }
+}
@@ -0,0 +1,267 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * Statistics of a PathLinker run: the size of the graph built from the network
+ *      and how much of it was left for the ksp algorithm to search after the
+ *      nodes that lie on no source-target path were pruned, and the linear
+ *      chains were optionally contracted.
+ * The counts leave out the super source, the super target and their edges.
+ */
+@ApiModel(value="Run Statistics",
+description="Size of the graph searched by the algorithm")
+public class RunStatistics {
+
+    /** number of nodes in the graph built from the network */
+    private int nodeCount;
+    /** number of edges in the graph built from the network */
+    private int edgeCount;
+    /** number of nodes left to search after pruning */
+    private int searchedNodeCount;
+    /** number of edges left to search after pruning */
+    private int searchedEdgeCount;
+    /** number of nodes folded into the edges of the searched graph */
+    private int contractedNodeCount;
+    /** whether or not the graph built from the network was reused from a previous run */
+    private boolean cachedSnapshot;
+    /** whether or not the distances to the targets were reused from a previous run */
+    private boolean cachedDistances;
+    /** whether or not the searched graph has no cycle */
+    private boolean acyclic;
+    /** the algorithm used to compute the paths */
+    private KspEngine engine;
+    /** number of spur searches run by Yen's algorithm */
+    private int spurSearchCount;
+    /** number of spur searches on quantized weights whose path may not be the shortest */
+    private int ambiguousSearchCount;
+    /** number of nodes whose distance to the target was computed for the heuristic */
+    private int heuristicNodeCount;
+
+    /**
+     * Getter method for nodeCount
+     * @return nodeCount
+     */
+    @ApiModelProperty(value = "The number of nodes in the graph built from the network", example = "100")
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Setter method for nodeCount
+     * @param nodeCount the number of nodes in the graph built from the network
+     */
+    public void setNodeCount(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Getter method for edgeCount
+     * @return edgeCount
+     */
+    @ApiModelProperty(value = "The number of directed edges in the graph built from the network. "
+            + "Undirected edges count once in each direction", example = "250")
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Setter method for edgeCount
+     * @param edgeCount the number of edges in the graph built from the network
+     */
+    public void setEdgeCount(int edgeCount) {
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Getter method for searchedNodeCount
+     * @return searchedNodeCount
+     */
+    @ApiModelProperty(value = "The number of nodes that are both reachable from a source and reaching a target, "
+            + "which are the only nodes searched by the algorithm", example = "40")
+    public int getSearchedNodeCount() {
+        return searchedNodeCount;
+    }
+
+    /**
+     * Setter method for searchedNodeCount
+     * @param searchedNodeCount the number of nodes left to search after pruning
+     */
+    public void setSearchedNodeCount(int searchedNodeCount) {
+        this.searchedNodeCount = searchedNodeCount;
+    }
+
+    /**
+     * Getter method for searchedEdgeCount
+     * @return searchedEdgeCount
+     */
+    @ApiModelProperty(value = "The number of edges between the searched nodes", example = "90")
+    public int getSearchedEdgeCount() {
+        return searchedEdgeCount;
+    }
+
+    /**
+     * Setter method for searchedEdgeCount
+     * @param searchedEdgeCount the number of edges left to search after pruning
+     */
+    public void setSearchedEdgeCount(int searchedEdgeCount) {
+        this.searchedEdgeCount = searchedEdgeCount;
+    }
+
+    /**
+     * Getter method for contractedNodeCount
+     * @return contractedNodeCount
+     */
+    @ApiModelProperty(value = "The number of searched nodes on linear chains that were contracted into single edges. "
+            + "0 unless contractChains is set", example = "12")
+    public int getContractedNodeCount() {
+        return contractedNodeCount;
+    }
+
+    /**
+     * Setter method for contractedNodeCount
+     * @param contractedNodeCount the number of nodes folded into the edges of the searched graph
+     */
+    public void setContractedNodeCount(int contractedNodeCount) {
+        this.contractedNodeCount = contractedNodeCount;
+    }
+
+    /**
+     * Getter method for cachedSnapshot
+     * @return cachedSnapshot
+     */
+    @ApiModelProperty(value = "Whether or not the graph built from the network was reused from a previous run "
+            + "on the same network and edge weight options", example = "true")
+    public boolean isCachedSnapshot() {
+        return cachedSnapshot;
+    }
+
+    /**
+     * Setter method for cachedSnapshot
+     * @param cachedSnapshot whether or not the graph built from the network was reused from a previous run
+     */
+    public void setCachedSnapshot(boolean cachedSnapshot) {
+        this.cachedSnapshot = cachedSnapshot;
+    }
+
+    /**
+     * Getter method for the pruning ratio
+     * @return the fraction of the nodes pruned before running the algorithm
+     */
+    @ApiModelProperty(value = "The fraction of the nodes pruned before running the algorithm", example = "0.6")
+    public double getPruningRatio() {
+        return nodeCount == 0 ? 0. : 1. - (double) searchedNodeCount / nodeCount;
+    }
+
+    /**
+     * Getter method for cachedDistances
+     * @return cachedDistances
+     */
+    @ApiModelProperty(value = "Whether or not the distances of the nodes to the targets, the heuristic of the "
+            + "spur searches, were reused from a previous run on the same network with the same targets", example = "false")
+    public boolean isCachedDistances() {
+        return cachedDistances;
+    }
+
+    /**
+     * Setter method for cachedDistances
+     * @param cachedDistances whether or not the distances to the targets were reused from a previous run
+     */
+    public void setCachedDistances(boolean cachedDistances) {
+        this.cachedDistances = cachedDistances;
+    }
+
+    /**
+     * Getter method for acyclic
+     * @return acyclic
+     */
+    @ApiModelProperty(value = "Whether or not the searched graph is acyclic, "
+            + "not counting the edges into sources and out of targets", example = "true")
+    public boolean isAcyclic() {
+        return acyclic;
+    }
+
+    /**
+     * Setter method for acyclic
+     * @param acyclic whether or not the searched graph has no cycle
+     */
+    public void setAcyclic(boolean acyclic) {
+        this.acyclic = acyclic;
+    }
+
+    /**
+     * Getter method for engine
+     * @return engine
+     */
+    @ApiModelProperty(value = "The algorithm used to compute the paths. "
+            + "DAG if the searched graph is acyclic, otherwise BUCKET if the weights are integers, "
+            + "RADIX if quantizeWeights is set and the weights are non-negative, YEN otherwise", example = "YEN")
+    public KspEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setter method for engine
+     * @param engine the algorithm used to compute the paths
+     */
+    public void setEngine(KspEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Getter method for spurSearchCount
+     * @return spurSearchCount
+     */
+    @ApiModelProperty(value = "The number of shortest path searches run by Yen's algorithm. "
+            + "0 for the DAG engine", example = "350")
+    public int getSpurSearchCount() {
+        return spurSearchCount;
+    }
+
+    /**
+     * Setter method for spurSearchCount
+     * @param spurSearchCount the number of spur searches run by Yen's algorithm
+     */
+    public void setSpurSearchCount(int spurSearchCount) {
+        this.spurSearchCount = spurSearchCount;
+    }
+
+    /**
+     * Getter method for ambiguousSearchCount
+     * @return ambiguousSearchCount
+     */
+    @ApiModelProperty(value = "The number of searches of the RADIX engine that found a path within the rounding "
+            + "error of another path, whose rank may differ from an exact run. "
+            + "If not 0, increase quantizationDigits or run without quantizeWeights", example = "0")
+    public int getAmbiguousSearchCount() {
+        return ambiguousSearchCount;
+    }
+
+    /**
+     * Setter method for ambiguousSearchCount
+     * @param ambiguousSearchCount the number of quantized searches whose path may not be the shortest
+     */
+    public void setAmbiguousSearchCount(int ambiguousSearchCount) {
+        this.ambiguousSearchCount = ambiguousSearchCount;
+    }
+
+    /**
+     * Getter method for heuristicNodeCount
+     * @return heuristicNodeCount
+     */
+    @ApiModelProperty(value = "The number of nodes whose distance to the targets was computed for the heuristic "
+            + "of the spur searches. The YEN engine computes the distances on demand, so this is usually "
+            + "less than searchedNodeCount. 0 for the DAG engine", example = "120")
+    public int getHeuristicNodeCount() {
+        return heuristicNodeCount;
+    }
+
+    /**
+     * Setter method for heuristicNodeCount
+     * @param heuristicNodeCount the number of nodes whose distance to the target was computed
+     */
+    public void setHeuristicNodeCount(int heuristicNodeCount) {
+        this.heuristicNodeCount = heuristicNodeCount;
+    }
+}
@@ -0,0 +1,332 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Builds the snapshot PathLinker runs on from the edges of a network, read as
+ *      node ids and weights. The edges become the stored edges of the snapshot as follows:
+ *      1. multiple edges from a node to another are merged into one edge with the
+ *         average of their weights, as PathLinker is not compatible with multigraphs.
+ *         An edge that can be followed both ways, such as an undirected edge, counts
+ *         in each direction
+ *      2. the edge penalty is applied to the weights, which are then log transformed
+ *         for the probability option
+ *      3. the two directions between a pair of nodes are stored once, as a bidirected
+ *         edge, when their weights are the same, which they are for a single undirected
+ *         edge. Otherwise each direction is stored on its own
+ * The snapshot doesn't depend on the sources and targets, which are attached to the
+ *      super nodes by GraphSnapshot.prune, so it can be cached per network.
+ * On large networks the edges are read in parallel on the fork/join common pool.
+ *      The edge list is split in partitions, each grouping its edges once by their
+ *      smaller node id into a CSR fragment. The fragments are then merged by ranges
+ *      of nodes, merging the multiple edges and transforming the weights in the same
+ *      pass, and the ranges are concatenated. The stored edges are in the order of
+ *      their smaller node, then of the edge list, and the weights of multiple edges
+ *      are summed in that order, so the snapshot is the same for any number of partitions.
+ */
+public class SnapshotBuilder {
+
+    /** number of network edges from which the snapshot is built in parallel */
+    private static final int PARALLEL_EDGE_COUNT = 1 << 16;
+    /** the direction of a fragment edge from the node it is grouped by to its other node */
+    private static final byte FORWARD = 1;
+    /** the direction of a fragment edge from its other node to the node it is grouped by */
+    private static final byte BACKWARD = 2;
+
+    /** the node of each node id */
+    private CyNode[] nodes;
+    /** the source node id of each network edge */
+    private int[] sources;
+    /** the target node id of each network edge */
+    private int[] targets;
+    /** the weight of each network edge */
+    private double[] weights;
+    /** the network edges that can be followed both ways */
+    private BitSet bidirected;
+    /** the edge weight type to transform the weights for, null to keep them */
+    private EdgeWeightType edgeWeightType;
+    /** the value by which to penalize each edge weight */
+    private double edgePenalty;
+
+    /**
+     * Default constructor
+     * @param nodes      the node of each node id
+     * @param sources    the source node id of each network edge
+     * @param targets    the target node id of each network edge
+     * @param weights    the weight of each network edge
+     * @param bidirected the network edges that can be followed both ways
+     */
+    public SnapshotBuilder(CyNode[] nodes, int[] sources, int[] targets, double[] weights, BitSet bidirected) {
+        this.nodes = nodes;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+        this.bidirected = bidirected;
+    }
+
+    /**
+     * Setter method of the edge weight transform
+     * @param edgeWeightType the edge weight type: the penalty is added for ADDITIVE, and divides
+     *                       the weights before the log transform for PROBABILITIES
+     * @param edgePenalty    the value by which to penalize each edge weight
+     */
+    public void setEdgePenalty(EdgeWeightType edgeWeightType, double edgePenalty) {
+        this.edgeWeightType = edgeWeightType;
+        this.edgePenalty = edgePenalty;
+    }
+
+    /**
+     * Builds the snapshot, in parallel if the network is large
+     * @return the snapshot
+     */
+    public GraphSnapshot build() {
+        int partitionCount = sources.length < PARALLEL_EDGE_COUNT ? 1 : ForkJoinPool.getCommonPoolParallelism();
+        return build(partitionCount);
+    }
+
+    /**
+     * Builds the snapshot, splitting the edges and nodes in the given number of partitions
+     * @param partitionCount the number of partitions, which doesn't change the snapshot
+     * @return the snapshot
+     */
+    public GraphSnapshot build(int partitionCount) {
+        int n = nodes.length;
+        int m = sources.length;
+        int partitions = Math.max(1, Math.min(partitionCount, Math.max(m, n)));
+
+        Fragment[] fragments = new Fragment[partitions];
+        for (int p = 0; p < partitions; p++)
+            fragments[p] = new Fragment((int) ((long) m * p / partitions), (int) ((long) m * (p + 1) / partitions));
+        ForkJoinTask.invokeAll(fragments);
+
+        NodeRange[] ranges = new NodeRange[partitions];
+        for (int p = 0; p < partitions; p++)
+            ranges[p] = new NodeRange((int) ((long) n * p / partitions), (int) ((long) n * (p + 1) / partitions),
+                    fragments);
+        ForkJoinTask.invokeAll(ranges);
+
+        // concatenates the ranges
+        int storedEdgeCount = 0;
+        for (NodeRange range : ranges)
+            storedEdgeCount += range.edgeCount;
+
+        int[] edgeSources = new int[storedEdgeCount];
+        int[] edgeTargets = new int[storedEdgeCount];
+        double[] edgeWeights = new double[storedEdgeCount];
+        BitSet bidirectedEdges = new BitSet(storedEdgeCount);
+        int offset = 0;
+        for (NodeRange range : ranges) {
+            System.arraycopy(range.edgeSources, 0, edgeSources, offset, range.edgeCount);
+            System.arraycopy(range.edgeTargets, 0, edgeTargets, offset, range.edgeCount);
+            System.arraycopy(range.edgeWeights, 0, edgeWeights, offset, range.edgeCount);
+            for (int i = range.bidirected.nextSetBit(0); i >= 0; i = range.bidirected.nextSetBit(i + 1))
+                bidirectedEdges.set(offset + i);
+            offset += range.edgeCount;
+        }
+
+        return new GraphSnapshot(nodes, edgeSources, edgeTargets, edgeWeights, bidirectedEdges, null);
+    }
+
+    /**
+     * Applies the edge penalty to a weight, then log transforms it for the probability option.
+     *      The multiplicative penalty penalizes the score of every path by a factor equal to
+     *      (the number of edges in the path)^(this factor), the additive penalty by (the number
+     *      of edges in the path)*(this factor)
+     * @param w the average weight of an edge
+     * @return the weight of the edge to be used by the algorithm
+     */
+    private double transform(double w) {
+        if (edgeWeightType == EdgeWeightType.PROBABILITIES) {
+            if (edgePenalty != 1.0)
+                w = w / edgePenalty;
+            return -1 * Math.log(Math.max(0.000000001, w)) / Math.log(10);
+        }
+        if (edgeWeightType == EdgeWeightType.ADDITIVE && edgePenalty != 0)
+            return w + edgePenalty;
+
+        return w;
+    }
+
+    /**
+     * The edges of a partition of the edge list grouped by their smaller node, with
+     *      the directions they are followed in
+     */
+    private class Fragment extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** the first network edge of the partition */
+        private final int from;
+        /** the network edge following the partition */
+        private final int to;
+        /** the first edge position of each node, followed by the number of edges */
+        private int[] offsets;
+        /** the other node id of each edge */
+        private int[] edgeEnds;
+        /** the weight of each edge */
+        private double[] edgeWeights;
+        /** the directions of each edge, FORWARD, BACKWARD or both */
+        private byte[] edgeDirections;
+
+        /**
+         * Default constructor
+         * @param from the first network edge of the partition
+         * @param to   the network edge following the partition
+         */
+        private Fragment(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = nodes.length;
+
+            // counting sort of the edges by smaller node
+            offsets = new int[n + 1];
+            for (int i = from; i < to; i++)
+                offsets[Math.min(sources[i], targets[i]) + 1]++;
+            for (int v = 0; v < n; v++)
+                offsets[v + 1] += offsets[v];
+
+            edgeEnds = new int[offsets[n]];
+            edgeWeights = new double[offsets[n]];
+            edgeDirections = new byte[offsets[n]];
+            int[] next = new int[n];
+            System.arraycopy(offsets, 0, next, 0, n);
+            for (int i = from; i < to; i++) {
+                boolean forward = sources[i] <= targets[i];
+                int e = next[forward ? sources[i] : targets[i]]++;
+                edgeEnds[e] = forward ? targets[i] : sources[i];
+                edgeWeights[e] = weights[i];
+                edgeDirections[e] = bidirected.get(i) ? FORWARD | BACKWARD : forward ? FORWARD : BACKWARD;
+            }
+        }
+    }
+
+    /**
+     * The merged edges of a range of nodes, from all the fragments, stored from the
+     *      node of the range or to it
+     */
+    private class NodeRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** the first node of the range */
+        private final int from;
+        /** the node following the range */
+        private final int to;
+        /** the fragments of the edge list, in order */
+        private final Fragment[] fragments;
+        /** number of stored edges of the range */
+        private int edgeCount;
+        /** the source node id of each stored edge */
+        private int[] edgeSources;
+        /** the target node id of each stored edge */
+        private int[] edgeTargets;
+        /** the weight of each stored edge */
+        private double[] edgeWeights;
+        /** the stored edges followed both ways */
+        private BitSet bidirected;
+
+        /**
+         * Default constructor
+         * @param from      the first node of the range
+         * @param to        the node following the range
+         * @param fragments the fragments of the edge list, in order
+         */
+        private NodeRange(int from, int to, Fragment[] fragments) {
+            this.from = from;
+            this.to = to;
+            this.fragments = fragments;
+        }
+
+        @Override
+        protected void compute() {
+            int capacity = 0;
+            for (Fragment fragment : fragments)
+                capacity += fragment.offsets[to] - fragment.offsets[from];
+
+            // the sums and counts of the weights of each direction between a node
+            // of the range and each of its larger neighbors, the position of each pair
+            // being mapped from the pair packed in a long
+            int[] pairEnds = new int[capacity];
+            double[] forwardSums = new double[capacity];
+            int[] forwardCounts = new int[capacity];
+            double[] backwardSums = new double[capacity];
+            int[] backwardCounts = new int[capacity];
+            LongIndexMap positions = new LongIndexMap(capacity);
+            int pairCount = 0;
+
+            edgeSources = new int[2 * capacity];
+            edgeTargets = new int[2 * capacity];
+            edgeWeights = new double[2 * capacity];
+            bidirected = new BitSet();
+
+            for (int v = from; v < to; v++) {
+                int firstPair = pairCount;
+
+                // merges the multiple edges between the same nodes, summing their weights
+                for (Fragment fragment : fragments) {
+                    for (int i = fragment.offsets[v]; i < fragment.offsets[v + 1]; i++) {
+                        int end = fragment.edgeEnds[i];
+                        int p = positions.putIfAbsent((long) v << 32 | end, pairCount);
+                        if (p < 0) {
+                            p = pairCount++;
+                            pairEnds[p] = end;
+                        }
+
+                        if ((fragment.edgeDirections[i] & FORWARD) != 0) {
+                            forwardSums[p] += fragment.edgeWeights[i];
+                            forwardCounts[p]++;
+                        }
+                        if ((fragment.edgeDirections[i] & BACKWARD) != 0) {
+                            backwardSums[p] += fragment.edgeWeights[i];
+                            backwardCounts[p]++;
+                        }
+                    }
+                }
+
+                for (int p = firstPair; p < pairCount; p++) {
+                    int end = pairEnds[p];
+
+                    // both directions of a self-loop are the same edge
+                    if (end == v) {
+                        forwardSums[p] += backwardSums[p];
+                        forwardCounts[p] += backwardCounts[p];
+                        backwardCounts[p] = 0;
+                    }
+
+                    double forward = forwardCounts[p] == 0 ? Double.NaN : transform(forwardSums[p] / forwardCounts[p]);
+                    double backward = backwardCounts[p] == 0 ? Double.NaN : transform(backwardSums[p] / backwardCounts[p]);
+                    if (forward == backward) {
+                        bidirected.set(edgeCount);
+                        store(v, end, forward);
+                        continue;
+                    }
+
+                    if (forwardCounts[p] > 0)
+                        store(v, end, forward);
+                    if (backwardCounts[p] > 0)
+                        store(end, v, backward);
+                }
+            }
+        }
+
+        /**
+         * Adds a stored edge to the range
+         * @param source the source node id
+         * @param target the target node id
+         * @param weight the weight
+         */
+        private void store(int source, int target, double weight) {
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeWeights[edgeCount] = weight;
+            edgeCount++;
+        }
+    }
+}
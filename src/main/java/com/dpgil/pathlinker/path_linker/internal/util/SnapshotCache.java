@@ -0,0 +1,358 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.event.CyEventHelper;
+
+/**
+ * Cache of the graph snapshots built from the networks, so that back-to-back runs
+ *      on the same network skip reading the edge table and building the snapshot.
+ *      A snapshot is kept for a network, edge weight column, direction, edge weight
+ *      type, edge penalty and storage, before the sources and targets are attached to
+ *      it. It is cached once moved to its storage, so a run hitting the cache doesn't
+ *      copy it again.
+ * Each network has a version, increased by the listeners whenever its edges or the
+ *      values of an edge weight column in use change. A snapshot built while the
+ *      network changed is not cached, and the snapshots of a network are dropped
+ *      when its version increases. The least recently used snapshots are dropped
+ *      past MAX_SNAPSHOTS.
+ * The distances of the nodes of a cached snapshot to a set of targets, the heuristic
+ *      of the spur searches, are cached as well, so that runs with the same targets
+ *      and other sources skip computing them again. They are dropped with their
+ *      snapshot, and the least recently used ones past MAX_DISTANCE_BYTES.
+ * Cytoscape delivers the added and removed nodes and edges and the set rows to the
+ *      listeners in batches, some time after the changes, so the pending events are
+ *      flushed before a lookup for it to see the changes made just before a run.
+ */
+public class SnapshotCache {
+
+    /** number of snapshots kept at most */
+    private static final int MAX_SNAPSHOTS = 8;
+    /** estimated memory used by the cached target distances at most */
+    private static final long MAX_DISTANCE_BYTES = 64L << 20;
+
+    /** the cached snapshots, the least recently used first */
+    private final LinkedHashMap<Key, GraphSnapshot> snapshots = new LinkedHashMap<Key, GraphSnapshot>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, GraphSnapshot> eldest) {
+            if (size() <= MAX_SNAPSHOTS)
+                return false;
+
+            removeDistances(eldest.getValue());
+            return true;
+        }
+    };
+    /** the cached target distances, the least recently used first */
+    private final LinkedHashMap<DistanceKey, TargetDistances> distances =
+            new LinkedHashMap<DistanceKey, TargetDistances>(16, 0.75f, true);
+    /** the estimated memory used by the cached target distances */
+    private long distanceBytes;
+    /** the version of each network */
+    private final Map<Long, Long> versions = new HashMap<Long, Long>();
+    /** the edge weight columns of each network read by the cached snapshots */
+    private final Map<Long, Set<String>> columns = new HashMap<Long, Set<String>>();
+    /** the event helper flushing the pending events, null for none */
+    private final CyEventHelper eventHelper;
+
+    /**
+     * Default constructor, for a cache told of the changes as they are made
+     */
+    public SnapshotCache() {
+        this(null);
+    }
+
+    /**
+     * Constructor flushing the pending events of the networks before the lookups
+     * @param eventHelper the Cytoscape event helper
+     */
+    public SnapshotCache(CyEventHelper eventHelper) {
+        this.eventHelper = eventHelper;
+    }
+
+    /**
+     * Delivers the pending events of the networks to the listeners, so that the
+     *      snapshots of the networks changed since are dropped. To be called before
+     *      a lookup, outside of the lock of the cache the listeners take
+     */
+    public void flushEvents() {
+        if (eventHelper != null)
+            eventHelper.flushPayloadEvents();
+    }
+
+    /**
+     * Getter method of the version of a network. The version is to be read before
+     *      reading the network, and given back when caching its snapshot
+     * @param networkSUID the SUID of the network
+     * @param column      the edge weight column about to be read, null for none
+     * @return the version of the network
+     */
+    public synchronized long getVersion(Long networkSUID, String column) {
+        if (column != null) {
+            if (!columns.containsKey(networkSUID))
+                columns.put(networkSUID, new HashSet<String>());
+            columns.get(networkSUID).add(column);
+        }
+
+        Long version = versions.get(networkSUID);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Getter method of a cached snapshot
+     * @param key the network and options the snapshot was built for
+     * @return the snapshot of the current version of the network, null if not cached
+     */
+    public synchronized GraphSnapshot get(Key key) {
+        return snapshots.get(key);
+    }
+
+    /**
+     * Checks if a snapshot read from an edge weight column of a network is cached. As
+     *      no snapshot is built from an edge without weight, every edge of the network
+     *      then has a weight in the column
+     * @param networkSUID the SUID of the network
+     * @param column      the edge weight column
+     * @return true if a snapshot of the current version of the network read the column
+     */
+    public synchronized boolean hasSnapshot(Long networkSUID, String column) {
+        for (Key key : snapshots.keySet()) {
+            if (key.networkSUID.equals(networkSUID) && column.equals(key.column))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Caches a snapshot, unless the network changed since the given version
+     * @param key      the network and options the snapshot was built for
+     * @param version  the version of the network read before building the snapshot
+     * @param snapshot the snapshot
+     */
+    public synchronized void put(Key key, long version, GraphSnapshot snapshot) {
+        if (getVersion(key.networkSUID, null) == version)
+            snapshots.put(key, snapshot);
+    }
+
+    /**
+     * Takes the cached distances of the nodes of a snapshot to a set of targets out of
+     *      the cache, for a run to compute them further without sharing them. The run
+     *      gives them back with putDistances once over
+     * @param snapshot the cached snapshot
+     * @param targets  the target node ids, in any order
+     * @return the distances, null if not cached
+     */
+    public synchronized TargetDistances takeDistances(GraphSnapshot snapshot, int[] targets) {
+        TargetDistances cached = distances.remove(new DistanceKey(snapshot, targets));
+        if (cached != null)
+            distanceBytes -= cached.getMemorySize();
+        return cached;
+    }
+
+    /**
+     * Caches the distances of the nodes of a snapshot to a set of targets, unless the
+     *      snapshot is no longer cached. Drops the least recently used distances past
+     *      MAX_DISTANCE_BYTES
+     * @param snapshot    the snapshot the distances were computed on
+     * @param targets     the target node ids, in any order
+     * @param targetDists the distances
+     */
+    public synchronized void putDistances(GraphSnapshot snapshot, int[] targets, TargetDistances targetDists) {
+        if (!snapshots.containsValue(snapshot))
+            return;
+
+        TargetDistances replaced = distances.put(new DistanceKey(snapshot, targets), targetDists);
+        if (replaced != null)
+            distanceBytes -= replaced.getMemorySize();
+        distanceBytes += targetDists.getMemorySize();
+
+        Iterator<TargetDistances> eldest = distances.values().iterator();
+        while (distanceBytes > MAX_DISTANCE_BYTES && eldest.hasNext()) {
+            distanceBytes -= eldest.next().getMemorySize();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Getter method of the edge weight columns read for a network
+     * @param networkSUID the SUID of the network
+     * @return a copy of the column names
+     */
+    public synchronized Set<String> getColumns(Long networkSUID) {
+        Set<String> watched = columns.get(networkSUID);
+        return watched == null ? new HashSet<String>() : new HashSet<String>(watched);
+    }
+
+    /**
+     * Checks if the snapshots of a network read an edge weight column
+     * @param networkSUID the SUID of the network
+     * @param column      the column name
+     * @return true if the column was read for the network
+     */
+    public synchronized boolean isWatched(Long networkSUID, String column) {
+        Set<String> watched = columns.get(networkSUID);
+        return watched != null && watched.contains(column);
+    }
+
+    /**
+     * Increases the version of a network after a change, dropping its snapshots
+     * @param networkSUID the SUID of the network
+     */
+    public synchronized void invalidate(Long networkSUID) {
+        versions.put(networkSUID, getVersion(networkSUID, null) + 1);
+        removeSnapshots(networkSUID);
+    }
+
+    /**
+     * Forgets a network about to be destroyed
+     * @param networkSUID the SUID of the network
+     */
+    public synchronized void remove(Long networkSUID) {
+        versions.remove(networkSUID);
+        columns.remove(networkSUID);
+        removeSnapshots(networkSUID);
+    }
+
+    /**
+     * Drops the snapshots of a network
+     * @param networkSUID the SUID of the network
+     */
+    private void removeSnapshots(Long networkSUID) {
+        Iterator<Map.Entry<Key, GraphSnapshot>> entries = snapshots.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, GraphSnapshot> entry = entries.next();
+            if (entry.getKey().networkSUID.equals(networkSUID)) {
+                removeDistances(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the target distances of a snapshot
+     * @param snapshot the snapshot
+     */
+    private void removeDistances(GraphSnapshot snapshot) {
+        Iterator<Map.Entry<DistanceKey, TargetDistances>> entries = distances.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<DistanceKey, TargetDistances> entry = entries.next();
+            if (entry.getKey().snapshot == snapshot) {
+                distanceBytes -= entry.getValue().getMemorySize();
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * The network and options a snapshot is built for
+     */
+    public static class Key {
+        /** the SUID of the network */
+        private final Long networkSUID;
+        /** the edge weight column, null for the unweighted option */
+        private final String column;
+        /** whether or not every edge is followed both ways */
+        private final boolean undirected;
+        /** the edge weight type */
+        private final EdgeWeightType edgeWeightType;
+        /** the edge penalty, 0 for the unweighted option */
+        private final double edgePenalty;
+        /** where the snapshot is kept */
+        private final SnapshotStorage storage;
+
+        /**
+         * Default constructor
+         * @param networkSUID    the SUID of the network
+         * @param column         the edge weight column, ignored for the unweighted option
+         * @param undirected     whether or not every edge is followed both ways
+         * @param edgeWeightType the edge weight type
+         * @param edgePenalty    the edge penalty, ignored for the unweighted option
+         * @param storage        where the snapshot is kept
+         */
+        public Key(Long networkSUID, String column, boolean undirected, EdgeWeightType edgeWeightType,
+                double edgePenalty, SnapshotStorage storage) {
+            boolean weighted = edgeWeightType != EdgeWeightType.UNWEIGHTED;
+            this.networkSUID = networkSUID;
+            this.column = weighted ? column : null;
+            this.undirected = undirected;
+            this.edgeWeightType = edgeWeightType;
+            this.edgePenalty = weighted ? edgePenalty : 0;
+            this.storage = storage;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+            return networkSUID.equals(key.networkSUID)
+                    && (column == null ? key.column == null : column.equals(key.column))
+                    && undirected == key.undirected && edgeWeightType == key.edgeWeightType
+                    && Double.compare(edgePenalty, key.edgePenalty) == 0 && storage == key.storage;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = networkSUID.hashCode();
+            hash = 31 * hash + (column == null ? 0 : column.hashCode());
+            hash = 31 * hash + (undirected ? 1 : 0);
+            hash = 31 * hash + (edgeWeightType == null ? 0 : edgeWeightType.hashCode());
+            hash = 31 * hash + Double.valueOf(edgePenalty).hashCode();
+            return 31 * hash + (storage == null ? 0 : storage.hashCode());
+        }
+    }
+
+    /**
+     * The snapshot and targets the distances are computed for. The snapshot is that of
+     *      a version of a network, so the distances are dropped with it as the network
+     *      changes. The edges out of the targets hidden or not give the same distances,
+     *      and the edges into the sources are left out of the snapshot, so the
+     *      distances are kept for runs with any sources and either option
+     */
+    private static class DistanceKey {
+        /** the snapshot, compared by identity */
+        private final GraphSnapshot snapshot;
+        /** the target node ids in increasing order, without duplicates */
+        private final int[] targets;
+
+        /**
+         * Default constructor
+         * @param snapshot the snapshot
+         * @param targets  the target node ids, in any order
+         */
+        private DistanceKey(GraphSnapshot snapshot, int[] targets) {
+            this.snapshot = snapshot;
+            int[] sorted = targets.clone();
+            Arrays.sort(sorted);
+            int count = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                    sorted[count++] = sorted[i];
+            }
+            this.targets = Arrays.copyOf(sorted, count);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DistanceKey))
+                return false;
+
+            DistanceKey key = (DistanceKey) o;
+            return snapshot == key.snapshot && Arrays.equals(targets, key.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(snapshot) + Arrays.hashCode(targets);
+        }
+    }
+}
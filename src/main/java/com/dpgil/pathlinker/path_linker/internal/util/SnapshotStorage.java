@@ -0,0 +1,23 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+/**
+ * Where the adjacency and weights of the graph snapshot are kept
+ * Used by PathLinkerModel class, see GraphSnapshot.toOffHeap
+ */
+public enum SnapshotStorage {
+
+	/**
+	 * Java arrays on the heap, the default
+	 */
+	HEAP,
+
+	/**
+	 * Direct buffers allocated out of the heap
+	 */
+	DIRECT,
+
+	/**
+	 * Buffers mapped from a temporary file, which the operating system can page out
+	 */
+	MAPPED
+}
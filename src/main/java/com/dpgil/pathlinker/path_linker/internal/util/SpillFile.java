@@ -0,0 +1,238 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A temporary file used to spill data that would not fit on the heap.
+ *      The file is memory-mapped in fixed size segments which are added as the file grows.
+ *      Values are read and written through separate read and write positions,
+ *      so data can be compacted in place by reading ahead of the write position.
+ *      Integers are written as unsigned varints to keep the file compact, or as
+ *      fixed size ints at a given position for records updated in place.
+ */
+public class SpillFile {
+
+    /** number of bits addressing a byte within a segment */
+    private static final int SEGMENT_BITS = 26;
+    /** size in bytes of each memory-mapped segment */
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    /** mask of the position within a segment */
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /** the temporary file */
+    private File file;
+    /** the file opened for read and write */
+    private RandomAccessFile randomAccessFile;
+    /** the channel used to map the segments */
+    private FileChannel channel;
+    /** the memory-mapped segments of the file in order */
+    private List<MappedByteBuffer> segments;
+    /** the position of the next read */
+    private long readPosition;
+    /** the position of the next write */
+    private long writePosition;
+
+    /**
+     * Default constructor, creates the temporary file
+     * @param prefix the prefix of the temporary file name
+     */
+    public SpillFile(String prefix) {
+        try {
+            file = File.createTempFile(prefix, ".spill");
+            file.deleteOnExit();
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create the spill file", e);
+        }
+
+        segments = new ArrayList<MappedByteBuffer>();
+    }
+
+    /**
+     * Getter method of the read position
+     * @return the position of the next read
+     */
+    public long getReadPosition() {
+        return readPosition;
+    }
+
+    /**
+     * Setter method of the read position
+     * @param readPosition the position of the next read
+     */
+    public void setReadPosition(long readPosition) {
+        this.readPosition = readPosition;
+    }
+
+    /**
+     * Getter method of the write position
+     * @return the position of the next write
+     */
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Setter method of the write position
+     * @param writePosition the position of the next write
+     */
+    public void setWritePosition(long writePosition) {
+        this.writePosition = writePosition;
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned varint at the write position
+     * @param value the value to write
+     */
+    public void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint at the read position
+     * @return the value read
+     */
+    public long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    /**
+     * Writes the exact bits of a double at the write position
+     * @param value the value to write
+     */
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        for (int i = 0; i < 8; i++)
+            writeByte((byte) (bits >>> (8 * i)));
+    }
+
+    /**
+     * Reads a double at the read position
+     * @return the value read
+     */
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++)
+            bits |= (long) (readByte() & 0xFF) << (8 * i);
+
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Writes an int at a given position, leaving the write position unchanged.
+     *      The position must be a multiple of 4, so the int lies within one segment
+     * @param position the position of the int
+     * @param value    the value to write
+     */
+    public void writeInt(long position, int value) {
+        segment(position).putInt((int) (position & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Reads an int at a given position, leaving the read position unchanged
+     * @param position the position of the int, a multiple of 4
+     * @return the value read
+     */
+    public int readInt(long position) {
+        return segment(position).getInt((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Unmaps the segments and deletes the temporary file. The segments are
+     *      unmapped right away rather than when they are garbage collected,
+     *      so the file can be deleted and its pages freed at once
+     */
+    public void close() {
+        for (MappedByteBuffer segment : segments)
+            unmap(segment);
+        segments.clear();
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            // the file is deleted on exit anyway
+        }
+        file.delete();
+    }
+
+    /**
+     * Releases the memory mapping of a segment, through the cleaner of the
+     *      buffer on Java 8 or Unsafe.invokeCleaner from Java 9. Left to the
+     *      garbage collector if neither is available
+     */
+    private static void unmap(MappedByteBuffer segment) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = segment.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(segment);
+                if (cleaner != null)
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                return;
+            }
+
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), segment);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // the segment is unmapped once it is garbage collected
+        }
+    }
+
+    private void writeByte(byte b) {
+        segment(writePosition).put((int) (writePosition & SEGMENT_MASK), b);
+        writePosition++;
+    }
+
+    private byte readByte() {
+        byte b = segment(readPosition).get((int) (readPosition & SEGMENT_MASK));
+        readPosition++;
+        return b;
+    }
+
+    /**
+     * Returns the segment containing the given position, mapping new segments
+     *      at the end of the file if needed
+     */
+    private MappedByteBuffer segment(long position) {
+        int index = (int) (position >>> SEGMENT_BITS);
+        try {
+            while (segments.size() <= index) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map the spill file", e);
+        }
+
+        return segments.get(index);
+    }
+}
@@ -0,0 +1,166 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyNode;
+
+import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
+
+/**
+ * The result paths of a ksp run spilled to disk, read back one path at a time.
+ *      Only the position of each path in the file and the nodes used by the paths
+ *      are kept on the heap, so the result is never held as a whole list of PathWay.
+ * Each get reads the path anew, and set writes back the weight and approximation
+ *      bound of a path read from this list and moves it to the given rank, which
+ *      is all the sorting and the post-processing of the result need.
+ */
+public class SpilledPathWays extends AbstractList<PathWay> implements Closeable {
+
+    /** the file of the paths, each stored as its weight, its approximation bound
+     *      (NaN for none), its number of nodes and the index of each node */
+    private SpillFile file;
+    /** the position of the path of each rank in the file */
+    private long[] positions;
+    /** number of paths */
+    private int size;
+    /** the nodes used by the paths, by index */
+    private ArrayList<CyNode> nodes;
+    /** the index of each node used by the paths */
+    private HashMap<CyNode, Integer> nodeIndices;
+    /** the map of node names given to each PathWay */
+    private Map<CyNode, String> cyNodeToId;
+
+    /**
+     * Default constructor, creates the file of the paths
+     * @param cyNodeToId the map of the node names given to each path read
+     */
+    public SpilledPathWays(Map<CyNode, String> cyNodeToId) {
+        this.cyNodeToId = cyNodeToId;
+        file = new SpillFile("pathlinker-result");
+        positions = new long[16];
+        nodes = new ArrayList<CyNode>();
+        nodeIndices = new HashMap<CyNode, Integer>();
+    }
+
+    /**
+     * Writes the next path at the end of the list
+     * @param nodeList the list of nodes in order in the path
+     * @param weight   the total weight of the path
+     */
+    public void append(List<CyNode> nodeList, double weight) {
+        if (size == positions.length)
+            positions = Arrays.copyOf(positions, 2 * size);
+        positions[size++] = file.getWritePosition();
+
+        file.writeDouble(weight);
+        file.writeDouble(Double.NaN);
+        file.writeVarLong(nodeList.size());
+        for (CyNode node : nodeList) {
+            Integer index = nodeIndices.get(node);
+            if (index == null) {
+                index = nodes.size();
+                nodes.add(node);
+                nodeIndices.put(node, index);
+            }
+            file.writeVarLong(index);
+        }
+    }
+
+    @Override
+    public PathWay get(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+
+        file.setReadPosition(positions[i]);
+        double weight = file.readDouble();
+        double bound = file.readDouble();
+        int length = (int) file.readVarLong();
+        ArrayList<CyNode> nodeList = new ArrayList<CyNode>(length);
+        for (int j = 0; j < length; j++)
+            nodeList.add(nodes.get((int) file.readVarLong()));
+
+        PathWay path = new PathWay(nodeList, cyNodeToId, weight);
+        path.approximationBound = Double.isNaN(bound) ? null : bound;
+        path.spillPosition = positions[i];
+        return path;
+    }
+
+    /**
+     * Stores a path read from this list at the given rank, with its weight and
+     *      approximation bound
+     * @param i    the rank of the path
+     * @param path a path read by get
+     * @return the path previously at the rank
+     */
+    @Override
+    public PathWay set(int i, PathWay path) {
+        if (path.spillPosition < 0)
+            throw new IllegalArgumentException("The path was not read from the spilled result");
+
+        PathWay previous = get(i);
+        long writePosition = file.getWritePosition();
+        file.setWritePosition(path.spillPosition);
+        file.writeDouble(path.weight);
+        file.writeDouble(path.approximationBound == null ? Double.NaN : path.approximationBound);
+        file.setWritePosition(writePosition);
+
+        positions[i] = path.spillPosition;
+        return previous;
+    }
+
+    /**
+     * Sorts the paths by weight in place, reading only the weight of each path.
+     *      The paths with equal weights are kept in their order, for their runs to
+     *      be sorted by the node names afterwards
+     */
+    public void sortByWeight() {
+        final double[] weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            file.setReadPosition(positions[i]);
+            weights[i] = file.readDouble();
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+                return Double.compare(weights[i], weights[j]);
+            }
+        });
+
+        long[] sorted = new long[positions.length];
+        for (int i = 0; i < size; i++)
+            sorted[i] = positions[order[i]];
+        positions = sorted;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        System.arraycopy(positions, toIndex, positions, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    /**
+     * Deletes the file of the paths
+     */
+    @Override
+    public void close() {
+        file.close();
+    }
+}
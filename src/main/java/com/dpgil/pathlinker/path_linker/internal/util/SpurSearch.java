@@ -0,0 +1,158 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * A shortest path search used by the ksp algorithm to find the spur paths.
+ * Yen's algorithm removes nodes and edges from the graph before each search and
+ *      restores them once all the spur paths of a path are found. Instead of
+ *      changing the snapshot, the removed nodes and edges are flagged in the
+ *      search and skipped. The search arrays are allocated once per ksp run and
+ *      stamped with the number of the search, so nothing is cleared between searches.
+ */
+public abstract class SpurSearch {
+
+    /** the graph to search */
+    protected GraphSnapshot graph;
+    /** the edge reaching each node on its best path */
+    protected int[] predEdges;
+    /** the number of the last search that saw each node */
+    protected int[] seen;
+    /** the number of the last search that processed each node */
+    protected int[] done;
+    /** the number of the current search */
+    protected int stamp;
+    /** the nodes removed from the graph */
+    protected boolean[] blocked;
+    /** the edges removed from the graph */
+    protected boolean[] hidden;
+    /** the removed nodes */
+    private int[] blockedNodes;
+    /** number of removed nodes */
+    private int blockedCount;
+    /** the removed edges */
+    private int[] hiddenEdges;
+    /** number of removed edges */
+    private int hiddenCount;
+    /** number of searches run */
+    private int searchCount;
+
+    /**
+     * Default constructor
+     * @param graph the graph to search
+     */
+    protected SpurSearch(GraphSnapshot graph) {
+        int n = graph.nodeCount();
+
+        this.graph = graph;
+        this.predEdges = new int[n];
+        this.seen = new int[n];
+        this.done = new int[n];
+        this.blocked = new boolean[n];
+        this.hidden = new boolean[graph.edgeCount()];
+        this.blockedNodes = new int[16];
+        this.hiddenEdges = new int[16];
+    }
+
+    /**
+     * Computes the shortest path from source to target, giving up once the path
+     *      can't be shorter than maxDist
+     * @param source  the source node id
+     * @param target  the target node id
+     * @param maxDist the maximum weight of the path, infinity for no bound
+     * @return the edge ids in order in the path, null if there is no path within maxDist
+     */
+    public abstract int[] shortestPath(int source, int target, double maxDist);
+
+    /**
+     * Getter method of the number of searches
+     * @return number of searches run, not counting those from the target to itself
+     *         or from a node that can't reach the target
+     */
+    public int getSearchCount() {
+        return searchCount;
+    }
+
+    /**
+     * Removes a node from the graph until the next reset, which is the same as
+     *      hiding all of its incoming edges. The search can still start from it
+     * @param v the node id
+     */
+    public void block(int v) {
+        if (blocked[v])
+            return;
+
+        blocked[v] = true;
+        if (blockedCount == blockedNodes.length)
+            blockedNodes = Arrays.copyOf(blockedNodes, 2 * blockedCount);
+        blockedNodes[blockedCount++] = v;
+    }
+
+    /**
+     * Removes an edge from the graph until the next reset
+     * @param e the edge id
+     */
+    public void hide(int e) {
+        if (hidden[e])
+            return;
+
+        hidden[e] = true;
+        if (hiddenCount == hiddenEdges.length)
+            hiddenEdges = Arrays.copyOf(hiddenEdges, 2 * hiddenCount);
+        hiddenEdges[hiddenCount++] = e;
+    }
+
+    /**
+     * Restores the removed nodes and edges
+     */
+    public void reset() {
+        for (int i = 0; i < blockedCount; i++)
+            blocked[blockedNodes[i]] = false;
+        for (int i = 0; i < hiddenCount; i++)
+            hidden[hiddenEdges[i]] = false;
+
+        blockedCount = 0;
+        hiddenCount = 0;
+    }
+
+    /**
+     * Returns if the search can follow an edge: neither the edge nor its target
+     *      were removed, and the edge is not hidden in the snapshot
+     * @param e the edge id
+     * @return true if the edge can be followed, false otherwise
+     */
+    protected boolean canFollow(int e) {
+        return !hidden[e] && !graph.isHidden(e) && !blocked[graph.target(e)];
+    }
+
+    /**
+     * Follows the predecessor edges back from the target
+     * @param source the source node id of the search
+     * @param target the target node id of the search
+     * @return the edge ids in order in the path
+     */
+    protected int[] buildPath(int source, int target) {
+        int length = 0;
+        for (int v = target; v != source; v = graph.source(predEdges[v]))
+            length++;
+
+        int[] path = new int[length];
+        for (int v = target; v != source; v = graph.source(predEdges[v]))
+            path[--length] = predEdges[v];
+
+        return path;
+    }
+
+    /**
+     * Starts a new search, clearing the stamps once the counter wraps around
+     */
+    protected void nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+            stamp = 0;
+        }
+        stamp++;
+        searchCount++;
+    }
+}
@@ -0,0 +1,243 @@
+package com.dpgil.pathlinker.path_linker.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * The distance of each node to the target, the heuristic of the A* spur searches.
+ *      Instead of running Dijkstra's algorithm backwards from the target over the
+ *      whole graph before the first search, the backward search is run on demand:
+ *      asking for the distance of a node resumes it only until that node is settled,
+ *      so the nodes far from the sources are usually never reached.
+ * The backward search settles the nodes in the same order as
+ *      Algorithms.reverseSingleSourceDijkstra, so the distances are the same.
+ *      On large graphs, the distances are rather computed all at once in parallel
+ *      by DeltaStepping, which gives the same distances as well.
+ * The distances to a set of targets in the snapshot of a network can be kept
+ *      across runs with the same targets (see SnapshotCache), and read through a
+ *      view from the pruned graph of each run, whose nodes have their own ids.
+ */
+public class TargetDistances {
+
+    /** the graph searched backwards */
+    private GraphSnapshot graph;
+    /** the best distance to the target found so far for each node */
+    private double[] distances;
+    /** the nodes whose distance is final */
+    private boolean[] settled;
+    /** the frontier of the backward search, keyed by distance */
+    private NodeHeap frontier;
+    /** whether or not the backward search is over, every distance being final */
+    private boolean complete;
+    /** number of nodes settled */
+    private int settledCount;
+    /** the distances read through this view, null if this is not a view */
+    private TargetDistances base;
+    /** the node id in the base distances of each node id of the view, -1 for a
+     *      node given a distance of 0 */
+    private int[] ids;
+
+    /**
+     * Constructor of the distances to a target, computed on demand
+     * @param graph  the graph to search backwards, following the edges that are not hidden
+     * @param target the target node id
+     */
+    public TargetDistances(GraphSnapshot graph, int target) {
+        this(graph, new int[] { target });
+    }
+
+    /**
+     * Constructor of the distances to a set of targets, computed on demand, or all at
+     *      once in parallel if the graph is large (see DeltaStepping.getParallelism)
+     * @param graph   the graph to search backwards, following the edges that are not hidden
+     * @param targets the target node ids
+     */
+    public TargetDistances(GraphSnapshot graph, int[] targets) {
+        this(graph, targets, DeltaStepping.getParallelism(graph));
+    }
+
+    /**
+     * Constructor of the distances to a set of targets, computed on demand, or all at
+     *      once with several threads. The targets are at a distance of 0, so the distances
+     *      are the same whether or not the edges out of the targets are hidden
+     * @param graph       the graph to search backwards, following the edges that are not hidden
+     * @param targets     the target node ids
+     * @param parallelism the number of threads computing the distances all at once,
+     *                    1 to compute them on demand
+     */
+    public TargetDistances(GraphSnapshot graph, int[] targets, int parallelism) {
+        if (parallelism > 1) {
+            this.distances = DeltaStepping.reverseDistances(graph, targets, parallelism);
+            this.complete = true;
+            this.settledCount = countReachable(distances);
+            return;
+        }
+
+        this.graph = graph;
+        this.distances = new double[graph.nodeCount()];
+        this.settled = new boolean[graph.nodeCount()];
+        this.frontier = new NodeHeap();
+
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        for (int target : targets) {
+            if (distances[target] != 0.) {
+                distances[target] = 0.;
+                frontier.push(0., target, 0.);
+            }
+        }
+    }
+
+    /**
+     * Constructor of a view of distances for a graph with other node ids, such as the
+     *      pruned graph of a run reading the distances in the snapshot of the network.
+     *      The distances are shared, and computed further as the view is read
+     * @param base the distances read through the view
+     * @param ids  the node id in base of each node id of the view, -1 for a node given
+     *             a distance of 0, which is a lower bound for any node
+     */
+    public TargetDistances(TargetDistances base, int[] ids) {
+        this.base = base;
+        this.ids = ids;
+    }
+
+    /**
+     * Constructor of distances computed beforehand
+     * @param distances the distance of each node to the target, infinity if the target is unreachable
+     */
+    public TargetDistances(double[] distances) {
+        this.distances = distances;
+        this.complete = true;
+        this.settledCount = countReachable(distances);
+    }
+
+    /**
+     * Getter method of the distance of a node to the target
+     * @param v the node id
+     * @return the distance of the node to the target, infinity if the target is unreachable
+     */
+    public double get(int v) {
+        if (base != null)
+            return ids[v] < 0 ? 0. : base.get(ids[v]);
+        if (complete || settled[v])
+            return distances[v];
+
+        resume(v, 0., Double.POSITIVE_INFINITY);
+        return distances[v];
+    }
+
+    /**
+     * Getter method of the distance of a node to the target, for a path reaching the node
+     *      with the given weight that is of no use past the bound. The backward search is
+     *      resumed only until the node is settled or the lightest node on its frontier
+     *      is too far for the path to stay within the bound
+     * @param v     the node id
+     * @param dist  the weight of the path reaching the node
+     * @param bound the maximum weight of the path through the node to the target
+     * @return the distance of the node to the target, or a lower bound on it that takes
+     *         the path past the bound, infinity if the target is unreachable
+     */
+    public double get(int v, double dist, double bound) {
+        if (base != null)
+            return ids[v] < 0 ? 0. : base.get(ids[v], dist, bound);
+        if (complete || settled[v])
+            return distances[v];
+
+        resume(v, dist, bound);
+        return complete || settled[v] ? distances[v] : frontier.topKey();
+    }
+
+    /**
+     * Checks if a node is too far from the target for a path reaching it with the given weight
+     * @param v     the node id
+     * @param dist  the weight of the path reaching the node
+     * @param bound the maximum weight of the path through the node to the target
+     * @return true if the path can't reach the target within the bound
+     */
+    public boolean exceeds(int v, double dist, double bound) {
+        return dist + get(v, dist, bound) > bound;
+    }
+
+    /**
+     * Getter method of the number of settled nodes
+     * @return the number of nodes whose distance to the target was computed, including
+     *         the target
+     */
+    public int getSettledCount() {
+        return base != null ? base.getSettledCount() : settledCount;
+    }
+
+    /**
+     * Estimates the memory used by the distances, for the snapshot cache
+     * @return the estimated number of bytes of the distances and the settled nodes,
+     *         leaving out the graph
+     */
+    public long getMemorySize() {
+        return base != null ? 4L * ids.length : 9L * distances.length;
+    }
+
+    /**
+     * Counts the nodes reaching the target
+     * @param distances the distance of each node to the target
+     * @return the number of finite distances
+     */
+    private static int countReachable(double[] distances) {
+        int count = 0;
+        for (double distance : distances) {
+            if (!Double.isInfinite(distance))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Runs the backward search until a node is settled, or until the lightest node on
+     *      its frontier takes the path past the bound, or until every node is settled.
+     *      Since the distances of the nodes left are at least the key of the lightest
+     *      node on the frontier, the path through the node then can't stay within the bound
+     * @param v     the node id
+     * @param dist  the weight of the path reaching the node
+     * @param bound the maximum weight of the path through the node to the target
+     */
+    private void resume(int v, double dist, double bound) {
+        while (!frontier.isEmpty()) {
+            double currentDist = frontier.topKey();
+            if (dist + currentDist > bound)
+                return;
+
+            int current = frontier.topNode();
+            frontier.pop();
+
+            // skips the stale entries of nodes that were improved
+            if (currentDist > distances[current])
+                continue;
+
+            if (!settled[current]) {
+                settled[current] = true;
+                settledCount++;
+            }
+
+            // goes through incoming neighbors because we are finding the paths
+            // that lead to the target
+            for (int i = graph.inBegin(current); i < graph.inEnd(current); i++) {
+                int neighborEdge = graph.inEdge(i);
+                if (graph.isHidden(neighborEdge))
+                    continue;
+
+                int neighbor = graph.source(neighborEdge);
+                double newCost = currentDist + graph.weight(neighborEdge);
+
+                if (newCost < distances[neighbor]) {
+                    distances[neighbor] = newCost;
+                    frontier.push(newCost, neighbor, newCost);
+                }
+            }
+
+            if (current == v)
+                return;
+        }
+
+        // every node reaching the target is settled, the others are unreachable
+        complete = true;
+        frontier = null;
+        settled = null;
+    }
+}
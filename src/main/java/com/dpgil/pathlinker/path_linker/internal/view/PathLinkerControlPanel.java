@@ -6,7 +6,9 @@ import com.dpgil.pathlinker.path_linker.internal.task.CreateKSPViewTask;
 import com.dpgil.pathlinker.path_linker.internal.task.CreateResultPanelTask;
 import com.dpgil.pathlinker.path_linker.internal.task.RunKSPTask;
 import com.dpgil.pathlinker.path_linker.internal.util.EdgeWeightType;
+import com.dpgil.pathlinker.path_linker.internal.util.NodeNameCache;
 import com.dpgil.pathlinker.path_linker.internal.util.PathLinkerError;
+import com.dpgil.pathlinker.path_linker.internal.util.SnapshotCache;
 import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
 
 import java.awt.BorderLayout;
@@ -28,8 +30,10 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.*;
 import javax.swing.GroupLayout.Alignment;
@@ -37,6 +41,8 @@ import javax.swing.LayoutStyle.ComponentPlacement;
 import javax.swing.border.TitledBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 import javax.swing.text.PlainDocument;
 
 import org.cytoscape.app.CyAppAdapter;
@@ -70,6 +76,10 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	private JLabel _titleLabel;
 	private JLabel _sourcesLabel;
 	private JLabel _targetsLabel;
+	private JList<LoadedNode> _loadedSourcesList;
+	private JList<LoadedNode> _loadedTargetsList;
+	private JScrollPane _loadedSourcesPane;
+	private JScrollPane _loadedTargetsPane;
 	private JLabel _kLabel;
 	private JLabel _edgePenaltyLabel;
 	private JLabel _edgeWeightColumnBoxLabel;
@@ -84,6 +94,8 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	private JButton _aboutBtn;
 	public JButton _loadNodeToSourceButton;
 	public JButton _loadNodeToTargetButton;
+	private JButton _removeLoadedSourcesButton;
+	private JButton _removeLoadedTargetsButton;
 	private JButton _clearSourceTargetPanelButton;
 	private JButton _submitButton;
 
@@ -106,6 +118,14 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	private CyApplicationManager _applicationManager;
 	private CyNetworkManager _networkManager;
 	private CyAppAdapter _adapter;
+	/** The cache of the network snapshots, shared with CyRest */
+	private SnapshotCache _snapshotCache;
+	/** The cache of the node name indexes, shared with CyRest */
+	private NodeNameCache _nodeNameCache;
+	/** The selected nodes added to the sources of each network by its SUID, passed as is to the model */
+	private Map<Long, DefaultListModel<LoadedNode>> _loadedSources = new HashMap<Long, DefaultListModel<LoadedNode>>();
+	/** The selected nodes added to the targets of each network by its SUID, passed as is to the model */
+	private Map<Long, DefaultListModel<LoadedNode>> _loadedTargets = new HashMap<Long, DefaultListModel<LoadedNode>>();
 
 	/** The model that runs ksp algorithm from the user input */
 	private PathLinkerModel _model;
@@ -145,17 +165,21 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	 * @param applicationManager   application manager
 	 * @param networkManager       network manager
 	 * @param adapter              app adapter
+	 * @param snapshotCache        cache of the network snapshots
+	 * @param nodeNameCache        cache of the node name indexes
 	 * @param version              PathLinker app version
 	 * @param buildDate            PathLinker app build dates
 	 */
 	public void initialize(CySwingApplication cySwingApp, CyServiceRegistrar serviceRegistrar,
 			CyApplicationManager applicationManager, CyNetworkManager networkManager, CyAppAdapter adapter,
-			String version, String buildDate) {
+			SnapshotCache snapshotCache, NodeNameCache nodeNameCache, String version, String buildDate) {
 		_cySwingApp = cySwingApp;
 		_serviceRegistrar  = serviceRegistrar;
 		_applicationManager = applicationManager;
 		_networkManager = networkManager;
 		_adapter = adapter;
+		_snapshotCache = snapshotCache;
+		_nodeNameCache = nodeNameCache;
 		_version = version;
 		_buildDate = buildDate;
 
@@ -201,7 +225,7 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
                     _loadNodeToTargetButton.setEnabled(true);
             }
 
-            enableClearButton();
+            updateLoadedLists();
 		}
 	}
 
@@ -271,54 +295,35 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 
 	/**
 	 * Listener for the select node to source button in the panel
-	 * Obtain selected node names from the network, construct a string of them
-	 * separate by space, and pass it onto sources text field
+	 * Adds the selected nodes of the current network to its sources,
+	 * which are passed to the model by SUID without going through their names
 	 */
 	class LoadNodeToSourceButtonListener implements ActionListener {
 		/** Responds to a click of the button */
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			StringBuilder sources = new StringBuilder();
 			CyNetwork network = _applicationManager.getCurrentNetwork();
 			List<CyNode> nodes = CyTableUtil.getNodesInState(network,"selected",true);
-			for (CyNode node : nodes)
-				sources.append(network.getRow(node).get(CyNetwork.NAME, String.class) + "\n");
-
-			String sourceText = _sourcesTextField.getText();
+			addLoadedNodes(network, nodes, getLoadedNodes(_loadedSources));
 
-			if (_sourcesTextField.hintEnabled())
-			    _sourcesTextField.gainFocus();
-
-			if (sourceText.length() > 0 && sourceText.charAt(_sourcesTextField.getText().length() - 1) != ' ')
-				_sourcesTextField.setText(sourceText + " " + sources.toString());
-			else _sourcesTextField.setText(sourceText + sources.toString());
+			updateLoadedLists();
 		}
 	}
 
 	/**
 	 * Listener for the select node to target button in the panel
-	 * Obtain selected node names from the network, construct a string of them
-	 * separate by space, and pass it onto target text field
+	 * Adds the selected nodes of the current network to its targets,
+	 * which are passed to the model by SUID without going through their names
 	 */
 	class LoadNodeToTargetButtonListener implements ActionListener {
 		/** Responds to a click of the button */
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			StringBuilder targets = new StringBuilder();
 			CyNetwork network = _applicationManager.getCurrentNetwork();
 			List<CyNode> nodes = CyTableUtil.getNodesInState(network,"selected",true);
-			for (CyNode node : nodes)
-				targets.append(network.getRow(node).get(CyNetwork.NAME, String.class) + "\n");
-
-			String targetText = _targetsTextField.getText();
+			addLoadedNodes(network, nodes, getLoadedNodes(_loadedTargets));
 
-	         if (_targetsTextField.hintEnabled())
-	             _targetsTextField.gainFocus();
-
-			if (targetText.length() > 0 &&
-					targetText.charAt(targetText.length() - 1) != ' ')
-				_targetsTextField.setText(targetText + " " + targets.toString());
-			else _targetsTextField.setText(targetText + targets.toString());
+			updateLoadedLists();
 		}
 	}
 
@@ -334,12 +339,53 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 		    _allowSourcesTargetsInPathsOption.setSelected(false);
 			_targetsSameAsSourcesOption.setSelected(false);
 
+			// forget the selected nodes added to the sources and targets of the current network
+			getLoadedNodes(_loadedSources).clear();
+			getLoadedNodes(_loadedTargets).clear();
+			updateLoadedLists();
+
             // lose focus to trigger shadow hint behavior
             _sourcesTextField.loseFocus();
             _targetsTextField.loseFocus();
 		}
 	}
 
+	/**
+	 * Listener for the remove buttons under the lists of the selected nodes added
+	 * removes the nodes highlighted in the list from the sources or targets
+	 */
+	class RemoveLoadedNodesButtonListener implements ActionListener {
+		/** The list of the added nodes the button removes from */
+		private final JList<LoadedNode> list;
+
+		/**
+		 * Default constructor
+		 * @param list the list of the added nodes the button removes from
+		 */
+		RemoveLoadedNodesButtonListener(JList<LoadedNode> list) {
+			this.list = list;
+		}
+
+		/** Responds to a click of the button */
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			DefaultListModel<LoadedNode> nodes = (DefaultListModel<LoadedNode>) list.getModel();
+			int[] indices = list.getSelectedIndices();
+			for (int i = indices.length - 1; i >= 0; i--)
+				nodes.remove(indices[i]);
+
+			updateLoadedLists();
+		}
+	}
+
+	/** Listener for the lists of the selected nodes added, enables the remove buttons */
+	class LoadedListSelectionListener implements ListSelectionListener {
+		@Override
+		public void valueChanged(ListSelectionEvent e) {
+			enableRemoveButtons();
+		}
+	}
+
 	/** Listener for the submit button in the panel */
 	class SubmitButtonListener implements ActionListener {
 		/**
@@ -448,6 +494,7 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	private void enableClearButton() {
 		if ((_sourcesTextField.hintEnabled() || _sourcesTextField.getText().trim().equals(""))
 		        && (_targetsTextField.hintEnabled() || _targetsTextField.getText().trim().equals(""))
+				&& getLoadedNodes(_loadedSources).isEmpty() && getLoadedNodes(_loadedTargets).isEmpty()
 				&& !_allowSourcesTargetsInPathsOption.isSelected()
 				&& !_targetsSameAsSourcesOption.isSelected())
 			_clearSourceTargetPanelButton.setEnabled(false);
@@ -458,14 +505,113 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 	 * based on the source/target text fields and the check boxes
 	 */
 	private void enableSubmitButton() {
-	    if ((_sourcesTextField.hintEnabled() || _sourcesTextField.getText().trim().isEmpty()) 
-		        || (_targetsTextField.hintEnabled() || _targetsTextField.getText().trim().isEmpty())
-		        || _applicationManager.getCurrentNetwork() == null)
+	    boolean noSources = (_sourcesTextField.hintEnabled() || _sourcesTextField.getText().trim().isEmpty())
+	            && getLoadedNodes(_loadedSources).isEmpty();
+	    // the targets are the sources when connecting the sources to each other
+	    boolean noTargets = _targetsSameAsSourcesOption.isSelected() ? noSources
+	            : (_targetsTextField.hintEnabled() || _targetsTextField.getText().trim().isEmpty())
+	            && getLoadedNodes(_loadedTargets).isEmpty();
+
+	    if (noSources || noTargets || _applicationManager.getCurrentNetwork() == null)
 			_submitButton.setEnabled(false);
 
 	    else _submitButton.setEnabled(true);
 	}
 
+	/**
+	 * Shows the selected nodes added to the sources and targets of the current network,
+	 * the targets being the sources when connecting the sources to each other.
+	 * Called by PathLinkerNetworkEventListener whenever the networks change, so the nodes
+	 * added on one network are never submitted on another
+	 */
+	public void updateLoadedLists() {
+		if (_sourceTargetPanel == null) // stops if panel not created yet
+			return;
+
+		// forget the nodes added to the networks that were destroyed
+		if (_networkManager != null) {
+			Set<Long> networkSUIDs = new HashSet<Long>();
+			for (CyNetwork network : _networkManager.getNetworkSet())
+				networkSUIDs.add(network.getSUID());
+			_loadedSources.keySet().retainAll(networkSUIDs);
+			_loadedTargets.keySet().retainAll(networkSUIDs);
+		}
+
+		DefaultListModel<LoadedNode> sources = getLoadedNodes(_loadedSources);
+		DefaultListModel<LoadedNode> targets = _targetsSameAsSourcesOption.isSelected()
+		        ? sources : getLoadedNodes(_loadedTargets);
+		if (_loadedSourcesList.getModel() != sources)
+			_loadedSourcesList.setModel(sources);
+		if (_loadedTargetsList.getModel() != targets)
+			_loadedTargetsList.setModel(targets);
+
+		// the lists only take room once nodes are added
+		_loadedSourcesPane.setVisible(!sources.isEmpty());
+		_removeLoadedSourcesButton.setVisible(!sources.isEmpty());
+		_loadedTargetsPane.setVisible(!targets.isEmpty());
+		_removeLoadedTargetsButton.setVisible(!targets.isEmpty());
+		_sourceTargetPanel.revalidate();
+
+		enableRemoveButtons();
+		enableClearButton();
+		enableSubmitButton();
+	}
+
+	/** enables/disables the remove buttons based on the nodes highlighted in the lists */
+	private void enableRemoveButtons() {
+		_removeLoadedSourcesButton.setEnabled(!_loadedSourcesList.isSelectionEmpty());
+		// the targets shown are the sources when connecting the sources to each other
+		_removeLoadedTargetsButton.setEnabled(!_targetsSameAsSourcesOption.isSelected()
+		        && !_loadedTargetsList.isSelectionEmpty());
+	}
+
+	/**
+	 * Gets the selected nodes added to the sources or targets of the current network
+	 * @param loaded the nodes added to the sources or targets of each network
+	 * @return the nodes added to the current network, an empty list if there is none
+	 */
+	private DefaultListModel<LoadedNode> getLoadedNodes(Map<Long, DefaultListModel<LoadedNode>> loaded) {
+		CyNetwork network = _applicationManager == null ? null : _applicationManager.getCurrentNetwork();
+		if (network == null)
+			return new DefaultListModel<LoadedNode>();
+
+		DefaultListModel<LoadedNode> nodes = loaded.get(network.getSUID());
+		if (nodes == null) {
+			nodes = new DefaultListModel<LoadedNode>();
+			loaded.put(network.getSUID(), nodes);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Adds nodes to the selected nodes added to the sources or targets, skipping the ones already added
+	 * @param network the network of the nodes
+	 * @param nodes   the nodes to add
+	 * @param loaded  the nodes added to the sources or targets of the network
+	 */
+	private void addLoadedNodes(CyNetwork network, List<CyNode> nodes, DefaultListModel<LoadedNode> loaded) {
+		Set<Long> loadedSUIDs = new HashSet<Long>();
+		for (int i = 0; i < loaded.size(); i++)
+			loadedSUIDs.add(loaded.get(i).suid);
+
+		for (CyNode node : nodes) {
+			if (loadedSUIDs.add(node.getSUID()))
+				loaded.addElement(new LoadedNode(node.getSUID(), network.getRow(node).get(CyNetwork.NAME, String.class)));
+		}
+	}
+
+	/**
+	 * Gets the SUIDs of the selected nodes added to the sources or targets
+	 * @param loaded the nodes added to the sources or targets of a network
+	 * @return the SUIDs of the nodes, in the order they were added
+	 */
+	private ArrayList<Long> getLoadedSUIDs(DefaultListModel<LoadedNode> loaded) {
+		ArrayList<Long> suids = new ArrayList<Long>(loaded.size());
+		for (int i = 0; i < loaded.size(); i++)
+			suids.add(loaded.get(i).suid);
+		return suids;
+	}
+
 	/**
 	 * RunningMessage and related methods are now temporarily removed from the PathLinker 
 	 * as new layout doesn't support dynamically adding components
@@ -518,7 +664,7 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
         SynchronousTaskManager<?> synTaskMan = _adapter.getCyServiceRegistrar().getService(SynchronousTaskManager.class);
 
 		// performs KSP algorithm by creating the runKSPTask
-		RunKSPTask runKSPTask = new RunKSPTask(_originalNetwork, _modelParams);
+		RunKSPTask runKSPTask = new RunKSPTask(_originalNetwork, _modelParams, _snapshotCache);
 		synTaskMan.execute(new TaskIterator(runKSPTask));
 		// obtain results from the runKSPTask
 		_model = runKSPTask.getResults(PathLinkerModel.class);
@@ -532,7 +678,7 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 		}
 
 		// obtain result computed from the model
-		ArrayList<PathWay> result = _model.getResult();
+		List<PathWay> result = _model.getResult();
 
 		// construct createKSPViewTask to create KSP subgraph, subgraph view, path rank, and update related properties
 		CreateKSPViewTask createKSPViewTask = new CreateKSPViewTask(this, _originalNetwork, _model, _adapter, _applicationManager);
@@ -564,8 +710,15 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
         _modelParams.treatNetworkAsUndirected = _treatNetworkAsUndirectedOption.isSelected();
         _modelParams.allowSourcesTargetsInPaths = _allowSourcesTargetsInPathsOption.isSelected();
         _modelParams.includeTiedPaths = _includePathScoreTiesOption.isSelected();
-        _modelParams.sources = _sourcesTextField.getText().trim();
-        _modelParams.targets = _targetsTextField.getText().trim();
+        _modelParams.sources = _sourcesTextField.hintEnabled() ? "" : _sourcesTextField.getText().trim();
+        _modelParams.targets = _targetsTextField.hintEnabled() ? "" : _targetsTextField.getText().trim();
+        _modelParams.sourceSUIDs = getLoadedSUIDs(getLoadedNodes(_loadedSources));
+        // the sources, including the selected nodes added to them, are also the targets
+        // when connecting the sources to each other
+        if (_targetsSameAsSourcesOption.isSelected())
+            _modelParams.targets = _modelParams.sources;
+        _modelParams.targetSUIDs = getLoadedSUIDs(getLoadedNodes(_targetsSameAsSourcesOption.isSelected()
+                ? _loadedSources : _loadedTargets));
         _modelParams.k = _kTextField.getText().trim().isEmpty() ? null : Integer.parseInt(_kTextField.getText());
         _modelParams.edgeWeightColumnName = _edgeWeightColumnBox.getSelectedIndex() == -1 ? "" : _edgeWeightColumnBox.getSelectedItem().toString();
         _modelParams.edgePenalty = _edgePenaltyTextField.getText().trim().isEmpty() ? null : Double.parseDouble(_edgePenaltyTextField.getText());
@@ -580,7 +733,7 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
         }
 
         // validate the modelParams setting
-	    List<PathLinkerError> errorList = _modelParams.validate(_originalNetwork, resourcePath);
+	    List<PathLinkerError> errorList = _modelParams.validate(_originalNetwork, resourcePath, _snapshotCache, _nodeNameCache);
 
 	    if (errorList.isEmpty()) return true;
 
@@ -818,6 +971,18 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 		_loadNodeToSourceButton.setEnabled(false);
 		_loadNodeToSourceButton.addActionListener(new LoadNodeToSourceButtonListener());
 
+		_loadedSourcesList = new JList<LoadedNode>(new DefaultListModel<LoadedNode>());
+		_loadedSourcesList.setVisibleRowCount(4);
+		_loadedSourcesList.setToolTipText("Selected node(s) added to the sources of the current network");
+		_loadedSourcesList.addListSelectionListener(new LoadedListSelectionListener());
+		_loadedSourcesPane = new JScrollPane(_loadedSourcesList);
+		_loadedSourcesPane.setVisible(false);
+
+		_removeLoadedSourcesButton = new JButton("Remove source(s)");
+		_removeLoadedSourcesButton.setToolTipText("Remove the highlighted node(s) from the added sources");
+		_removeLoadedSourcesButton.setVisible(false);
+		_removeLoadedSourcesButton.addActionListener(new RemoveLoadedNodesButtonListener(_loadedSourcesList));
+
 		_targetsLabel = new JLabel("Targets separated by spaces (e.g., T1 T2 T3)");
 
 		_targetsTextField = new HintTextField("Select targets in the network or enter text manually");
@@ -830,6 +995,18 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 		_loadNodeToTargetButton.setEnabled(false);
 		_loadNodeToTargetButton.addActionListener(new LoadNodeToTargetButtonListener());
 
+		_loadedTargetsList = new JList<LoadedNode>(new DefaultListModel<LoadedNode>());
+		_loadedTargetsList.setVisibleRowCount(4);
+		_loadedTargetsList.setToolTipText("Selected node(s) added to the targets of the current network");
+		_loadedTargetsList.addListSelectionListener(new LoadedListSelectionListener());
+		_loadedTargetsPane = new JScrollPane(_loadedTargetsList);
+		_loadedTargetsPane.setVisible(false);
+
+		_removeLoadedTargetsButton = new JButton("Remove target(s)");
+		_removeLoadedTargetsButton.setToolTipText("Remove the highlighted node(s) from the added targets");
+		_removeLoadedTargetsButton.setVisible(false);
+		_removeLoadedTargetsButton.addActionListener(new RemoveLoadedNodesButtonListener(_loadedTargetsList));
+
 		_allowSourcesTargetsInPathsOption = new JCheckBox("<html>Allow sources and targets in paths</html>", false);
 		_allowSourcesTargetsInPathsOption.setToolTipText("Allow source/target nodes to appear as intermediate nodes in "
 		        + "computed paths");
@@ -850,11 +1027,15 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 				.addGroup(sourceTargetPanelLayout.createParallelGroup(Alignment.LEADING, true)
 						.addComponent(_sourcesLabel)
 						.addComponent(_sourcesTextField)
-						.addComponent(_loadNodeToSourceButton))
+						.addComponent(_loadNodeToSourceButton)
+						.addComponent(_loadedSourcesPane)
+						.addComponent(_removeLoadedSourcesButton))
 				.addGroup(sourceTargetPanelLayout.createParallelGroup(Alignment.LEADING, true)
 						.addComponent(_targetsLabel)
 						.addComponent(_targetsTextField)
-						.addComponent(_loadNodeToTargetButton))
+						.addComponent(_loadNodeToTargetButton)
+						.addComponent(_loadedTargetsPane)
+						.addComponent(_removeLoadedTargetsButton))
 				.addGroup(sourceTargetPanelLayout.createParallelGroup(Alignment.LEADING, true)
 						.addComponent(_allowSourcesTargetsInPathsOption)
 						.addGroup(sourceTargetPanelLayout.createSequentialGroup()
@@ -866,12 +1047,16 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 				.addGroup(sourceTargetPanelLayout.createSequentialGroup()
 						.addComponent(_sourcesLabel)
 						.addComponent(_sourcesTextField)
-						.addComponent(_loadNodeToSourceButton))
+						.addComponent(_loadNodeToSourceButton)
+						.addComponent(_loadedSourcesPane)
+						.addComponent(_removeLoadedSourcesButton))
 				.addPreferredGap(ComponentPlacement.RELATED)
 				.addGroup(sourceTargetPanelLayout.createSequentialGroup()
 						.addComponent(_targetsLabel)
 						.addComponent(_targetsTextField)
-						.addComponent(_loadNodeToTargetButton))
+						.addComponent(_loadNodeToTargetButton)
+						.addComponent(_loadedTargetsPane)
+						.addComponent(_removeLoadedTargetsButton))
 				.addPreferredGap(ComponentPlacement.RELATED)
 				.addGroup(sourceTargetPanelLayout.createSequentialGroup()
 						.addComponent(_allowSourcesTargetsInPathsOption)
@@ -1127,6 +1312,29 @@ public class PathLinkerControlPanel extends JPanel implements CytoPanelComponent
 		return "PathLinker";
 	}
 	
+	/** A selected node added to the sources or targets, listed by its name */
+	private static class LoadedNode {
+		/** The SUID of the node */
+		private final Long suid;
+		/** The name of the node, null if it has none */
+		private final String name;
+
+		/**
+		 * Default constructor
+		 * @param suid the SUID of the node
+		 * @param name the name of the node
+		 */
+		LoadedNode(Long suid, String name) {
+			this.suid = suid;
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name == null || name.isEmpty() ? "SUID " + suid : name;
+		}
+	}
+
 	/**
 	 * A JTextField class that comes with "ghost test"
 	 * Giving the text field ability to shows hint message that disappears when focus upon
@@ -37,6 +37,7 @@ import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyTableUtil;
 
 import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
+import com.dpgil.pathlinker.path_linker.internal.util.SpilledPathWays;
 
 /**
  * // -------------------------------------------------------------------------
@@ -162,6 +163,10 @@ public class PathLinkerResultPanel extends JPanel implements CytoPanelComponent
             Container btnParent = _deleteBtn.getParent();
             Container panelParent = btnParent.getParent();
             panelParent.remove(btnParent);
+
+            // delete the file of the paths if they were spilled to disk
+            if (_results instanceof SpilledPathWays)
+                ((SpilledPathWays) _results).close();
         }
     }
 
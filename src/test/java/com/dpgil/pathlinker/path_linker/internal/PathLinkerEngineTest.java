@@ -0,0 +1,732 @@
+package com.dpgil.pathlinker.path_linker.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dpgil.pathlinker.path_linker.internal.model.PathLinkerModel;
+import com.dpgil.pathlinker.path_linker.internal.model.PathLinkerModelParams;
+import com.dpgil.pathlinker.path_linker.internal.util.EdgeWeightType;
+import com.dpgil.pathlinker.path_linker.internal.util.KspEngine;
+import com.dpgil.pathlinker.path_linker.internal.util.Algorithms.PathWay;
+
+/** JUnit Test class for the engines and options of the ksp runs, checked against the YEN engine */
+public class PathLinkerEngineTest {
+
+	/** the input files of the small graphs: with cycles and undirected edges, without cycles,
+	 *  with integral weights, and with many tied paths. Each has some chains of nodes */
+	private static final String[] GRAPHS = {"/input/graph-cyclic.txt", "/input/graph-acyclic.txt",
+			"/input/graph-integral.txt", "/input/graph-tied.txt"};
+	/** the sources of the runs on each graph */
+	private static final String[] GRAPH_SOURCES = {"N01 N05", "N01 N03", "N01 N05", "R1C1 R1C2"};
+	/** the targets of the runs on each graph */
+	private static final String[] GRAPH_TARGETS = {"N10 N17", "N10 N17", "N10 N17", "R5C5 R5C4"};
+	/** the edge weight types of the runs on each graph, as the integral weights are no probabilities */
+	private static final EdgeWeightType[][] GRAPH_EDGE_WEIGHT_TYPES = {EdgeWeightType.values(), EdgeWeightType.values(),
+			{EdgeWeightType.UNWEIGHTED, EdgeWeightType.ADDITIVE}, EdgeWeightType.values()};
+	/** the k values of the runs */
+	private static final int[] KS = {1, 5, 20, 60};
+
+	/** object for creating setting up empty network */
+	private static NetworkTestSupport support;
+
+	/** model for running the algorithms on different networks */
+	private PathLinkerModel testModel;
+	/** model parameters for storing the input values */
+	private PathLinkerModelParams modelParams;
+	/** Whether or not to treat all paths with same weight as one "k" path */
+	private boolean includePathScoreTies;
+	/** original test input strings that contains sources */
+	private String source;
+	/** original test input strings that contains targets */
+	private String target;
+
+	/**
+	 * Creates the network support for each test
+	 */
+	@Before
+	public void setUp() {
+	    support = new NetworkTestSupport();
+	    includePathScoreTies = false;
+	}
+
+	/**
+	 * Test: to test that contracting the chains of nodes gives the same paths and scores as the plain YEN runs,
+	 * 		 with or without the paths tied with the kth path. When the kth rank cuts through tied paths, the
+	 * 		 paths are computed again without contracting the chains, as the contracted graph finds the tied
+	 * 		 paths in another order
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt, graph-grid.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testContractChains() throws IOException, URISyntaxException {
+		int contractedRuns = 0;
+		int uncontractedRuns = 0;
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[g]) {
+				for (int k : new int[] {1, 3, 5, 12, 20, 50, 60}) {
+					for (boolean ties : new boolean[] {false, true}) {
+						includePathScoreTies = ties;
+						List<PathWay> expected = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+
+						modelSetUp(network, k, edgeWeightType);
+						testModel.setRequestedEngine(KspEngine.YEN);
+						testModel.setContractChains(true);
+						testModel.runKSP();
+
+						String message = GRAPHS[g] + ", " + edgeWeightType + ", k = " + k + ", ties = " + ties;
+						if (testModel.getStatistics().getContractedNodeCount() > 0)
+							contractedRuns++;
+						else {
+							assertTrue(message, testModel.getPlan().getReason().contains("the chains are not contracted"));
+							uncontractedRuns++;
+						}
+						assertSamePaths(message, expected, testModel.getResult());
+					}
+				}
+			}
+		}
+
+		assertTrue(contractedRuns > 0);
+		assertTrue(uncontractedRuns > 0);
+
+		//the corners of the grid are chains, and its paths are all tied
+		CyNetwork network = loadNetwork("/input/graph-grid.txt");
+		source = "R1C1";
+		target = "R5C5";
+		includePathScoreTies = false;
+		for (int k : new int[] {3, 12, 50}) {
+			List<String> expected = pathListToStringList(runEngine(network, k, EdgeWeightType.UNWEIGHTED, KspEngine.YEN));
+
+			modelSetUp(network, k, EdgeWeightType.UNWEIGHTED);
+			testModel.setRequestedEngine(KspEngine.YEN);
+			testModel.setContractChains(true);
+			testModel.runKSP();
+			assertEquals("k = " + k, expected, pathListToStringList(testModel.getResult()));
+		}
+	}
+
+	/**
+	 * Test: to test that the DAG engine gives the same paths and scores as the YEN engine on the acyclic graph,
+	 * 		 with or without the paths tied with the kth path, and that it is not run on the graphs with cycles
+	 * network file (input file): graph-acyclic.txt, graph-cyclic.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testDag() throws IOException, URISyntaxException {
+		CyNetwork network = loadNetwork(GRAPHS[1]);
+		source = GRAPH_SOURCES[1];
+		target = GRAPH_TARGETS[1];
+
+		for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[1]) {
+			for (int k : KS) {
+				for (boolean ties : new boolean[] {false, true}) {
+					includePathScoreTies = ties;
+					List<PathWay> expected = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+					assertSamePaths(GRAPHS[1] + ", " + edgeWeightType + ", k = " + k + ", ties = " + ties, expected,
+							runDag(network, k, edgeWeightType));
+				}
+			}
+		}
+
+		//the planner runs another engine when the graph has cycles
+		network = loadNetwork(GRAPHS[0]);
+		source = GRAPH_SOURCES[0];
+		target = GRAPH_TARGETS[0];
+		modelSetUp(network, 20, EdgeWeightType.ADDITIVE);
+		testModel.setRequestedEngine(KspEngine.DAG);
+		testModel.runKSP();
+
+		assertFalse(testModel.getStatistics().isAcyclic());
+		assertNotEquals(KspEngine.DAG, testModel.getStatistics().getEngine());
+		List<PathWay> actual = testModel.getResult();
+		assertSamePaths(GRAPHS[0], runEngine(network, 20, EdgeWeightType.ADDITIVE, KspEngine.YEN), actual);
+	}
+
+	/**
+	 * Test: to test that the RADIX engine gives the same paths and scores as the YEN engine on all the graphs,
+	 * 		 with the default number of digits of the quantized weights and with a single digit, which leaves
+	 * 		 many searches ambiguous. The runs with a single digit are compared when none of their searches was
+	 * 		 ambiguous, as an ambiguous search may miss the shortest spur path within the rounding.
+	 * 		 The paths tied with the kth path are included, as the order in which tied paths are found may differ
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testRadix() throws IOException, URISyntaxException {
+		includePathScoreTies = true;
+		int unambiguousRuns = 0;
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[g]) {
+				for (int k : KS) {
+					List<PathWay> expected = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+					assertSamePaths(GRAPHS[g] + ", " + edgeWeightType + ", k = " + k, expected,
+							runEngine(network, k, edgeWeightType, KspEngine.RADIX));
+
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setRequestedEngine(KspEngine.RADIX);
+					testModel.setQuantizationDigits(1);
+					testModel.runKSP();
+
+					//a search may miss the shortest spur path within the rounding, which it reports
+					assertEquals(KspEngine.RADIX, testModel.getStatistics().getEngine());
+					assertFalse(testModel.getResult().isEmpty());
+					if (testModel.getStatistics().getAmbiguousSearchCount() == 0) {
+						assertSamePaths(GRAPHS[g] + ", " + edgeWeightType + ", k = " + k + ", 1 digit", expected,
+								testModel.getResult());
+						unambiguousRuns++;
+					}
+				}
+			}
+		}
+
+		assertTrue(unambiguousRuns > 0);
+	}
+
+	/**
+	 * Test: to test that computing the distances to the targets with several threads gives the same paths and
+	 * 		 scores as computing them on demand. The paths tied with the kth path are included, as the order
+	 * 		 in which tied paths are found may differ
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testParallelDistances() throws IOException, URISyntaxException {
+		includePathScoreTies = true;
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[g]) {
+				for (int k : KS) {
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setRequestedEngine(KspEngine.YEN);
+					testModel.setRequestedParallelism(1);
+					testModel.runKSP();
+					List<PathWay> expected = testModel.getResult();
+
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setRequestedEngine(KspEngine.YEN);
+					testModel.setRequestedParallelism(4);
+					testModel.runKSP();
+
+					assertEquals(4, testModel.getPlan().getParallelism());
+					assertSamePaths(GRAPHS[g] + ", " + edgeWeightType + ", k = " + k, expected, testModel.getResult());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the BUCKET engine gives the same paths and scores as the YEN engine on all the graphs,
+	 * 		 unweighted and with the integral weights, with or without the paths tied with the kth path
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testBucket() throws IOException, URISyntaxException {
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			//the weights of the integral graph are integers, the others are left unweighted
+			EdgeWeightType edgeWeightType = g == 2 ? EdgeWeightType.ADDITIVE : EdgeWeightType.UNWEIGHTED;
+			for (int k : KS) {
+				for (boolean ties : new boolean[] {false, true}) {
+					includePathScoreTies = ties;
+					List<PathWay> expected = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+					assertSamePaths(GRAPHS[g] + ", k = " + k + ", ties = " + ties, expected,
+							runEngine(network, k, edgeWeightType, KspEngine.BUCKET));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the BUCKET engine gives the same paths as the YEN engine when many paths are tied,
+	 * 		 including the paths cut at the kth rank among the tied ones
+	 * network file (input file): graph-tied.txt, a grid whose paths of the same number of edges are all tied
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testBucketTies() throws IOException, URISyntaxException {
+		CyNetwork network = loadNetwork("/input/graph-tied.txt");
+		source = "R1C1 R1C2";
+		target = "R5C5 R5C4";
+
+		for (int k : new int[] {1, 5, 12, 40, 150}) {
+			for (boolean ties : new boolean[] {false, true}) {
+				includePathScoreTies = ties;
+				List<String> expected = pathListToStringList(runEngine(network, k, EdgeWeightType.UNWEIGHTED, KspEngine.YEN));
+				List<String> actual = pathListToStringList(runEngine(network, k, EdgeWeightType.UNWEIGHTED, KspEngine.BUCKET));
+
+				assertFalse(expected.isEmpty());
+				assertEquals("k = " + k + ", ties = " + ties, expected, actual);
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the DAG engine gives the same paths as the YEN engine when many paths are tied. When the
+	 * 		 kth rank cuts through the tied paths, the paths Yen's algorithm keeps depend on the order it finds
+	 * 		 them in, so the YEN engine runs instead
+	 * network file (input file): graph-grid.txt, an acyclic grid whose paths are all tied
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testDagTies() throws IOException, URISyntaxException {
+		CyNetwork network = loadNetwork("/input/graph-grid.txt");
+		source = "R1C1";
+		target = "R5C5";
+
+		for (int k : new int[] {1, 3, 5, 12, 70, 100}) {
+			for (boolean ties : new boolean[] {false, true}) {
+				includePathScoreTies = ties;
+				List<String> expected = pathListToStringList(runEngine(network, k, EdgeWeightType.UNWEIGHTED, KspEngine.YEN));
+				List<String> actual = pathListToStringList(runDag(network, k, EdgeWeightType.UNWEIGHTED));
+
+				assertFalse(expected.isEmpty());
+				assertEquals("k = " + k + ", ties = " + ties, expected, actual);
+
+				//the 70 paths are all tied, so only the runs keeping them all can run the DAG engine
+				boolean allPaths = ties || k >= 70;
+				assertEquals("k = " + k + ", ties = " + ties, allPaths ? KspEngine.DAG : KspEngine.YEN,
+						testModel.getStatistics().getEngine());
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the single precision weights give the same paths as the double precision weights
+	 * 		 on all the graphs and edge weight types, with the same scores up to the precision of a float.
+	 * 		 The paths with scores equal up to a float may come in a different order, so the paths are
+	 * 		 compared as sets and the scores rank by rank
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testSinglePrecisionWeights() throws IOException, URISyntaxException {
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[g]) {
+				for (int k : KS) {
+					String message = GRAPHS[g] + ", " + edgeWeightType + ", k = " + k;
+					List<PathWay> expected = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setRequestedEngine(KspEngine.YEN);
+					testModel.setSinglePrecisionWeights(true);
+					testModel.runKSP();
+					List<PathWay> actual = testModel.getResult();
+
+					assertFalse(message, expected.isEmpty());
+					assertEquals(message, expected.size(), actual.size());
+					for (int i = 0; i < expected.size(); i++)
+						assertEquals(message, expected.get(i).weight, actual.get(i).weight,
+								1E-6 * Math.abs(expected.get(i).weight));
+
+					//sort the lists before comparison
+					List<String> expectedPaths = new ArrayList<String>();
+					List<String> actualPaths = new ArrayList<String>();
+					for (int i = 0; i < expected.size(); i++) {
+						expectedPaths.add(pathAsString(expected.get(i)));
+						actualPaths.add(pathAsString(actual.get(i)));
+					}
+					Collections.sort(expectedPaths);
+					Collections.sort(actualPaths);
+
+					assertEquals(message, expectedPaths, actualPaths);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the maximum path length keeps the paths of exactly that number of edges and drops
+	 * 		 the longer ones, giving the same paths and scores as the YEN runs without limit filtered by length.
+	 * 		 The paths tied with the kth path are included, as the order in which tied paths are found may differ
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testMaxPathLength() throws IOException, URISyntaxException {
+		includePathScoreTies = true;
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			for (EdgeWeightType edgeWeightType : GRAPH_EDGE_WEIGHT_TYPES[g]) {
+				List<PathWay> unlimited = runEngine(network, 200, edgeWeightType, KspEngine.YEN);
+				boolean allPaths = unlimited.size() < 200;
+
+				//the limit is the length of one of the first paths, so that some longer paths are dropped
+				int maxPathLength = edgeCount(unlimited.get(4));
+				ArrayList<PathWay> kept = new ArrayList<PathWay>();
+				boolean longerPath = false;
+				for (PathWay path : unlimited) {
+					if (edgeCount(path) <= maxPathLength)
+						kept.add(path);
+					else
+						longerPath = true;
+				}
+				assertTrue(longerPath);
+
+				for (int k : new int[] {1, 5, 20}) {
+					String message = GRAPHS[g] + ", " + edgeWeightType + ", k = " + k;
+
+					//the paths up to the kth kept path and the ones tied with it, all of which the run without
+					//limit found unless it was cut at a path as heavy
+					double kthWeight = kept.get(Math.min(k, kept.size()) - 1).weight;
+					double tolerance = 1E-9 * Math.abs(kthWeight);
+					assertTrue(message, allPaths
+							|| Math.abs(kthWeight - unlimited.get(unlimited.size() - 1).weight) > tolerance);
+					ArrayList<PathWay> expected = new ArrayList<PathWay>();
+					boolean expectedBoundaryPath = false;
+					for (PathWay path : kept) {
+						if (expected.size() >= k && Math.abs(path.weight - kthWeight) > tolerance)
+							break;
+						expected.add(path);
+						expectedBoundaryPath |= edgeCount(path) == maxPathLength;
+					}
+
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setMaxPathLength(maxPathLength);
+					testModel.runKSP();
+					List<PathWay> actual = testModel.getResult();
+
+					boolean boundaryPath = false;
+					for (PathWay path : actual) {
+						assertTrue(message, edgeCount(path) <= maxPathLength);
+						boundaryPath |= edgeCount(path) == maxPathLength;
+					}
+					assertEquals(message, expectedBoundaryPath, boundaryPath);
+					assertSamePathSet(message, expected, actual);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that the maximum path cost keeps the paths of exactly that score and drops the heavier
+	 * 		 ones, giving the same paths and scores as the YEN runs without limit filtered by score
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt,
+	 * 		 with the integral weights or unweighted, so that the scores of the paths are exact
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testMaxPathCost() throws IOException, URISyntaxException {
+		includePathScoreTies = true;
+		for (int g = 0; g < GRAPHS.length; g++) {
+			CyNetwork network = loadNetwork(GRAPHS[g]);
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+
+			//the weights of the integral graph are integers, the others are left unweighted
+			EdgeWeightType edgeWeightType = g == 2 ? EdgeWeightType.ADDITIVE : EdgeWeightType.UNWEIGHTED;
+			List<PathWay> unlimited = runEngine(network, 200, edgeWeightType, KspEngine.YEN);
+			boolean allPaths = unlimited.size() < 200;
+
+			//the limit is the score of the first path, of one of the following ones, and of the last one
+			for (int rank : new int[] {0, unlimited.size() / 3, unlimited.size() - 1}) {
+				double maxPathCost = unlimited.get(rank).weight;
+				String message = GRAPHS[g] + ", maxPathCost = " + maxPathCost;
+				if (!allPaths && maxPathCost == unlimited.get(unlimited.size() - 1).weight)
+					continue;
+
+				ArrayList<PathWay> expected = new ArrayList<PathWay>();
+				for (PathWay path : unlimited) {
+					if (path.weight <= maxPathCost)
+						expected.add(path);
+				}
+
+				modelSetUp(network, 200, edgeWeightType);
+				testModel.setMaxPathCost(maxPathCost);
+				testModel.runKSP();
+				List<PathWay> actual = testModel.getResult();
+
+				assertEquals(message, maxPathCost, actual.get(actual.size() - 1).weight, 0.);
+				assertSamePathSet(message, expected, actual);
+			}
+		}
+	}
+
+	/**
+	 * Test: to test that each path of the approximate runs is at most 1 + epsilon times heavier than the path
+	 * 		 of the same rank of the exact YEN runs, and no lighter, with an approximation bound within 1 + epsilon.
+	 * 		 The runs are unweighted or with additive weights, as the bound applies to the additive weights
+	 * network file (input file): graph-cyclic.txt, graph-acyclic.txt, graph-integral.txt, graph-tied.txt,
+	 * 		 and graph-approximate.txt, whose spur paths through the nodes closest to the target are not
+	 * 		 the shortest ones, so that the approximate runs find heavier paths
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void testApproximation() throws IOException, URISyntaxException {
+		for (int g = 0; g < GRAPHS.length; g++) {
+			source = GRAPH_SOURCES[g];
+			target = GRAPH_TARGETS[g];
+			assertApproximation(GRAPHS[g]);
+		}
+
+		source = "S";
+		target = "T";
+		assertApproximation("/input/graph-approximate.txt");
+	}
+
+	/**
+	 * Sets up a network from an input file, each line of which is the source, the target and the weight
+	 * of an edge, followed by whether it is directed or undirected. The edges are directed when the
+	 * last column is left out
+	 * @param resource the path of the input file
+	 * @return the network
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	private CyNetwork loadNetwork(String resource) throws IOException, URISyntaxException {
+		HashMap<String, CyNode> nodes = new HashMap<String, CyNode>();
+		CyNetwork network = support.getNetwork();
+		network.getDefaultEdgeTable().createColumn("edge_weight", Double.class, false);
+
+		//access input file
+		URL url = this.getClass().getResource(resource);
+		File file = new File(url.toURI());
+
+		//construct network based on input file
+		BufferedReader readerInput = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = readerInput.readLine(); line != null; line = readerInput.readLine()) {
+				String[] arr = line.split("\\s+");
+				CyNode[] ends = new CyNode[2];
+
+				//to avoid adding the same node twice
+				for (int i = 0; i < 2; i++) {
+					ends[i] = nodes.get(arr[i]);
+					if (ends[i] == null) {
+						ends[i] = network.addNode();
+						network.getRow(ends[i]).set(CyNetwork.NAME, arr[i]);
+						nodes.put(arr[i], ends[i]);
+					}
+				}
+
+				boolean isDirected = arr.length < 4 || arr[3].equals("directed");
+
+				CyEdge edge = network.addEdge(ends[0], ends[1], isDirected);
+				network.getRow(edge).set("edge_weight", Double.parseDouble(arr[2]));
+			}
+		} finally {
+			readerInput.close();
+		}
+
+		return network;
+	}
+
+	/**
+	 * Runs the model with the given engine, checking that the engine was not replaced by the planner
+	 * @return the paths found
+	 */
+	private List<PathWay> runEngine(CyNetwork network, int k, EdgeWeightType edgeWeightType, KspEngine engine) {
+		modelSetUp(network, k, edgeWeightType);
+		testModel.setRequestedEngine(engine);
+		testModel.runKSP();
+
+		assertEquals(engine, testModel.getStatistics().getEngine());
+		return testModel.getResult();
+	}
+
+	/**
+	 * Runs the DAG engine, or the YEN engine it falls back to when the kth rank cuts through tied paths
+	 */
+	private List<PathWay> runDag(CyNetwork network, int k, EdgeWeightType edgeWeightType) {
+		modelSetUp(network, k, edgeWeightType);
+		testModel.setRequestedEngine(KspEngine.DAG);
+		testModel.runKSP();
+
+		assertTrue(testModel.getStatistics().isAcyclic());
+		if (testModel.getStatistics().getEngine() != KspEngine.DAG)
+			assertTrue(testModel.getPlan().getReason().contains("the last path kept is tied with the next one"));
+		return testModel.getResult();
+	}
+
+	/**
+	 * Checks that two runs found the same paths in the same order, with the same scores
+	 * up to the rounding of the sums of the edge weights
+	 */
+	private void assertSamePaths(String message, List<PathWay> expected, List<PathWay> actual) {
+		assertFalse(message, expected.isEmpty());
+		assertEquals(message, expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(message, pathAsString(expected.get(i)), pathAsString(actual.get(i)));
+			assertEquals(message, expected.get(i).weight, actual.get(i).weight, 1E-9 * Math.abs(expected.get(i).weight));
+		}
+	}
+
+	/**
+	 * Checks that the approximate runs on a graph find paths at most 1 + epsilon times heavier than
+	 * the exact YEN runs, rank by rank, unweighted and with the additive weights
+	 * @param resource the path of the input file
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	private void assertApproximation(String resource) throws IOException, URISyntaxException {
+		CyNetwork network = loadNetwork(resource);
+
+		for (EdgeWeightType edgeWeightType : new EdgeWeightType[] {EdgeWeightType.UNWEIGHTED, EdgeWeightType.ADDITIVE}) {
+			for (int k : KS) {
+				List<PathWay> exact = runEngine(network, k, edgeWeightType, KspEngine.YEN);
+
+				for (double epsilon : new double[] {0.1, 0.5}) {
+					String message = resource + ", " + edgeWeightType + ", k = " + k + ", epsilon = " + epsilon;
+
+					modelSetUp(network, k, edgeWeightType);
+					testModel.setRequestedEngine(KspEngine.YEN);
+					testModel.setApproximationEpsilon(epsilon);
+					testModel.runKSP();
+					List<PathWay> approximate = testModel.getResult();
+
+					assertFalse(message, exact.isEmpty());
+					assertEquals(message, exact.size(), approximate.size());
+					for (int i = 0; i < exact.size(); i++) {
+						double tolerance = 1E-9 * exact.get(i).weight;
+						assertTrue(message + ", rank " + (i + 1),
+								approximate.get(i).weight <= (1 + epsilon) * exact.get(i).weight + tolerance);
+						assertTrue(message + ", rank " + (i + 1),
+								approximate.get(i).weight >= exact.get(i).weight - tolerance);
+						if (approximate.get(i).approximationBound != null)
+							assertTrue(message + ", rank " + (i + 1),
+									approximate.get(i).approximationBound <= 1 + epsilon + 1E-9);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that two runs found the same paths with the same scores, in any order
+	 */
+	private void assertSamePathSet(String message, List<PathWay> expected, List<PathWay> actual) {
+		HashMap<String, Double> expectedWeights = new HashMap<String, Double>();
+		for (PathWay path : expected)
+			expectedWeights.put(pathAsString(path), path.weight);
+
+		assertFalse(message, expected.isEmpty());
+		assertEquals(message, expected.size(), actual.size());
+		for (PathWay path : actual) {
+			Double weight = expectedWeights.get(pathAsString(path));
+			assertNotNull(message + ", " + pathAsString(path), weight);
+			assertEquals(message, weight, path.weight, 1E-9 * Math.abs(weight));
+		}
+	}
+
+	/**
+	 * Counts the edges of a path, leaving out the edges of the supersource and supertarget
+	 */
+	private int edgeCount(PathWay p) {
+		return p.size() - 3;
+	}
+
+	/**
+	 * Sets up the test model before testing
+	 */
+	private void modelSetUp(CyNetwork network, int k, EdgeWeightType edgeWeightType) {
+	    modelParams = new PathLinkerModelParams();
+	    modelParams.treatNetworkAsUndirected = false;
+	    modelParams.allowSourcesTargetsInPaths = false;
+	    modelParams.includeTiedPaths = includePathScoreTies;
+	    modelParams.sources = source;
+	    modelParams.targets = target;
+	    modelParams.k = k;
+	    modelParams.edgeWeightType = edgeWeightType;
+	    modelParams.edgeWeightColumnName = "edge_weight";
+	    modelParams.edgePenalty = edgeWeightType == EdgeWeightType.PROBABILITIES ? 1. : 0.;
+
+	    modelParams.validate(network, "test");
+	    assertTrue(modelParams.continueStatus());
+
+	    testModel = new PathLinkerModel(
+	            network,
+	            modelParams.treatNetworkAsUndirected,
+	            modelParams.allowSourcesTargetsInPaths,
+	            modelParams.includeTiedPaths,
+	            modelParams.getSourceNames(),
+	            modelParams.getTargetNames(),
+	            modelParams.getSourcesList(),
+	            modelParams.getTargetsList(),
+	            modelParams.edgeWeightColumnName,
+	            modelParams.k,
+	            modelParams.edgeWeightType,
+	            modelParams.edgePenalty,
+	            modelParams.getCyNodeToId());
+	}
+
+	/**
+	 * Converts a path to a string concatenating the node names A path in the
+	 * network involving A -> B -> C would return A|B|C
+	 * @param p the path to convert to a string
+	 * @return the concatenation of the node names
+	 */
+	private String pathAsString(PathWay p) {
+		//builds the path string without supersource/supertarget [1,len-1]
+		StringBuilder currPath = new StringBuilder();
+		for (int i = 1; i < p.size() - 1; i++)
+			currPath.append(p.nodeIdMap.get(p.nodeList.get(i)) + "|");
+
+		currPath.setLength(currPath.length() - 1);
+
+		return currPath.toString();
+	}
+
+	/**
+	 * Converts a list of paths into a list of string of their rank, score and nodes
+	 * @param result list of paths
+	 * @return list of string
+	 */
+	private ArrayList<String> pathListToStringList(List<PathWay> result) {
+		ArrayList<String> output = new ArrayList<String>();
+
+		for (int i = 0; i < result.size(); i++)
+			output.add(i + 1 + " " + result.get(i).weight + " " + pathAsString(result.get(i)));
+
+		return output;
+	}
+}
@@ -12,6 +12,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import org.cytoscape.model.NetworkTestSupport;
 import org.cytoscape.model.CyNetwork;
@@ -690,7 +691,7 @@ public class PathLinkerModelTest {
 	 * @param p list of paths
 	 * @return list of string
 	 */
-	private ArrayList<String> pathListToStringList(ArrayList<PathWay> result) {
+	private ArrayList<String> pathListToStringList(List<PathWay> result) {
 		ArrayList<String> output = new ArrayList<String>();
 
 		for (int i = 0; i < result.size(); i++) 
@@ -0,0 +1,118 @@
+package com.dpgil.pathlinker.path_linker.internal;
+
+import java.util.Random;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.NetworkTestSupport;
+
+import com.dpgil.pathlinker.path_linker.internal.util.AStarSearch;
+import com.dpgil.pathlinker.path_linker.internal.util.Algorithms;
+import com.dpgil.pathlinker.path_linker.internal.util.GraphSnapshot;
+
+/**
+ * Benchmark of the node reordering of the graph snapshot (see GraphSnapshot.reorder).
+ * Builds a grid with edges both ways between neighbors and a few random long range
+ *      edges, numbers its nodes at random as the node list of a network has no
+ *      locality, then times the heuristic pass and a batch of spur-like A* searches
+ *      in network order and in reverse Cuthill-McKee order.
+ * Not a JUnit test, run it with the test classpath:
+ *      java com.dpgil.pathlinker.path_linker.internal.SnapshotReorderBenchmark [side] [searches]
+ */
+public class SnapshotReorderBenchmark {
+
+    /** number of times each measure is repeated, keeping the best time */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int searches = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        CyNetwork network = new NetworkTestSupport().getNetwork();
+        CyNode[] nodes = new CyNode[side * side];
+        for (int v = 0; v < nodes.length; v++)
+            nodes[v] = network.addNode();
+
+        // the source and target are at opposite corners of the grid
+        CyNode source = nodes[0];
+        CyNode target = nodes[nodes.length - 1];
+
+        GraphSnapshot shuffled = buildGrid(nodes, side, new Random(42));
+        GraphSnapshot reordered = shuffled.reorder(shuffled.indexOf(source));
+
+        System.out.println(String.format("%d nodes, %d edges, %d searches",
+                shuffled.nodeCount(), shuffled.edgeCount(), searches));
+        System.out.println(String.format("network order:  %d ms", time(shuffled, source, target, searches)));
+        System.out.println(String.format("reordered:      %d ms", time(reordered, source, target, searches)));
+    }
+
+    /**
+     * Builds the grid, shuffling the nodes first
+     */
+    private static GraphSnapshot buildGrid(CyNode[] gridNodes, int side, Random random) {
+        int n = gridNodes.length;
+        int[] ids = new int[n];
+        CyNode[] nodes = new CyNode[n];
+        for (int v = 0; v < n; v++)
+            ids[v] = v;
+        for (int v = n - 1; v > 0; v--) {
+            int w = random.nextInt(v + 1);
+            int id = ids[v];
+            ids[v] = ids[w];
+            ids[w] = id;
+        }
+        for (int v = 0; v < n; v++)
+            nodes[ids[v]] = gridNodes[v];
+
+        int m = 4 * side * (side - 1) + n / 100;
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            int right = v % side + 1 < side ? v + 1 : -1;
+            int down = v + side < n ? v + side : -1;
+            for (int w : new int[] { right, down }) {
+                if (w < 0)
+                    continue;
+                sources[e] = ids[v]; targets[e] = ids[w]; weights[e++] = 1 + random.nextDouble();
+                sources[e] = ids[w]; targets[e] = ids[v]; weights[e++] = 1 + random.nextDouble();
+            }
+        }
+        while (e < m) {
+            sources[e] = ids[random.nextInt(n)];
+            targets[e] = ids[random.nextInt(n)];
+            weights[e++] = side * (1 + random.nextDouble());
+        }
+
+        return new GraphSnapshot(nodes, sources, targets, weights, null);
+    }
+
+    /**
+     * Times the heuristic pass to the target, then the searches from the nodes of
+     *      the shortest path with one of its edges removed, as the spur searches do
+     * @return the best time in milliseconds
+     */
+    private static long time(GraphSnapshot graph, CyNode sourceNode, CyNode targetNode, int searches) {
+        int source = graph.indexOf(sourceNode);
+        int target = graph.indexOf(targetNode);
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+
+            double[] minDists = Algorithms.reverseSingleSourceDijkstra(graph, target);
+            AStarSearch search = new AStarSearch(graph, minDists);
+            int[] path = search.shortestPath(source, target, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < searches && i < path.length; i++) {
+                search.hide(path[i]);
+                search.shortestPath(graph.source(path[i]), target, Double.POSITIVE_INFINITY);
+                search.reset();
+            }
+
+            best = Math.min(best, (System.nanoTime() - start) / 1000000);
+        }
+
+        return best;
+    }
+}